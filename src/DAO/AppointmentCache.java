@@ -0,0 +1,657 @@
+package DAO;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import model.Appointment;
+import model.AppointmentSeries;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * The Abstract Class for AppointmentCache. This is the process-wide, in-memory copy of the appointments table, keyed
+ * by Appointment_ID, with secondary views by customer, by contact and by the month an appointment starts in. For
+ * availability it also keeps an IntervalSet per customer, contact and user for overlap checks, and an OccupancyIndex
+ * of the half-hour slots each of them is busy in. An AppointmentRollup counts the appointments by month and type for
+ * the Type/Month report. It is loaded from the database the first time it is read and is then kept current by
+ * AppointmentDAO, which writes every insert, update and delete through to it, so reads no longer go to the database.
+ * Changes made by other clients are applied by DeltaSync within a few seconds.
+ *
+ * The definitions of the recurring series are cached too, by Series_ID and by customer, contact and user, but their
+ * occurrences are not stored: the overlap checks, busy slots and counts expand them only over the range they ask
+ * about. The series are loaded apart from the appointments and kept current by SeriesDAO, so a series table that
+ * cannot be read does not stop the appointments from being read. Cached series are never changed once stored.
+ *
+ * Readers and writers may run on the JavaFX application thread and on database worker threads at the same time, so
+ * access is guarded by a read-write lock. Lists handed out are copies, in Appointment_ID order. */
+public abstract class AppointmentCache {
+
+    private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private static final TreeMap<Integer, Appointment> byId = new TreeMap<>();
+    private static final Map<Integer, TreeMap<Integer, Appointment>> byCustomer = new HashMap<>();
+    private static final Map<Integer, TreeMap<Integer, Appointment>> byContact = new HashMap<>();
+    private static final Map<YearMonth, TreeMap<Integer, Appointment>> byMonth = new HashMap<>();
+    private static final Map<Integer, IntervalSet> customerIntervals = new HashMap<>();
+    private static final Map<Integer, IntervalSet> contactIntervals = new HashMap<>();
+    private static final Map<Integer, IntervalSet> userIntervals = new HashMap<>();
+    private static final OccupancyIndex occupancy = new OccupancyIndex();
+    private static final AppointmentRollup rollup = new AppointmentRollup();
+    private static final TreeMap<Integer, AppointmentSeries> seriesById = new TreeMap<>();
+    private static final Map<OccupancyResource, Map<Integer, TreeMap<Integer, AppointmentSeries>>> seriesByResource = new EnumMap<>(OccupancyResource.class);
+    private static boolean loaded = false;
+    private static long writes = 0;
+    private static boolean seriesLoaded = false;
+    private static long seriesWrites = 0;
+
+    static {
+        for (OccupancyResource resource : OccupancyResource.values()) {
+            seriesByResource.put(resource, new HashMap<>());
+        }
+    }
+
+    /**
+     * Loads every appointment from the database, unless the cache is already loaded. The table is read without holding
+     * the lock; if a write is made through AppointmentDAO while it is being read, the read may have missed it and is
+     * repeated.
+     *
+     * @throws SQLException If the appointments cannot be read.
+     */
+    public static void load() throws SQLException {
+        while (true) {
+            long writesBefore;
+            lock.readLock().lock();
+            try {
+                if (loaded) {
+                    return;
+                }
+                writesBefore = writes;
+            } finally {
+                lock.readLock().unlock();
+            }
+            ObservableList<Appointment> appointments = AppointmentDAO.readAllAppointments();
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    return;
+                }
+                if (writes == writesBefore) {
+                    for (Appointment appointment : appointments) {
+                        index(appointment);
+                    }
+                    loaded = true;
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Loads every series definition from the database, unless they are already loaded. Like load, the table is read
+     * without holding the lock and read again if a series is written meanwhile. If the series cannot be read, for
+     * example because the appointment_series table is missing, the error is printed and the caller goes on without
+     * series; the load is tried again on the next read.
+     */
+    private static void loadSeries() {
+        while (true) {
+            long writesBefore;
+            lock.readLock().lock();
+            try {
+                if (seriesLoaded) {
+                    return;
+                }
+                writesBefore = seriesWrites;
+            } finally {
+                lock.readLock().unlock();
+            }
+            List<AppointmentSeries> series;
+            try {
+                series = SeriesDAO.getSeries();
+            } catch (SQLException e) {
+                System.out.println("Error: " + e.getMessage());
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                if (seriesLoaded) {
+                    return;
+                }
+                if (seriesWrites == writesBefore) {
+                    for (AppointmentSeries oneSeries : series) {
+                        indexSeries(oneSeries);
+                    }
+                    seriesLoaded = true;
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Checks whether the cache has been loaded. Writes are only applied to a loaded cache, since an unloaded one will
+     * read them from the database when it loads.
+     *
+     * @return `true` if the cache is loaded.
+     */
+    public static boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether the series definitions have been loaded. Series writes are only applied once they are.
+     *
+     * @return `true` if the series are loaded.
+     */
+    public static boolean isSeriesLoaded() {
+        lock.readLock().lock();
+        try {
+            return seriesLoaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Empties the cache, so the next read loads it from the database again.
+     */
+    public static void invalidate() {
+        lock.writeLock().lock();
+        try {
+            byId.clear();
+            byCustomer.clear();
+            byContact.clear();
+            byMonth.clear();
+            customerIntervals.clear();
+            contactIntervals.clear();
+            userIntervals.clear();
+            occupancy.clear();
+            rollup.clear();
+            seriesById.clear();
+            for (Map<Integer, TreeMap<Integer, AppointmentSeries>> series : seriesByResource.values()) {
+                series.clear();
+            }
+            loaded = false;
+            seriesLoaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns every cached appointment, loading the cache first if needed.
+     *
+     * @return A list of all appointments in Appointment_ID order.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
+     */
+    public static ObservableList<Appointment> getAll() throws SQLException {
+        load();
+        lock.readLock().lock();
+        try {
+            return FXCollections.observableArrayList(byId.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns one cached appointment, loading the cache first if needed.
+     *
+     * @param appointmentId The ID of the appointment.
+     * @return The appointment, or null if there is none with that ID.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
+     */
+    public static Appointment get(int appointmentId) throws SQLException {
+        load();
+        lock.readLock().lock();
+        try {
+            return byId.get(appointmentId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the cached appointments of a customer, loading the cache first if needed.
+     *
+     * @param customerId The ID of the customer.
+     * @return A list of the customer's appointments in Appointment_ID order.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
+     */
+    public static ObservableList<Appointment> getByCustomer(int customerId) throws SQLException {
+        return view(byCustomer, customerId);
+    }
+
+    /**
+     * Returns the cached appointments of a contact, loading the cache first if needed.
+     *
+     * @param contactId The ID of the contact.
+     * @return A list of the contact's appointments in Appointment_ID order.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
+     */
+    public static ObservableList<Appointment> getByContact(int contactId) throws SQLException {
+        return view(byContact, contactId);
+    }
+
+    /**
+     * Returns the cached appointments starting in a month, loading the cache first if needed.
+     *
+     * @param month The month.
+     * @return A list of the month's appointments in Appointment_ID order.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
+     */
+    public static ObservableList<Appointment> getByMonth(YearMonth month) throws SQLException {
+        return view(byMonth, month);
+    }
+
+    /**
+     * Finds every cached appointment of a customer that overlaps a time range, loading the cache first if needed.
+     * This answers the booking overlap check from memory, visiting only the customer's appointments near the range.
+     * The occurrences of the customer's series in the range are expanded and included.
+     *
+     * @param customerId The ID of the customer.
+     * @param start The start of the range, inclusive.
+     * @param end The end of the range, exclusive.
+     * @param excludeAppointmentId The ID of an appointment to leave out, such as the one being updated, or 0.
+     * @return The overlapping appointments in start time order.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
+     */
+    public static List<Appointment> getConflicts(int customerId, LocalDateTime start, LocalDateTime end, int excludeAppointmentId) throws SQLException {
+        return overlapping(customerIntervals, OccupancyResource.CUSTOMER, customerId, start, end, excludeAppointmentId);
+    }
+
+    /**
+     * Finds every cached appointment of a contact that overlaps a time range, loading the cache first if needed. The
+     * occurrences of the contact's series in the range are expanded and included.
+     *
+     * @param contactId The ID of the contact.
+     * @param start The start of the range, inclusive.
+     * @param end The end of the range, exclusive.
+     * @return The overlapping appointments in start time order.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
+     */
+    public static List<Appointment> getContactConflicts(int contactId, LocalDateTime start, LocalDateTime end) throws SQLException {
+        return overlapping(contactIntervals, OccupancyResource.CONTACT, contactId, start, end, 0);
+    }
+
+    /**
+     * Returns the busy half-hour slots of a customer, contact or user over consecutive days, loading the cache first if
+     * needed. Bit i of each day is set when an appointment overlaps the i-th slot of DataLists.getTimes. The slots of
+     * the resource's series occurrences over those days are expanded and added.
+     *
+     * @param resource The kind of resource.
+     * @param id The ID of the resource.
+     * @param from The first day.
+     * @param dayCount The number of days.
+     * @return One bitmap per day, starting with from.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
+     */
+    public static long[] getBusySlots(OccupancyResource resource, int id, LocalDate from, int dayCount) throws SQLException {
+        load();
+        loadSeries();
+        long[] busy = new long[dayCount];
+        LocalDate to = from.plusDays(dayCount);
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < dayCount; i++) {
+                busy[i] = occupancy.get(resource, id, from.plusDays(i));
+            }
+            for (Appointment occurrence : occurrences(resource, id, from.atStartOfDay(), to.atStartOfDay())) {
+                LocalDate day = occurrence.getStartTime().toLocalDate();
+                for (day = day.isBefore(from) ? from : day; day.isBefore(to) && day.atStartOfDay().isBefore(occurrence.getEndTime()); day = day.plusDays(1)) {
+                    busy[(int) ChronoUnit.DAYS.between(from, day)] |= OccupancyIndex.slotMask(occurrence.getStartTime(), occurrence.getEndTime(), day);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return busy;
+    }
+
+    /**
+     * Counts the cached appointments starting in a month of the year and of a type, loading the cache first if needed.
+     * A null dimension matches any value, so this answers the Type/Month report without reading the appointments. The
+     * occurrences of the series of that type are counted by stepping through their start times, without building them.
+     *
+     * @param month The month of the year the appointments start in, or null.
+     * @param type The type, or null.
+     * @return The number of matching appointments.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
+     */
+    public static int count(Month month, String type) throws SQLException {
+        load();
+        loadSeries();
+        lock.readLock().lock();
+        try {
+            int count = rollup.count(month, type);
+            for (AppointmentSeries series : seriesById.values()) {
+                if (type != null && !type.equals(Objects.toString(series.getType(), ""))) {
+                    continue;
+                }
+                for (long index = 0, last = series.getLastIndex(); index <= last; index++) {
+                    if ((month == null || series.getOccurrenceStart(index).getMonth() == month) && !series.isSkipped(index)) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns every cached series definition, loading them first if needed.
+     *
+     * @return The series in Series_ID order, empty if they cannot be read.
+     */
+    static List<AppointmentSeries> getSeries() {
+        loadSeries();
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(seriesById.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records that appointments were written without the cache being updated, either because it was not loaded or
+     * because reading them back failed. The cache is emptied so it is loaded again on the next read, and a load
+     * already running is repeated.
+     */
+    static void markStale() {
+        lock.writeLock().lock();
+        try {
+            writes++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        invalidate();
+    }
+
+    /**
+     * Adds or replaces several appointments in a loaded cache.
+     *
+     * @param appointments The appointments as stored in the database.
+     */
+    static void putAll(Collection<Appointment> appointments) {
+        lock.writeLock().lock();
+        try {
+            writes++;
+            if (loaded) {
+                for (Appointment appointment : appointments) {
+                    unindex(byId.get(appointment.getAppointmentId()));
+                    index(appointment);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an appointment from a loaded cache.
+     *
+     * @param appointmentId The ID of the removed appointment.
+     */
+    static void remove(int appointmentId) {
+        lock.writeLock().lock();
+        try {
+            writes++;
+            unindex(byId.get(appointmentId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces a series definition once the series are loaded.
+     *
+     * @param series The series as stored in the database. It must not be changed afterwards.
+     */
+    static void putSeries(AppointmentSeries series) {
+        lock.writeLock().lock();
+        try {
+            seriesWrites++;
+            if (seriesLoaded) {
+                unindexSeries(series.getSeriesId());
+                indexSeries(series);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a series definition once the series are loaded.
+     *
+     * @param seriesId The ID of the removed series.
+     */
+    static void removeSeries(int seriesId) {
+        lock.writeLock().lock();
+        try {
+            seriesWrites++;
+            unindexSeries(seriesId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copies one secondary view, loading the cache first if needed.
+     *
+     * @param views The secondary views.
+     * @param key The key of the view to copy.
+     * @param <K> The type of key of the views.
+     * @return A copy of the view, empty if it does not exist.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
+     */
+    private static <K> ObservableList<Appointment> view(Map<K, TreeMap<Integer, Appointment>> views, K key) throws SQLException {
+        load();
+        lock.readLock().lock();
+        try {
+            TreeMap<Integer, Appointment> view = views.get(key);
+            return view == null ? FXCollections.observableArrayList() : FXCollections.observableArrayList(view.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Looks up the appointments overlapping a time range in one IntervalSet, together with the occurrences of the
+     * same resource's series in the range, loading the cache first if needed.
+     *
+     * @param intervals The interval sets to search.
+     * @param resource The kind of resource the sets belong to.
+     * @param key The customer or contact whose set is searched.
+     * @param start The start of the range, inclusive.
+     * @param end The end of the range, exclusive.
+     * @param excludeAppointmentId The ID of an appointment to leave out, or 0.
+     * @return The overlapping appointments and occurrences in start time order.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
+     */
+    private static List<Appointment> overlapping(Map<Integer, IntervalSet> intervals, OccupancyResource resource, int key, LocalDateTime start, LocalDateTime end, int excludeAppointmentId) throws SQLException {
+        load();
+        loadSeries();
+        lock.readLock().lock();
+        try {
+            IntervalSet set = intervals.get(key);
+            List<Appointment> conflicts = set == null ? new ArrayList<>() : set.overlapping(start, end, excludeAppointmentId);
+            List<Appointment> occurrences = occurrences(resource, key, start, end);
+            if (!occurrences.isEmpty()) {
+                conflicts.addAll(occurrences);
+                conflicts.sort((a, b) -> a.getStartTime().compareTo(b.getStartTime()));
+            }
+            return conflicts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Expands the occurrences of one customer's, contact's or user's series that overlap a time range. Must be called
+     * holding the lock.
+     *
+     * @param resource The kind of resource.
+     * @param id The ID of the resource.
+     * @param start The start of the range, inclusive.
+     * @param end The end of the range, exclusive.
+     * @return The overlapping occurrences, in no particular order.
+     */
+    private static List<Appointment> occurrences(OccupancyResource resource, int id, LocalDateTime start, LocalDateTime end) {
+        List<Appointment> occurrences = new ArrayList<>();
+        TreeMap<Integer, AppointmentSeries> series = seriesByResource.get(resource).get(id);
+        if (series != null) {
+            for (AppointmentSeries oneSeries : series.values()) {
+                occurrences.addAll(oneSeries.getOccurrences(start, end));
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Adds a series definition to the map by Series_ID and to the maps of its customer, contact and user. Must be
+     * called holding the write lock.
+     *
+     * @param series The series to add.
+     */
+    private static void indexSeries(AppointmentSeries series) {
+        seriesById.put(series.getSeriesId(), series);
+        seriesByResource.get(OccupancyResource.CUSTOMER).computeIfAbsent(series.getCustomerId(), key -> new TreeMap<>()).put(series.getSeriesId(), series);
+        seriesByResource.get(OccupancyResource.CONTACT).computeIfAbsent(series.getContactId(), key -> new TreeMap<>()).put(series.getSeriesId(), series);
+        seriesByResource.get(OccupancyResource.USER).computeIfAbsent(series.getUserId(), key -> new TreeMap<>()).put(series.getSeriesId(), series);
+    }
+
+    /**
+     * Removes a series definition from every map, dropping maps left empty. Must be called holding the write lock.
+     *
+     * @param seriesId The ID of the series, which may not be cached.
+     */
+    private static void unindexSeries(int seriesId) {
+        AppointmentSeries series = seriesById.remove(seriesId);
+        if (series == null) {
+            return;
+        }
+        removeSeriesFrom(OccupancyResource.CUSTOMER, series.getCustomerId(), seriesId);
+        removeSeriesFrom(OccupancyResource.CONTACT, series.getContactId(), seriesId);
+        removeSeriesFrom(OccupancyResource.USER, series.getUserId(), seriesId);
+    }
+
+    /**
+     * Removes a series definition from the map of one customer, contact or user, dropping the map if it becomes empty.
+     *
+     * @param resource The kind of resource.
+     * @param id The ID of the resource.
+     * @param seriesId The ID of the series.
+     */
+    private static void removeSeriesFrom(OccupancyResource resource, int id, int seriesId) {
+        TreeMap<Integer, AppointmentSeries> series = seriesByResource.get(resource).get(id);
+        if (series != null) {
+            series.remove(seriesId);
+            if (series.isEmpty()) {
+                seriesByResource.get(resource).remove(id);
+            }
+        }
+    }
+
+    /**
+     * Adds an appointment to the primary map and every secondary view. Must be called holding the write lock.
+     *
+     * @param appointment The appointment to add.
+     */
+    private static void index(Appointment appointment) {
+        int id = appointment.getAppointmentId();
+        byId.put(id, appointment);
+        byCustomer.computeIfAbsent(appointment.getCustomerId(), key -> new TreeMap<>()).put(id, appointment);
+        byContact.computeIfAbsent(appointment.getContactId(), key -> new TreeMap<>()).put(id, appointment);
+        byMonth.computeIfAbsent(YearMonth.from(appointment.getStartTime()), key -> new TreeMap<>()).put(id, appointment);
+        customerIntervals.computeIfAbsent(appointment.getCustomerId(), key -> new IntervalSet()).add(appointment);
+        contactIntervals.computeIfAbsent(appointment.getContactId(), key -> new IntervalSet()).add(appointment);
+        userIntervals.computeIfAbsent(appointment.getUserId(), key -> new IntervalSet()).add(appointment);
+        occupancy.add(appointment);
+        rollup.add(appointment);
+    }
+
+    /**
+     * Removes an appointment from the primary map and every secondary view, dropping views left empty. Must be called
+     * holding the write lock.
+     *
+     * @param appointment The cached appointment to remove, or null to do nothing.
+     */
+    private static void unindex(Appointment appointment) {
+        if (appointment == null) {
+            return;
+        }
+        int id = appointment.getAppointmentId();
+        byId.remove(id);
+        removeFromView(byCustomer, appointment.getCustomerId(), id);
+        removeFromView(byContact, appointment.getContactId(), id);
+        removeFromView(byMonth, YearMonth.from(appointment.getStartTime()), id);
+        removeInterval(customerIntervals, OccupancyResource.CUSTOMER, appointment.getCustomerId(), appointment);
+        removeInterval(contactIntervals, OccupancyResource.CONTACT, appointment.getContactId(), appointment);
+        removeInterval(userIntervals, OccupancyResource.USER, appointment.getUserId(), appointment);
+        rollup.remove(appointment);
+    }
+
+    /**
+     * Removes an appointment from one secondary view, dropping the view if it becomes empty.
+     *
+     * @param views The secondary views.
+     * @param key The key of the view holding the appointment.
+     * @param appointmentId The ID of the appointment.
+     * @param <K> The type of key of the views.
+     */
+    private static <K> void removeFromView(Map<K, TreeMap<Integer, Appointment>> views, K key, int appointmentId) {
+        TreeMap<Integer, Appointment> view = views.get(key);
+        if (view != null) {
+            view.remove(appointmentId);
+            if (view.isEmpty()) {
+                views.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Removes an appointment from one IntervalSet, dropping the set if it becomes empty, and rebuilds the occupancy of
+     * the days it covered from what is left in the set.
+     *
+     * @param intervals The interval sets.
+     * @param resource The kind of resource the sets belong to.
+     * @param key The customer, contact or user whose set holds the appointment.
+     * @param appointment The cached appointment.
+     */
+    private static void removeInterval(Map<Integer, IntervalSet> intervals, OccupancyResource resource, int key, Appointment appointment) {
+        IntervalSet set = intervals.get(key);
+        if (set != null) {
+            set.remove(appointment);
+            if (set.isEmpty()) {
+                intervals.remove(key);
+                set = null;
+            }
+        }
+        occupancy.refresh(resource, key, appointment, set);
+    }
+}
@@ -1,17 +1,29 @@
 package DAO;
 
+import DataBase.BatchResult;
 import DataBase.DataLists;
 import DataBase.JDBC;
+import DataBase.QueryClass;
+import DataBase.QueryExecutor;
+import DataBase.QueryHandle;
+import DataBase.RowMapper;
+import DataBase.StatementCacheStats;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import model.Appointment;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.Month;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * @author Hamza Yousaf
@@ -19,116 +31,307 @@ import java.time.LocalTime;
  * The Abstract Class for AppointmentDAO. This handles database queries related to appointments. */
 public abstract class AppointmentDAO
 {
+    static final String allAppointmentsSql = "SELECT appointments.*, contacts.Contact_Name\n" +
+            "FROM appointments\n" +
+            "JOIN contacts ON appointments.Contact_ID = contacts.Contact_ID\n" +
+            "ORDER BY Appointment_ID ASC;";
+    private static final String appointmentsSelectSql = "SELECT appointments.*, contacts.Contact_Name\n" +
+            "FROM appointments\n" +
+            "JOIN contacts ON appointments.Contact_ID = contacts.Contact_ID\n";
+    static final String contactReportSql = "SELECT appointments.*, contacts.Contact_Name\n" +
+            "FROM appointments\n" +
+            "JOIN contacts ON appointments.Contact_ID = contacts.Contact_ID\n" +
+            "WHERE Contact_Name = ? ORDER BY Appointment_ID ASC;";
+    static final String locationReportSql = "SELECT appointments.*, contacts.Contact_Name\n" +
+            "FROM appointments\n" +
+            "JOIN contacts ON appointments.Contact_ID = contacts.Contact_ID\n" +
+            "WHERE Location = ? ORDER BY Appointment_ID ASC;";
+    static final String rangeSql = "SELECT appointments.*, contacts.Contact_Name\n" +
+            "FROM appointments\n" +
+            "JOIN contacts ON appointments.Contact_ID = contacts.Contact_ID\n" +
+            "WHERE Start >= ? AND Start < ? ORDER BY Start ASC, Appointment_ID ASC;";
+    private static final String monthSql = appointmentsSelectSql +
+            "WHERE appointments.Start >= ? AND appointments.Start < ?\n" +
+            "ORDER BY Appointment_ID ASC;";
+    private static final String weekSql = appointmentsSelectSql +
+            "WHERE appointments.Start >= ? AND appointments.End < ?\n" +
+            "ORDER BY Appointment_ID ASC;";
+    private static final String insertSql = "INSERT INTO APPOINTMENTS (Title, Description, Location, Type, Start, End, Customer_ID, User_ID, Contact_ID, Last_Update) VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, NOW())";
+    private static final String updateSql = "UPDATE APPOINTMENTS\n" +
+            "set Title = ?, Description = ?,\n" +
+            "Location = ?, Type = ?,\n" +
+            "Start = ?, End = ?, \n" +
+            "Customer_ID = ?, User_ID = ?,\n" +
+            "Contact_ID = ?, Last_Update = NOW()\n" +
+            "where appointment_id = ?;";
+
+    private static final int writeThroughChunkSize = 500;
+
+    /**
+     * Decodes a row of an appointments query joined with contacts into an Appointment for the TableViews.
+     */
+    static final RowMapper<Appointment> appointmentMapper = new AppointmentRowMapper();
+
     /**
-     * Retrieves all appointments from the database for display in the main appointment view.
-     * This method executes a database query to fetch all columns from the appointments table,
-     * and joins with the contacts table to include the contact's name.
+     * Maps a row of an overlap query into an Appointment holding the conflicting customer and times. The query selects
+     * Customer_ID, Start and End as its first three columns.
+     */
+    private static final RowMapper<Appointment> overlapMapper = rs ->
+    {
+        Appointment conflict = new Appointment(0, QueryExecutor.getLocalDateTime(rs, 2), QueryExecutor.getLocalDateTime(rs, 3));
+        conflict.setCustomerId(rs.getInt(1));
+        return conflict;
+    };
+
+    /**
+     * Retrieves all appointments for display in the main appointment view. They are read from the AppointmentCache,
+     * which fetches all columns from the appointments table, joined with the contacts table to include the contact's
+     * name, the first time it is used and is kept current by the write methods of this class.
      *
      * @return An ObservableList containing Appointment objects, each representing an appointment record.
-     * @throws SQLException If there is an error in executing the query.
+     * @throws SQLException If the cache has to be loaded and there is an error in executing the query.
      */
     public static ObservableList<Appointment> getAppointments() throws SQLException {
-        ObservableList<Appointment> allAppointments = FXCollections.observableArrayList();
-        String sql = "SELECT appointments.*, contacts.Contact_Name\n" +
-                "FROM appointments\n" +
-                "JOIN contacts ON appointments.Contact_ID = contacts.Contact_ID\n" +
-                "ORDER BY Appointment_ID ASC;";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ResultSet rs = ps.executeQuery();
-        while (rs.next()) {
-            int appointmentId = rs.getInt("Appointment_ID");
-            String title = rs.getString("Title");
-            String description = rs.getString("Description");
-            String location = rs.getString("Location");
-            String contactName = rs.getString("Contact_Name");
-            String type = rs.getString("Type");
-            LocalDateTime startTime = rs.getTimestamp("Start").toLocalDateTime();
-            LocalDateTime endTime = rs.getTimestamp("End").toLocalDateTime();
-            int customerId = rs.getInt("Customer_ID");
-            int contactId = rs.getInt("Contact_ID");
-            int userId = rs.getInt("User_ID");
-            Appointment appointment = new Appointment(appointmentId, title, description, location, contactName, type, startTime, endTime, customerId, contactId, userId);
-            allAppointments.add(appointment);
+        return AppointmentCache.getAll();
+    }
+
+    /**
+     * Retrieves the appointments of a customer from the AppointmentCache.
+     *
+     * @param customerId The ID of the customer.
+     * @return The customer's appointments in Appointment_ID order.
+     * @throws SQLException If the cache has to be loaded and there is an error in executing the query.
+     */
+    public static ObservableList<Appointment> getAppointmentsByCustomer(int customerId) throws SQLException {
+        return AppointmentCache.getByCustomer(customerId);
+    }
+
+    /**
+     * Retrieves the appointments of a contact from the AppointmentCache.
+     *
+     * @param contactId The ID of the contact.
+     * @return The contact's appointments in Appointment_ID order.
+     * @throws SQLException If the cache has to be loaded and there is an error in executing the query.
+     */
+    public static ObservableList<Appointment> getAppointmentsByContact(int contactId) throws SQLException {
+        return AppointmentCache.getByContact(contactId);
+    }
+
+    /**
+     * Retrieves the appointments starting in a month from the AppointmentCache.
+     *
+     * @param month The month.
+     * @return The month's appointments in Appointment_ID order.
+     * @throws SQLException If the cache has to be loaded and there is an error in executing the query.
+     */
+    public static ObservableList<Appointment> getAppointmentsInMonth(YearMonth month) throws SQLException {
+        return AppointmentCache.getByMonth(month);
+    }
+
+    /**
+     * Reads the appointments inserted or updated at or after a time, by their Last_Update column. Used by DeltaSync
+     * to refresh the open views for the cost of the changed rows only.
+     *
+     * @param since The database time to read changes from.
+     * @return The changed appointments in Appointment_ID order.
+     * @throws SQLException If there is an error in executing the query.
+     */
+    static ObservableList<Appointment> getAppointmentsChangedSince(Timestamp since) throws SQLException {
+        String sql = appointmentsSelectSql + "WHERE appointments.Last_Update >= ?\nORDER BY appointments.Appointment_ID ASC;";
+        return QueryExecutor.query(sql, appointmentMapper, since);
+    }
+
+    /**
+     * Reads every appointment from the database. Used by AppointmentCache to load itself.
+     *
+     * @return All appointments in Appointment_ID order.
+     * @throws SQLException If there is an error in executing the query.
+     */
+    static ObservableList<Appointment> readAllAppointments() throws SQLException {
+        return QueryExecutor.query(QueryClass.REPORT, null, allAppointmentsSql, appointmentMapper);
+    }
+
+    /**
+     * Reads the given appointments back from the database after they were written and stores them in the
+     * AppointmentCache, so the cache holds exactly what the database does. Appointments that no longer exist are
+     * removed. If they cannot be read, the cache is emptied rather than left stale; the write itself has succeeded.
+     *
+     * @param appointmentIds The IDs of the written appointments.
+     */
+    private static void writeThrough(Collection<Integer> appointmentIds) {
+        if (appointmentIds.isEmpty()) {
+            return;
+        }
+        if (!AppointmentCache.isLoaded()) {
+            AppointmentCache.markStale();
+            return;
+        }
+        try {
+            List<Integer> ids = new ArrayList<>(appointmentIds);
+            for (int from = 0; from < ids.size(); from += writeThroughChunkSize) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + writeThroughChunkSize, ids.size()));
+                StringBuilder sql = new StringBuilder(appointmentsSelectSql).append("WHERE appointments.Appointment_ID IN (");
+                for (int i = 0; i < chunk.size(); i++) {
+                    sql.append(i == 0 ? "?" : ", ?");
+                }
+                sql.append(");");
+                ObservableList<Appointment> stored = QueryExecutor.query(sql.toString(), appointmentMapper, chunk.toArray());
+                Set<Integer> missing = new HashSet<>(chunk);
+                for (Appointment appointment : stored) {
+                    missing.remove(appointment.getAppointmentId());
+                }
+                AppointmentCache.putAll(stored);
+                for (int id : missing) {
+                    AppointmentCache.remove(id);
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error: " + e.getMessage());
+            AppointmentCache.markStale();
+        }
+    }
+
+    /**
+     * Retrieves one page of the appointments matching a filter, following a given appointment. Filtering and sorting
+     * run in the database, and pages use keyset pagination: the query seeks straight to the rows after the sort key of
+     * the last appointment already shown, so each page costs the same however deep into the table it is. Up to limit
+     * series occurrences matching the filter that follow the given appointment are merged in, in the filter's order.
+     *
+     * @param filter The filter and sort order of the view.
+     * @param last   The last appointment of the previous page, or null for the first page.
+     * @param limit  The largest number of appointments to return.
+     * @return Up to limit appointments following the given one, in the filter's order.
+     * @throws SQLException If there is an error in executing the query.
+     */
+    public static ObservableList<Appointment> getAppointmentsAfter(AppointmentFilter filter, Appointment last, int limit) throws SQLException {
+        ObservableList<Appointment> page = QueryExecutor.query(QueryClass.INTERACTIVE, null, pageSql(filter, last, false), appointmentMapper, pageParams(filter, last, limit));
+        page.addAll(SeriesDAO.getOccurrences(filter, last, false, limit));
+        page.sort(filter.comparator());
+        return page.size() > limit ? FXCollections.observableArrayList(page.subList(0, limit)) : page;
+    }
+
+    /**
+     * Retrieves one page of the appointments matching a filter, preceding a given appointment. Used when scrolling
+     * back towards the start of the table after earlier pages have been dropped. Up to limit series occurrences
+     * matching the filter that precede the given appointment are merged in, in the filter's order.
+     *
+     * @param filter The filter and sort order of the view.
+     * @param first  The first appointment of the following page.
+     * @param limit  The largest number of appointments to return.
+     * @return Up to limit appointments preceding the given one, in the filter's order.
+     * @throws SQLException If there is an error in executing the query.
+     */
+    public static ObservableList<Appointment> getAppointmentsBefore(AppointmentFilter filter, Appointment first, int limit) throws SQLException {
+        ObservableList<Appointment> page = QueryExecutor.query(QueryClass.INTERACTIVE, null, pageSql(filter, first, true), appointmentMapper, pageParams(filter, first, limit));
+        page.addAll(SeriesDAO.getOccurrences(filter, first, true, limit));
+        page.sort(filter.comparator());
+        return page.size() > limit ? FXCollections.observableArrayList(page.subList(page.size() - limit, page.size())) : page;
+    }
+
+    /**
+     * Builds the SQL for one page of a filtered view. The keyset predicate compares the sort column and then
+     * Appointment_ID against the key of the boundary appointment, in the direction of the sort, so it can be answered
+     * from an index on the sort column. Pages before the boundary are read in reverse order and sorted by the caller.
+     * A boundary that is a series occurrence has an Appointment_ID of 0, which sorts before every appointment with the
+     * same key, as in AppointmentFilter.comparator.
+     *
+     * MySQL sorts NULL before every value in ascending order and after them in descending order, and a comparison with
+     * NULL is never true. A boundary whose key is NULL is therefore continued with IS NULL and IS NOT NULL branches
+     * instead of binding NULL, and a non-NULL boundary in descending order also takes the NULL rows that follow it.
+     *
+     * @param filter   The filter and sort order of the view.
+     * @param boundary The appointment the page continues from, or null for the first page.
+     * @param before   `true` to read the page preceding the boundary.
+     * @return The SQL text of the page query.
+     */
+    private static String pageSql(AppointmentFilter filter, Appointment boundary, boolean before) {
+        List<String> where = new ArrayList<>();
+        filter.appendConditions(where, new ArrayList<>());
+        boolean descending = filter.isDescending() != before;
+        String column = filter.getOrder().getColumn();
+        if (boundary != null) {
+            String comparison = descending ? " < ?" : " > ?";
+            if (filter.getOrder() == PageOrder.APPOINTMENT_ID) {
+                where.add("appointments.Appointment_ID" + comparison);
+            } else if (filter.getOrder().keyOf(boundary) == null) {
+                where.add(descending
+                        ? "(" + column + " IS NULL AND appointments.Appointment_ID" + comparison + ")"
+                        : "(" + column + " IS NOT NULL OR appointments.Appointment_ID" + comparison + ")");
+            } else {
+                where.add("(" + column + comparison + (descending ? " OR " + column + " IS NULL" : "")
+                        + " OR (" + column + " = ? AND appointments.Appointment_ID" + comparison + "))");
+            }
+        }
+        StringBuilder sql = new StringBuilder(appointmentsSelectSql);
+        if (!where.isEmpty()) {
+            sql.append("WHERE ").append(String.join(" AND ", where)).append("\n");
+        }
+        String direction = descending ? " DESC" : " ASC";
+        sql.append("ORDER BY ");
+        if (filter.getOrder() != PageOrder.APPOINTMENT_ID) {
+            sql.append(column).append(direction).append(", ");
+        }
+        sql.append("appointments.Appointment_ID").append(direction).append(" LIMIT ?;");
+        return sql.toString();
+    }
+
+    /**
+     * Collects the parameter values for a page query built by pageSql, in the same order.
+     *
+     * @param filter   The filter and sort order of the view.
+     * @param boundary The appointment the page continues from, or null for the first page.
+     * @param limit    The largest number of appointments to return.
+     * @return The parameter values.
+     */
+    private static Object[] pageParams(AppointmentFilter filter, Appointment boundary, int limit) {
+        List<Object> params = new ArrayList<>();
+        filter.appendConditions(new ArrayList<>(), params);
+        if (boundary != null) {
+            Object key = filter.getOrder().keyOf(boundary);
+            if (filter.getOrder() != PageOrder.APPOINTMENT_ID && key != null) {
+                params.add(key);
+                params.add(key);
+            }
+            params.add(boundary.getAppointmentId());
         }
-        return allAppointments;
+        params.add(limit);
+        return params.toArray();
     }
 
     /**
      * Retrieves appointments for the main appointment view, filtered to include only those occurring in the current month.
      * This method performs a database query similar to getAppointments, but it specifically filters records based on the
-     * current month and year. The SQL query utilizes the current date to filter and retrieve relevant appointments.
+     * current month and year. The month is passed as a half-open range of start times, from the first of the month up
+     * to the first of the next, so the query can seek on the index over Start instead of computing MONTH and YEAR of
+     * every row. The occurrences of recurring series starting in the month are included.
      *
      * @return An ObservableList containing Appointment objects for the current month.
      * @throws SQLException If there is an error in executing the query.
      */
     public static ObservableList<Appointment> getAppointmentsByMonth() throws SQLException {
-        ObservableList<Appointment> allAppointments = FXCollections.observableArrayList();
-        LocalDateTime today = LocalDateTime.now();
-        Timestamp todayTS = Timestamp.valueOf(today);
-        String sql = "SELECT appointments.*, contacts.Contact_Name\n" +
-                "FROM appointments\n" +
-                "JOIN contacts ON appointments.Contact_ID = contacts.Contact_ID\n" +
-                "WHERE MONTH(`Start`) = MONTH(?) AND YEAR(`Start`) = YEAR(?)\n" +
-                "ORDER BY Appointment_ID ASC;";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setTimestamp(1, todayTS);
-        ps.setTimestamp(2, todayTS);
-        ResultSet rs = ps.executeQuery();
-        while (rs.next()) {
-            int appointmentId = rs.getInt("Appointment_ID");
-            String title = rs.getString("Title");
-            String description = rs.getString("Description");
-            String location = rs.getString("Location");
-            String contactName = rs.getString("Contact_Name");
-            String type = rs.getString("Type");
-            LocalDateTime startTime = rs.getTimestamp("Start").toLocalDateTime();
-            LocalDateTime endTime = rs.getTimestamp("End").toLocalDateTime();
-            int customerId = rs.getInt("Customer_ID");
-            int contactId = rs.getInt("Contact_ID");
-            int userId = rs.getInt("User_ID");
-            Appointment appointment = new Appointment(appointmentId, title, description, location, contactName, type, startTime, endTime, customerId, contactId, userId);
-            allAppointments.add(appointment);
-        }
-        return allAppointments;
+        LocalDateTime monthStart = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        ObservableList<Appointment> appointments = QueryExecutor.query(monthSql, appointmentMapper, Timestamp.valueOf(monthStart), Timestamp.valueOf(monthStart.plusMonths(1)));
+        return withOccurrences(appointments, AppointmentFilter.currentMonth());
     }
 
     /**
      * Retrieves appointments for the main appointment view, specifically filtering for those occurring in the upcoming week.
-     * This method performs a database query similar to getAppointments but narrows the results to appointments between the
-     * current date and the date seven days from now. The SQL query uses the current date and a date seven days in the future
-     * as parameters to identify relevant appointments within the next week.
+     * This method performs a database query similar to getAppointments but narrows the results to appointments that
+     * start on or after today and end by the end of the day seven days from now. Both bounds are compared with the
+     * columns directly, as the start of today and the start of the eighth day, so the query can seek on the index
+     * over Start instead of computing DATE of every row.
+     * This includes today's appointments. The earlier query compared DATE(Start) with the current date and time, which
+     * is later than midnight, so it left out every appointment starting today, against what the Week view describes.
+     * Its end bound, DATE(End) on or before the seventh day, is unchanged. The occurrences of recurring series starting
+     * in the week are included.
      *
      * @return An ObservableList containing Appointment objects scheduled within the next seven days.
      * @throws SQLException If there is an error in executing the query.
      */
     public static ObservableList<Appointment> getAppointmentsByWeek() throws SQLException {
-        ObservableList<Appointment> allAppointments = FXCollections.observableArrayList();
-        LocalDateTime today = LocalDateTime.now();
-        String sql = "SELECT appointments.*, contacts.Contact_Name" +
-                " FROM appointments" +
-                " JOIN contacts ON appointments.Contact_ID = contacts.Contact_ID" +
-                " WHERE DATE(`Start`) >= ? AND DATE(`End`) <= (?)" +
-                " ORDER BY Appointment_ID ASC";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setTimestamp(1, Timestamp.valueOf(today));
-        ps.setTimestamp(2, Timestamp.valueOf(today.plusDays(7)));
-        ResultSet rs = ps.executeQuery();
-        while (rs.next()) {
-            int appointmentId = rs.getInt("Appointment_ID");
-            String title = rs.getString("Title");
-            String description = rs.getString("Description");
-            String location = rs.getString("Location");
-            String contactName = rs.getString("Contact_Name");
-            String type = rs.getString("Type");
-            LocalDateTime startTime = rs.getTimestamp("Start").toLocalDateTime();
-            LocalDateTime endTime = rs.getTimestamp("End").toLocalDateTime();
-            int customerId = rs.getInt("Customer_ID");
-            int contactId = rs.getInt("Contact_ID");
-            int userId = rs.getInt("User_ID");
-            Appointment appointment = new Appointment(appointmentId, title, description, location, contactName, type, startTime, endTime, customerId, contactId, userId);
-            allAppointments.add(appointment);
-        }
-        return allAppointments;
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        ObservableList<Appointment> appointments = QueryExecutor.query(weekSql, appointmentMapper, Timestamp.valueOf(today), Timestamp.valueOf(today.plusDays(8)));
+        return withOccurrences(appointments, AppointmentFilter.currentWeek());
     }
 
     /**
@@ -147,18 +350,8 @@ public abstract class AppointmentDAO
      * @throws SQLException If there is an issue executing the INSERT statement in the database.
      */
     public static void insertAppointment(String title, String description, String location, String type, Timestamp tsStart, Timestamp tsEnd, int customerId, int userId, int contactId) throws SQLException {
-        String sql = "INSERT INTO APPOINTMENTS (Title, Description, Location, Type, Start, End, Customer_ID, User_ID, Contact_ID) VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, title);
-        ps.setString(2,  description);
-        ps.setString(3, location);
-        ps.setString(4, type);
-        ps.setTimestamp(5, tsStart);
-        ps.setTimestamp(6, tsEnd);
-        ps.setInt(7, customerId);
-        ps.setInt(8, userId);
-        ps.setInt(9, contactId);
-        ps.executeUpdate();
+        int appointmentId = (int) QueryExecutor.insert(insertSql, title, description, location, type, tsStart, tsEnd, customerId, userId, contactId);
+        writeThrough(List.of(appointmentId));
     }
 
     /**
@@ -179,25 +372,63 @@ public abstract class AppointmentDAO
      * @throws SQLException If there is an issue executing the UPDATE statement in the database.
      */
     public static void updateAppointment(String title, String description, String location, String type, Timestamp tsStart, Timestamp tsEnd, int customerId, int userId, int contactId, int appointmentId) throws SQLException {
-        String sql = "UPDATE APPOINTMENTS\n" +
-                "set Title = ?, Description = ?,\n" +
-                "Location = ?, Type = ?,\n" +
-                "Start = ?, End = ?, \n" +
-                "Customer_ID = ?, User_ID = ?,\n" +
-                "Contact_ID = ?\n" +
-                "where appointment_id = ?;";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, title);
-        ps.setString(2,  description);
-        ps.setString(3, location);
-        ps.setString(4, type);
-        ps.setTimestamp(5, tsStart);
-        ps.setTimestamp(6, tsEnd);
-        ps.setInt(7, customerId);
-        ps.setInt(8, userId);
-        ps.setInt(9, contactId);
-        ps.setInt(10, appointmentId);
-        ps.executeUpdate();
+        QueryExecutor.update(updateSql, title, description, location, type, tsStart, tsEnd, customerId, userId, contactId, appointmentId);
+        writeThrough(List.of(appointmentId));
+    }
+
+    /**
+     * Inserts a collection of appointments in a single batched transaction. Each appointment that is written has its
+     * appointment ID set to the ID generated by the database; appointments the database rejects are reported as failed
+     * in the result and left unchanged.
+     *
+     * @param appointments The appointments to insert, in the order they should be reported.
+     * @return The outcome of each appointment, including its generated Appointment_ID.
+     * @throws SQLException If the batch cannot be run or committed.
+     */
+    public static BatchResult insertAppointments(Collection<Appointment> appointments) throws SQLException {
+        List<Appointment> batch = new ArrayList<>(appointments);
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Appointment appointment : batch) {
+            rows.add(new Object[] {appointment.getTitle(), appointment.getDescription(), appointment.getLocation(),
+                    appointment.getType(), Timestamp.valueOf(appointment.getStartTime()), Timestamp.valueOf(appointment.getEndTime()),
+                    appointment.getCustomerId(), appointment.getUserId(), appointment.getContactId()});
+        }
+        BatchResult result = QueryExecutor.batch(insertSql, rows, true);
+        List<Integer> written = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (result.isSuccess(i)) {
+                batch.get(i).setAppointmentId((int) result.getGeneratedKey(i));
+                written.add(batch.get(i).getAppointmentId());
+            }
+        }
+        writeThrough(written);
+        return result;
+    }
+
+    /**
+     * Updates a collection of appointments in a single batched transaction, matching each one by its appointment ID.
+     *
+     * @param appointments The appointments to update, in the order they should be reported.
+     * @return The outcome of each appointment.
+     * @throws SQLException If the batch cannot be run or committed.
+     */
+    public static BatchResult updateAppointments(Collection<Appointment> appointments) throws SQLException {
+        List<Appointment> batch = new ArrayList<>(appointments);
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Appointment appointment : batch) {
+            rows.add(new Object[] {appointment.getTitle(), appointment.getDescription(), appointment.getLocation(),
+                    appointment.getType(), Timestamp.valueOf(appointment.getStartTime()), Timestamp.valueOf(appointment.getEndTime()),
+                    appointment.getCustomerId(), appointment.getUserId(), appointment.getContactId(), appointment.getAppointmentId()});
+        }
+        BatchResult result = QueryExecutor.batch(updateSql, rows, false);
+        List<Integer> written = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (result.isSuccess(i)) {
+                written.add(batch.get(i).getAppointmentId());
+            }
+        }
+        writeThrough(written);
+        return result;
     }
 
     /**
@@ -211,14 +442,18 @@ public abstract class AppointmentDAO
      */
     public static void deleteAppointment(int appointmentId) throws SQLException {
         String sql = "DELETE FROM APPOINTMENTS WHERE Appointment_ID = ?";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setInt(1, appointmentId);
-        ps.executeUpdate();
+        QueryExecutor.transaction(connection -> {
+            QueryExecutor.update(connection, sql, appointmentId);
+            DeltaSync.recordDeletion(connection, DeltaSync.appointmentsTable, appointmentId);
+            return null;
+        });
+        AppointmentCache.remove(appointmentId);
     }
 
     /**
      * Checks for any appointments scheduled to start within 15 minutes of the user's login time. This method is
-     * typically called upon successful user login to alert them of imminent appointments.
+     * typically called upon successful user login to alert them of imminent appointments. Occurrences of recurring
+     * series starting in that time are found too, and the one starting first is returned if no appointment does.
      *
      * @param nowLDT The LocalDateTime of the user's login, used to query the database for appointments starting
      *               within 15 minutes of this time.
@@ -230,115 +465,133 @@ public abstract class AppointmentDAO
         String sql = "SELECT *\n" +
                 "FROM appointments\n" +
                 "WHERE Start >= ? AND Start <= ?;";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setTimestamp(1, Timestamp.valueOf(nowLDT));
-        ps.setTimestamp(2, Timestamp.valueOf(nowLDT.plusMinutes(15)));
-        ResultSet rs = ps.executeQuery();
-        if (!rs.isBeforeFirst()) {
+        Appointment nextAppointment = QueryExecutor.queryOne(sql, rs -> new Appointment(rs.getInt("Appointment_ID"),
+                rs.getTimestamp("Start").toLocalDateTime(), rs.getTimestamp("End").toLocalDateTime()),
+                Timestamp.valueOf(nowLDT), Timestamp.valueOf(nowLDT.plusMinutes(15)));
+        if (nextAppointment == null) {
+            for (Appointment occurrence : SeriesDAO.getOccurrences(nowLDT, nowLDT.plusMinutes(15).plusNanos(1))) {
+                if (!occurrence.getStartTime().isBefore(nowLDT)) {
+                    return occurrence;
+                }
+            }
             Appointment nullAppointment = new Appointment();
             return nullAppointment;
-        } else {
-            rs.next();
-            int appointmentId = rs.getInt("Appointment_ID");
-            LocalDateTime startTime = rs.getTimestamp("Start").toLocalDateTime();
-            LocalDateTime endTime = rs.getTimestamp("End").toLocalDateTime();
-            Appointment nextAppointment = new Appointment(appointmentId, startTime, endTime);
-            return nextAppointment;
         }
+        return nextAppointment;
+    }
+
+    /**
+     * Finds every appointment of a customer that overlaps a time range, including occurrences of the customer's
+     * recurring series. Both are answered from the customer's IntervalSet in the AppointmentCache, which holds the
+     * occurrences of every series. Back-to-back appointments, where one ends exactly when the other starts, do not
+     * overlap.
+     *
+     * @param startLDT             The proposed start time.
+     * @param endLDT               The proposed end time.
+     * @param customerId           The ID of the customer for whom the overlap check is being performed.
+     * @param excludeAppointmentId The ID of the appointment being updated, to be excluded, or 0 for a new appointment.
+     * @return The overlapping appointments in start time order.
+     * @throws SQLException If the appointments or series cannot be read.
+     */
+    public static List<Appointment> getConflicts(LocalDateTime startLDT, LocalDateTime endLDT, int customerId, int excludeAppointmentId) throws SQLException {
+        return AppointmentCache.getConflicts(customerId, startLDT, endLDT, excludeAppointmentId);
     }
 
     /**
      * Checks for overlapping appointments for a specified customer. This method is used to prevent scheduling
-     * conflicts during appointment creation. It queries the database to find any existing appointments that overlap
-     * with the proposed new appointment times.
+     * conflicts during appointment creation. It looks up every existing appointment that overlaps with the proposed
+     * new appointment times.
      *
      * @param startLDT    The proposed start time of the new appointment.
      * @param endLDT      The proposed end time of the new appointment.
      * @param customerId  The ID of the customer for whom the overlap check is being performed.
-     * @return A descriptive string of any overlapping appointment found; returns "No" if no overlap is detected.
-     * @throws SQLException If there is an issue executing the query in the database.
+     * @return A descriptive string of the overlapping appointments found; returns "No" if no overlap is detected.
+     * @throws SQLException If the appointments or series cannot be read.
      */
     public static String checkAppointmentOverlap(LocalDateTime startLDT, LocalDateTime endLDT, int customerId) throws SQLException {
-        String sql = "SELECT Customer_ID, Start, End FROM appointments WHERE ((Start < ?) AND (End > ?)) AND Customer_ID = ?;";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setTimestamp(1, Timestamp.valueOf(endLDT));
-        ps.setTimestamp(2, Timestamp.valueOf(startLDT));
-        ps.setInt(3, customerId);
-        ResultSet rs = ps.executeQuery();
-        if (!rs.isBeforeFirst()) {
-            return "No";
-        } else {
-            rs.next();
-            LocalDateTime startConflictDateTime = rs.getTimestamp("Start").toLocalDateTime();
-            LocalDateTime endConflictDateTime = rs.getTimestamp("End").toLocalDateTime();
-            int customerIdFound = rs.getInt("Customer_ID");
-            LocalTime startConflictTime = startConflictDateTime.toLocalTime();
-            LocalTime endConflictTime = endConflictDateTime.toLocalTime();
-            String overlapReport = "No";
-            if(endLDT.equals(startConflictDateTime) || startLDT.equals(endConflictDateTime))
-            {
-                return overlapReport;
-            }
-            return "Overlaps with appointment (" + DataLists.myFormattedTF(startConflictTime) + " - " + DataLists.myFormattedTF(endConflictTime) + ") for Customer_ID: " + customerIdFound + ".";
-        }
+        return overlapReport(getConflicts(startLDT, endLDT, customerId, 0), customerId);
     }
 
     /**
      * Checks for overlapping appointments for a specified customer, excluding the appointment being updated.
      * This method is used during the update process to ensure the new times do not conflict with other existing
-     * appointments, except the one being updated. It queries the database for any overlapping appointments
-     * considering the updated times, omitting the current appointment.
+     * appointments, except the one being updated. It looks up every overlapping appointment considering the updated
+     * times, omitting the current appointment.
      *
      * @param startLDT      The proposed new start time for the appointment being updated.
      * @param endLDT        The proposed new end time for the appointment being updated.
      * @param customerId    The ID of the customer for whom the overlap check is being performed.
      * @param appointmentId The ID of the appointment being updated, to be excluded from the overlap check.
-     * @return A descriptive string of any overlapping appointment found; returns "No" if no overlap is detected.
-     * @throws SQLException If there is an issue executing the query in the database.
+     * @return A descriptive string of the overlapping appointments found; returns "No" if no overlap is detected.
+     * @throws SQLException If the appointments or series cannot be read.
      */
     public static String checkUpdateAppointmentOverlap(LocalDateTime startLDT, LocalDateTime endLDT, int customerId, int appointmentId) throws SQLException {
-        String sql = "SELECT Appointment_ID, Customer_ID, Start, End FROM appointments WHERE ((Start < ?) AND (End > ?)) AND Customer_ID = ? AND NOT Appointment_ID = ?;";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setTimestamp(1, Timestamp.valueOf(endLDT));
-        ps.setTimestamp(2, Timestamp.valueOf(startLDT));
-        ps.setInt(3, customerId);
-        ps.setInt(4, appointmentId);
-        ResultSet rs = ps.executeQuery();
-        if (!rs.isBeforeFirst()) {
+        return overlapReport(getConflicts(startLDT, endLDT, customerId, appointmentId), customerId);
+    }
+
+    /**
+     * Retrieves the start and end times of every appointment of the given customers that overlaps a time range, and
+     * the occurrences of their series within it. Used by bulk validation to check the overlap rule for many rows with
+     * one query for the appointments and one for the series instead of queries per row.
+     *
+     * @param customerIds The customers whose appointments are fetched.
+     * @param startLDT    The start of the range.
+     * @param endLDT      The end of the range.
+     * @return The overlapping appointments and occurrences, holding customer ID, start and end.
+     * @throws SQLException If there is an issue executing the query in the database.
+     */
+    public static List<Appointment> getCustomerIntervals(Collection<Integer> customerIds, LocalDateTime startLDT, LocalDateTime endLDT) throws SQLException {
+        if (customerIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        StringBuilder sql = new StringBuilder("SELECT Customer_ID, Start, End FROM appointments WHERE Start < ? AND End > ? AND Customer_ID IN (");
+        List<Object> params = new ArrayList<>();
+        params.add(Timestamp.valueOf(endLDT));
+        params.add(Timestamp.valueOf(startLDT));
+        for (int customerId : customerIds) {
+            sql.append(params.size() == 2 ? "?" : ", ?");
+            params.add(customerId);
+        }
+        sql.append(");");
+        List<Appointment> intervals = new ArrayList<>(QueryExecutor.query(QueryClass.REPORT, null, sql.toString(), overlapMapper, params.toArray()));
+        intervals.addAll(SeriesDAO.getCustomerOccurrences(customerIds, startLDT, endLDT));
+        return intervals;
+    }
+
+    /**
+     * Builds the overlap message listing every conflicting appointment.
+     *
+     * @param conflicts  The conflicting appointments, in start time order.
+     * @param customerId The ID of the customer checked.
+     * @return A descriptive string of the overlapping appointments; returns "No" if there is no overlap.
+     */
+    private static String overlapReport(List<Appointment> conflicts, int customerId) {
+        if (conflicts.isEmpty()) {
             return "No";
-        } else {
-            rs.next();
-            LocalDateTime startConflictDateTime = rs.getTimestamp("Start").toLocalDateTime();
-            LocalDateTime endConflictDateTime = rs.getTimestamp("End").toLocalDateTime();
-            int customerIdFound = rs.getInt("Customer_ID");
-            LocalTime startConflictTime = startConflictDateTime.toLocalTime();
-            LocalTime endConflictTime = endConflictDateTime.toLocalTime();
-            String overlapReport = "No";
-            if(endLDT.equals(startConflictDateTime) || startLDT.equals(endConflictDateTime))
-            {
-                return overlapReport;
-            }
-            return "Overlaps with appointment (" + DataLists.myFormattedTF(startConflictTime) + " - " + DataLists.myFormattedTF(endConflictTime) + ") for Customer_ID: " + customerIdFound + ".";
         }
+        StringBuilder overlapReport = new StringBuilder(conflicts.size() == 1 ? "Overlaps with appointment " : "Overlaps with appointments ");
+        for (int i = 0; i < conflicts.size(); i++) {
+            LocalTime startConflictTime = conflicts.get(i).getStartTime().toLocalTime();
+            LocalTime endConflictTime = conflicts.get(i).getEndTime().toLocalTime();
+            overlapReport.append(i == 0 ? "(" : ", (").append(DataLists.myFormattedTF(startConflictTime))
+                    .append(" - ").append(DataLists.myFormattedTF(endConflictTime)).append(')');
+        }
+        return overlapReport.append(" for Customer_ID: ").append(customerId).append('.').toString();
     }
+
     /**
      * Retrieves a count of appointments based on a specified month and type for reporting purposes.
-     * This method queries the database and generates a report of appointments by month and type.
+     * The count is read from the rollup kept by the AppointmentCache rather than from the database, so it takes one
+     * lookup once the cache is loaded and there is no query to cancel.
      *
-     * @param month The month as a string, selected from the month combo box, used in the database query.
-     * @param type  The type of appointment, selected from the type combo box, used in the database query.
+     * @param month The month as a string, selected from the month combo box.
+     * @param type  The type of appointment, selected from the type combo box.
      * @return An ObservableList of Appointment objects, each containing month, type, and their count for the report.
-     * @throws SQLException If there is an issue executing the query in the database.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
      */
     public static ObservableList<Appointment> getMonthTypeReport(String month, String type) throws SQLException {
         ObservableList<Appointment> monthTypeAppointments = FXCollections.observableArrayList();
-        String sql = "SELECT Count(*) FROM APPOINTMENTS WHERE monthname(Start)=? AND Type=?;";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, month);
-        ps.setString(2, type);
-        ResultSet rs = ps.executeQuery();
-        rs.next();
-        int count = rs.getInt("Count(*)");
+        int count = AppointmentCache.count(Month.valueOf(month.toUpperCase()), type);
         Appointment monthTypeAppointment = new Appointment(month, type, count);
         monthTypeAppointments.add(monthTypeAppointment);
         return monthTypeAppointments;
@@ -353,31 +606,23 @@ public abstract class AppointmentDAO
      * @throws SQLException If there is an issue executing the query in the database.
      */
     public static ObservableList<Appointment> getContactReport(String contactNameBox) throws SQLException {
-        ObservableList<Appointment> contactAppointments = FXCollections.observableArrayList();
-        String sql =     "SELECT appointments.*, contacts.Contact_Name\n" +
-                "FROM appointments\n" +
-                "JOIN contacts ON appointments.Contact_ID = contacts.Contact_ID\n" +
-                "WHERE Contact_Name = ? ORDER BY Appointment_ID ASC;";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, contactNameBox);
-        ResultSet rs = ps.executeQuery();
-        while (rs.next())
-        {
-            int appointmentId = rs.getInt("Appointment_ID");
-            String title = rs.getString("Title");
-            String description = rs.getString("Description");
-            String location = rs.getString("Location");
-            String contactName = rs.getString("Contact_Name");
-            String type = rs.getString("Type");
-            LocalDateTime startTime = rs.getTimestamp("Start").toLocalDateTime();
-            LocalDateTime endTime = rs.getTimestamp("End").toLocalDateTime();
-            int customerId = rs.getInt("Customer_ID");
-            int contactId = rs.getInt("Contact_ID");
-            int userId = rs.getInt("User_ID");
-            Appointment appointment = new Appointment(appointmentId, title, description, location, contactName, type, startTime, endTime, customerId, contactId, userId);
-            contactAppointments.add(appointment);
-        }
-        return contactAppointments;
+        return getContactReport(contactNameBox, null);
+    }
+
+    /**
+     * Queries the database to generate a report of appointments for a specific contact, under the report timeout.
+     * The query can be stopped while it runs by cancelling the given handle. The occurrences of recurring series are
+     * included, ahead of the appointments as their Appointment_ID is 0.
+     *
+     * @param contactNameBox The name of the contact, obtained from the contact combo box, used to filter appointments.
+     * @param handle         The handle used to cancel the report, or null if it cannot be cancelled.
+     * @return An ObservableList of Appointments associated with the given contact.
+     * @throws SQLException If there is an issue executing the query in the database, it times out, or it is cancelled.
+     */
+    public static ObservableList<Appointment> getContactReport(String contactNameBox, QueryHandle handle) throws SQLException {
+        AppointmentFilter filter = new AppointmentFilter();
+        filter.setContactName(contactNameBox);
+        return withOccurrences(QueryExecutor.query(QueryClass.REPORT, handle, contactReportSql, appointmentMapper, contactNameBox), filter);
     }
 
     /**
@@ -389,30 +634,56 @@ public abstract class AppointmentDAO
      * @throws SQLException If there is an issue executing the query in the database.
      */
     public static ObservableList<Appointment> getLocationReport(String locationFromBox) throws SQLException {
-        ObservableList<Appointment> locationAppointments = FXCollections.observableArrayList();
-        String sql = "SELECT appointments.*, contacts.Contact_Name\n" +
-                "                FROM appointments\n" +
-                "                JOIN contacts ON appointments.Contact_ID = contacts.Contact_ID\n" +
-                "                WHERE Location = ? ORDER BY Appointment_ID ASC;";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, locationFromBox);
-        ResultSet rs = ps.executeQuery();
-        while (rs.next())
-        {
-            int appointmentId = rs.getInt("Appointment_ID");
-            String title = rs.getString("Title");
-            String description = rs.getString("Description");
-            String location = rs.getString("Location");
-            String contactName = rs.getString("Contact_Name");
-            String type = rs.getString("Type");
-            LocalDateTime startTime = rs.getTimestamp("Start").toLocalDateTime();
-            LocalDateTime endTime = rs.getTimestamp("End").toLocalDateTime();
-            int customerId = rs.getInt("Customer_ID");
-            int contactId = rs.getInt("Contact_ID");
-            int userId = rs.getInt("User_ID");
-            Appointment appointment = new Appointment(appointmentId, title, description, location, contactName, type, startTime, endTime, customerId, contactId, userId);
-            locationAppointments.add(appointment);
+        return getLocationReport(locationFromBox, null);
+    }
+
+    /**
+     * Queries the database to generate a report of appointments for a specific location, under the report timeout.
+     * The query can be stopped while it runs by cancelling the given handle. The occurrences of recurring series are
+     * included, ahead of the appointments as their Appointment_ID is 0.
+     *
+     * @param locationFromBox The location, obtained from the location combo box, used to filter appointments.
+     * @param handle          The handle used to cancel the report, or null if it cannot be cancelled.
+     * @return An ObservableList of Appointments associated with the given location.
+     * @throws SQLException If there is an issue executing the query in the database, it times out, or it is cancelled.
+     */
+    public static ObservableList<Appointment> getLocationReport(String locationFromBox, QueryHandle handle) throws SQLException {
+        AppointmentFilter filter = new AppointmentFilter();
+        filter.setLocation(locationFromBox);
+        return withOccurrences(QueryExecutor.query(QueryClass.REPORT, handle, locationReportSql, appointmentMapper, locationFromBox), filter);
+    }
+
+    /**
+     * Merges the series occurrences that pass a filter into appointments read in the filter's order.
+     *
+     * @param appointments The appointments, in the filter's order.
+     * @param filter       The filter the appointments were read with.
+     * @return The appointments and occurrences, in the filter's order.
+     */
+    private static ObservableList<Appointment> withOccurrences(ObservableList<Appointment> appointments, AppointmentFilter filter) {
+        appointments.addAll(SeriesDAO.getOccurrences(filter));
+        appointments.sort(filter.comparator());
+        return appointments;
+    }
+
+    /**
+     * Reports the prepared statement cache hits and misses for the statements the schedule table and updateAppointment
+     * run, so the effect of statement reuse can be checked at runtime. The table runs the page query of its filter and
+     * sort order, first without and then with a keyset boundary; the counters shown are those of the All preset in
+     * Appointment_ID order, the default view. The overlap checks and getAppointments no longer query the database.
+     *
+     * @return A summary of the cache counters for each statement and in total, or an empty string if the pool is not open.
+     */
+    public static String getStatementCacheReport() {
+        if (JDBC.getPool() == null) {
+            return "";
         }
-        return locationAppointments;
+        StatementCacheStats stats = JDBC.getPool().getStatementCacheStats();
+        String firstPageSql = pageSql(AppointmentFilter.all(), null, false);
+        String nextPageSql = pageSql(AppointmentFilter.all(), new Appointment(), false);
+        return "first page: hits=" + stats.getHits(firstPageSql) + ", misses=" + stats.getMisses(firstPageSql) +
+                "; next pages: hits=" + stats.getHits(nextPageSql) + ", misses=" + stats.getMisses(nextPageSql) +
+                "; updateAppointment: hits=" + stats.getHits(updateSql) + ", misses=" + stats.getMisses(updateSql) +
+                "; total: hits=" + stats.getHits() + ", misses=" + stats.getMisses();
     }
 }
\ No newline at end of file
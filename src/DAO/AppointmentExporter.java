@@ -0,0 +1,244 @@
+package DAO;
+
+import DataBase.CsvFormat;
+import DataBase.QueryClass;
+import DataBase.QueryExecutor;
+import DataBase.QueryHandle;
+import DataBase.RowHandler;
+import model.Appointment;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * The Abstract Class for AppointmentExporter. This writes appointments and the contact and location reports to CSV or
+ * NDJSON files. Rows are streamed from the server through QueryExecutor.stream and written as they arrive, so memory
+ * use stays flat however many appointments are exported. The occurrences of recurring series that the export covers
+ * are expanded first and written between the rows where they fall in the export's order, with an Appointment_ID of
+ * 0. Each export prints its throughput when it finishes. */
+public abstract class AppointmentExporter {
+
+    private static final DateTimeFormatter dateTimeFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final String[] columns = {"Appointment_ID", "Title", "Description", "Location", "Contact_Name", "Type",
+            "Start", "End", "Customer_ID", "User_ID", "Contact_ID"};
+
+    /**
+     * Exports every appointment, in the order of getAppointments.
+     *
+     * @param file The file to write. It is replaced if it exists.
+     * @param format The format to write.
+     * @param handle The handle used to cancel the export, or null if it cannot be cancelled.
+     * @return A summary of the export.
+     * @throws SQLException If the query fails, times out or is cancelled.
+     * @throws IOException If the file cannot be written.
+     */
+    public static ExportResult exportAppointments(Path file, ExportFormat format, QueryHandle handle) throws SQLException, IOException {
+        return export(file, format, handle, AppointmentFilter.all(), AppointmentDAO.allAppointmentsSql);
+    }
+
+    /**
+     * Exports the appointments of a contact, in the order of getContactReport.
+     *
+     * @param contactName The name of the contact.
+     * @param file The file to write. It is replaced if it exists.
+     * @param format The format to write.
+     * @param handle The handle used to cancel the export, or null if it cannot be cancelled.
+     * @return A summary of the export.
+     * @throws SQLException If the query fails, times out or is cancelled.
+     * @throws IOException If the file cannot be written.
+     */
+    public static ExportResult exportContactReport(String contactName, Path file, ExportFormat format, QueryHandle handle) throws SQLException, IOException {
+        AppointmentFilter filter = new AppointmentFilter();
+        filter.setContactName(contactName);
+        return export(file, format, handle, filter, AppointmentDAO.contactReportSql, contactName);
+    }
+
+    /**
+     * Exports the appointments at a location, in the order of getLocationReport.
+     *
+     * @param location The location.
+     * @param file The file to write. It is replaced if it exists.
+     * @param format The format to write.
+     * @param handle The handle used to cancel the export, or null if it cannot be cancelled.
+     * @return A summary of the export.
+     * @throws SQLException If the query fails, times out or is cancelled.
+     * @throws IOException If the file cannot be written.
+     */
+    public static ExportResult exportLocationReport(String location, Path file, ExportFormat format, QueryHandle handle) throws SQLException, IOException {
+        AppointmentFilter filter = new AppointmentFilter();
+        filter.setLocation(location);
+        return export(file, format, handle, filter, AppointmentDAO.locationReportSql, location);
+    }
+
+    /**
+     * Exports the appointments starting in a date range, ordered by start time.
+     *
+     * @param from The start of the range, inclusive.
+     * @param to The end of the range, exclusive.
+     * @param file The file to write. It is replaced if it exists.
+     * @param format The format to write.
+     * @param handle The handle used to cancel the export, or null if it cannot be cancelled.
+     * @return A summary of the export.
+     * @throws SQLException If the query fails, times out or is cancelled.
+     * @throws IOException If the file cannot be written.
+     */
+    public static ExportResult exportRange(LocalDateTime from, LocalDateTime to, Path file, ExportFormat format, QueryHandle handle) throws SQLException, IOException {
+        AppointmentFilter filter = new AppointmentFilter();
+        filter.setDateRange(from, to);
+        filter.setOrder(PageOrder.START, false);
+        return export(file, format, handle, filter, AppointmentDAO.rangeSql, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * Streams the rows of an appointments query into a file, merging in the series occurrences that pass a filter.
+     *
+     * @param file The file to write.
+     * @param format The format to write.
+     * @param handle The handle used to cancel the export, or null.
+     * @param filter The conditions and order of the query, used to select and place the occurrences.
+     * @param sql The appointments query.
+     * @param params The values bound to the query's parameters, in order.
+     * @return A summary of the export.
+     * @throws SQLException If the query fails, times out or is cancelled.
+     * @throws IOException If the file cannot be written.
+     */
+    private static ExportResult export(Path file, ExportFormat format, QueryHandle handle, AppointmentFilter filter, String sql, Object... params) throws SQLException, IOException {
+        long started = System.currentTimeMillis();
+        List<Appointment> occurrences = SeriesDAO.getOccurrences(filter);
+        long rows;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder(256);
+            RowHandler<Appointment> writer;
+            if (format == ExportFormat.CSV) {
+                out.write(CsvFormat.formatLine(columns));
+                out.newLine();
+                writer = appointment -> {
+                    line.setLength(0);
+                    appendCsv(line, appointment);
+                    out.append(line).append('\n');
+                };
+            } else {
+                writer = appointment -> {
+                    line.setLength(0);
+                    appendJson(line, appointment);
+                    out.append(line).append('\n');
+                };
+            }
+            RowHandler<Appointment> rowWriter = writer;
+            Comparator<Appointment> order = filter.comparator();
+            int[] nextOccurrence = {0};
+            rows = QueryExecutor.stream(QueryClass.EXPORT, handle, sql, AppointmentDAO.appointmentMapper, appointment -> {
+                while (nextOccurrence[0] < occurrences.size() && order.compare(occurrences.get(nextOccurrence[0]), appointment) < 0) {
+                    rowWriter.handle(occurrences.get(nextOccurrence[0]++));
+                }
+                rowWriter.handle(appointment);
+            }, params);
+            while (nextOccurrence[0] < occurrences.size()) {
+                rowWriter.handle(occurrences.get(nextOccurrence[0]++));
+            }
+            rows += occurrences.size();
+        }
+        ExportResult result = new ExportResult(rows, file, System.currentTimeMillis() - started);
+        System.out.println(result);
+        return result;
+    }
+
+    /**
+     * Appends an appointment as one CSV line, in the order of the header columns.
+     *
+     * @param line The line being built.
+     * @param appointment The appointment to write.
+     */
+    private static void appendCsv(StringBuilder line, Appointment appointment)
+    {
+        line.append(appointment.getAppointmentId()).append(',');
+        CsvFormat.appendField(line, appointment.getTitle());
+        line.append(',');
+        CsvFormat.appendField(line, appointment.getDescription());
+        line.append(',');
+        CsvFormat.appendField(line, appointment.getLocation());
+        line.append(',');
+        CsvFormat.appendField(line, appointment.getContactName());
+        line.append(',');
+        CsvFormat.appendField(line, appointment.getType());
+        line.append(',');
+        dateTimeFormat.formatTo(appointment.getStartTime(), line);
+        line.append(',');
+        dateTimeFormat.formatTo(appointment.getEndTime(), line);
+        line.append(',').append(appointment.getCustomerId())
+                .append(',').append(appointment.getUserId())
+                .append(',').append(appointment.getContactId());
+    }
+
+    /**
+     * Appends an appointment as one JSON object, using the header column names as keys.
+     *
+     * @param line The line being built.
+     * @param appointment The appointment to write.
+     */
+    private static void appendJson(StringBuilder line, Appointment appointment)
+    {
+        line.append("{\"Appointment_ID\":").append(appointment.getAppointmentId());
+        line.append(",\"Title\":");
+        appendJsonString(line, appointment.getTitle());
+        line.append(",\"Description\":");
+        appendJsonString(line, appointment.getDescription());
+        line.append(",\"Location\":");
+        appendJsonString(line, appointment.getLocation());
+        line.append(",\"Contact_Name\":");
+        appendJsonString(line, appointment.getContactName());
+        line.append(",\"Type\":");
+        appendJsonString(line, appointment.getType());
+        line.append(",\"Start\":\"");
+        dateTimeFormat.formatTo(appointment.getStartTime(), line);
+        line.append("\",\"End\":\"");
+        dateTimeFormat.formatTo(appointment.getEndTime(), line);
+        line.append("\",\"Customer_ID\":").append(appointment.getCustomerId())
+                .append(",\"User_ID\":").append(appointment.getUserId())
+                .append(",\"Contact_ID\":").append(appointment.getContactId())
+                .append('}');
+    }
+
+    /**
+     * Appends a JSON string literal, escaping quotes, backslashes and control characters.
+     *
+     * @param line The line being built.
+     * @param value The string to write, or null for a JSON null.
+     */
+    private static void appendJsonString(StringBuilder line, String value)
+    {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c == '\n') {
+                line.append("\\n");
+            } else if (c == '\r') {
+                line.append("\\r");
+            } else if (c == '\t') {
+                line.append("\\t");
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+}
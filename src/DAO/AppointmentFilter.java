@@ -0,0 +1,265 @@
+package DAO;
+
+import model.Appointment;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the AppointmentFilter class. It describes which appointments the schedule table shows and in what order.
+ * AppointmentDAO turns it into WHERE and ORDER BY clauses, so filtering and sorting run in the database and only the
+ * rows on the current page are loaded. Fields left null are not filtered on. The date range is half-open on Start:
+ * appointments starting at or after from and before to are included. The All, Month and Week views are presets. */
+public class AppointmentFilter {
+
+    private String contactName;
+    private String type;
+    private String location;
+    private Integer customerId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private PageOrder order = PageOrder.APPOINTMENT_ID;
+    private boolean descending;
+
+    /**
+     * Creates a filter that shows every appointment, ordered by Appointment_ID.
+     *
+     * @return The All preset.
+     */
+    public static AppointmentFilter all()
+    {
+        return new AppointmentFilter();
+    }
+
+    /**
+     * Creates a filter that shows the appointments starting in the current month, ordered by Appointment_ID.
+     *
+     * @return The Month preset.
+     */
+    public static AppointmentFilter currentMonth()
+    {
+        AppointmentFilter filter = new AppointmentFilter();
+        LocalDate firstDay = LocalDate.now().withDayOfMonth(1);
+        filter.setDateRange(firstDay.atStartOfDay(), firstDay.plusMonths(1).atStartOfDay());
+        return filter;
+    }
+
+    /**
+     * Creates a filter that shows the appointments starting today or in the seven days after, ordered by
+     * Appointment_ID.
+     *
+     * @return The Week preset.
+     */
+    public static AppointmentFilter currentWeek()
+    {
+        AppointmentFilter filter = new AppointmentFilter();
+        LocalDate today = LocalDate.now();
+        filter.setDateRange(today.atStartOfDay(), today.plusDays(8).atStartOfDay());
+        return filter;
+    }
+
+    /** Returns the contact filtered on.
+     * @return The contact name, or null if not filtered. */
+    public String getContactName() {
+        return contactName;
+    }
+
+    /** Sets the contact to filter on.
+     * @param contactName The contact name, or null to show every contact. */
+    public void setContactName(String contactName) {
+        this.contactName = contactName;
+    }
+
+    /** Returns the appointment type filtered on.
+     * @return The type, or null if not filtered. */
+    public String getType() {
+        return type;
+    }
+
+    /** Sets the appointment type to filter on.
+     * @param type The type, or null to show every type. */
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    /** Returns the location filtered on.
+     * @return The location, or null if not filtered. */
+    public String getLocation() {
+        return location;
+    }
+
+    /** Sets the location to filter on.
+     * @param location The location, or null to show every location. */
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    /** Returns the customer filtered on.
+     * @return The customer ID, or null if not filtered. */
+    public Integer getCustomerId() {
+        return customerId;
+    }
+
+    /** Sets the customer to filter on.
+     * @param customerId The customer ID, or null to show every customer. */
+    public void setCustomerId(Integer customerId) {
+        this.customerId = customerId;
+    }
+
+    /** Returns the earliest start time shown.
+     * @return The lower bound, or null if there is none. */
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    /** Returns the start time after the last one shown.
+     * @return The upper bound, or null if there is none. */
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    /**
+     * Sets the half-open range of start times to show.
+     *
+     * @param from The earliest start time shown, or null for no lower bound.
+     * @param to   The start time after the last one shown, or null for no upper bound.
+     */
+    public void setDateRange(LocalDateTime from, LocalDateTime to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    /** Returns the column the appointments are sorted by.
+     * @return The sort column. */
+    public PageOrder getOrder() {
+        return order;
+    }
+
+    /** Returns whether the sort runs from the largest value down.
+     * @return `true` for a descending sort. */
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Sets the sort order.
+     *
+     * @param order      The column to sort by.
+     * @param descending `true` to sort from the largest value down.
+     */
+    public void setOrder(PageOrder order, boolean descending) {
+        this.order = order;
+        this.descending = descending;
+    }
+
+    /**
+     * Appends the filter's conditions to a WHERE clause, each joined with AND, and adds their parameter values.
+     *
+     * @param where  The conditions being built.
+     * @param params The parameter values, in order.
+     */
+    void appendConditions(List<String> where, List<Object> params)
+    {
+        if (contactName != null) {
+            where.add("contacts.Contact_Name = ?");
+            params.add(contactName);
+        }
+        if (type != null) {
+            where.add("appointments.Type = ?");
+            params.add(type);
+        }
+        if (location != null) {
+            where.add("appointments.Location = ?");
+            params.add(location);
+        }
+        if (customerId != null) {
+            where.add("appointments.Customer_ID = ?");
+            params.add(customerId);
+        }
+        if (from != null) {
+            where.add("appointments.Start >= ?");
+            params.add(from);
+        }
+        if (to != null) {
+            where.add("appointments.Start < ?");
+            params.add(to);
+        }
+    }
+
+    /**
+     * Checks whether an appointment passes the filter, the same way the WHERE clause from appendConditions does. Used
+     * to place rows that changed after the page was loaded.
+     *
+     * @param appointment The appointment to check.
+     * @return `true` if the appointment is shown by this filter.
+     */
+    public boolean matches(Appointment appointment)
+    {
+        if (contactName != null && !contactName.equalsIgnoreCase(appointment.getContactName())) {
+            return false;
+        }
+        if (type != null && !type.equalsIgnoreCase(appointment.getType())) {
+            return false;
+        }
+        if (location != null && !location.equalsIgnoreCase(appointment.getLocation())) {
+            return false;
+        }
+        if (customerId != null && customerId != appointment.getCustomerId()) {
+            return false;
+        }
+        if (from != null && appointment.getStartTime().isBefore(from)) {
+            return false;
+        }
+        return to == null || appointment.getStartTime().isBefore(to);
+    }
+
+    /**
+     * Returns a comparator giving the order of the filter's ORDER BY clause, completed with Appointment_ID. Text is
+     * compared ignoring case, as the database's default collation does. Series occurrences, whose Appointment_ID is 0,
+     * come before the appointments with the same key and are ordered among themselves by series ID and start time.
+     *
+     * @return The comparator of the current sort order.
+     */
+    public Comparator<Appointment> comparator()
+    {
+        PageOrder sortOrder = order;
+        Comparator<Appointment> comparator = (a, b) -> {
+            Object keyA = sortOrder.keyOf(a);
+            Object keyB = sortOrder.keyOf(b);
+            int result;
+            if (keyA instanceof String && keyB instanceof String) {
+                result = ((String) keyA).compareToIgnoreCase((String) keyB);
+            } else if (keyA == null || keyB == null) {
+                result = keyA == null ? (keyB == null ? 0 : -1) : 1;
+            } else {
+                result = compareKeys(keyA, keyB);
+            }
+            if (result == 0) {
+                result = Integer.compare(a.getAppointmentId(), b.getAppointmentId());
+            }
+            if (result == 0) {
+                result = Integer.compare(a.getSeriesId(), b.getSeriesId());
+            }
+            return result != 0 ? result : a.getStartTime().compareTo(b.getStartTime());
+        };
+        return descending ? comparator.reversed() : comparator;
+    }
+
+    /**
+     * Compares two non-text sort keys of the same type.
+     *
+     * @param a The first key.
+     * @param b The second key.
+     * @param <T> The type of the keys.
+     * @return The result of comparing the keys.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<T>> int compareKeys(Object a, Object b)
+    {
+        return ((T) a).compareTo((T) b);
+    }
+}
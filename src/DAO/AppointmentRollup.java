@@ -0,0 +1,92 @@
+package DAO;
+
+import model.Appointment;
+
+import java.time.Month;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the AppointmentRollup class. It counts appointments by the month they start in and their type, the only
+ * combination of dimensions a report counts over, so the Type/Month report is a single lookup however many
+ * appointments there are. Each type has one array of thirteen counters, one per month and one for every month, and
+ * a second array holds the same counts over every type. An appointment added or removed updates four counters and
+ * allocates nothing once its type has been seen, and the rollup's size grows with the number of types rather than
+ * with the number of appointments.
+ *
+ * Months are months of the year in the user's time zone, over every year, like monthname(Start) in the old report
+ * query. AppointmentCache keeps the rollup alongside its views and guards it with its lock. */
+class AppointmentRollup {
+
+    private static final int anyMonth = 0;
+
+    private final Map<String, int[]> byType = new HashMap<>();
+    private final int[] allTypes = new int[13];
+
+    /**
+     * Counts an appointment under its month and type.
+     *
+     * @param appointment The appointment.
+     */
+    void add(Appointment appointment)
+    {
+        update(appointment, 1);
+    }
+
+    /**
+     * Stops counting an appointment, dropping the counters of a type that no longer has any appointments.
+     *
+     * @param appointment The appointment, as it was when it was added.
+     */
+    void remove(Appointment appointment)
+    {
+        update(appointment, -1);
+    }
+
+    /**
+     * Returns the number of appointments matching a month and type. A null dimension matches any value.
+     *
+     * @param month The month of the year the appointments start in, or null.
+     * @param type The type, or null.
+     * @return The number of matching appointments.
+     */
+    int count(Month month, String type)
+    {
+        int[] counts = type == null ? allTypes : byType.get(type);
+        return counts == null ? 0 : counts[month == null ? anyMonth : month.getValue()];
+    }
+
+    /**
+     * Removes every counter.
+     */
+    void clear()
+    {
+        byType.clear();
+        Arrays.fill(allTypes, 0);
+    }
+
+    /**
+     * Adds a change to the counters of an appointment's month and type. A missing type is kept as an empty string, so
+     * it cannot be mistaken for a type left out.
+     *
+     * @param appointment The appointment.
+     * @param change 1 to add the appointment, -1 to remove it.
+     */
+    private void update(Appointment appointment, int change)
+    {
+        String type = Objects.toString(appointment.getType(), "");
+        int month = appointment.getStartTime().getMonthValue();
+        int[] counts = byType.computeIfAbsent(type, key -> new int[13]);
+        counts[month] += change;
+        counts[anyMonth] += change;
+        allTypes[month] += change;
+        allTypes[anyMonth] += change;
+        if (counts[anyMonth] == 0) {
+            byType.remove(type);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package DAO;
+
+import DataBase.QueryExecutor;
+import DataBase.RowMapper;
+import model.Appointment;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * Class for AppointmentRowMapper. Decodes rows of an appointments query joined with contacts into Appointment objects.
+ * Column positions are resolved once per ResultSet, so every row is read by position. The Start and End columns are
+ * read through QueryExecutor.getLocalDateTime, which still goes through a Timestamp per value so that the driver
+ * converts them from the server's zone, as connectionTimeZone=SERVER asks. */
+class AppointmentRowMapper implements RowMapper<Appointment>
+{
+    private final int appointmentId, title, description, location, contactName, type, start, end, customerId, contactId, userId;
+
+    /**
+     * Constructs an unresolved AppointmentRowMapper. It resolves the column positions of each ResultSet it is given.
+     */
+    AppointmentRowMapper()
+    {
+        appointmentId = title = description = location = contactName = type = start = end = customerId = contactId = userId = 0;
+    }
+
+    /**
+     * Constructs an AppointmentRowMapper with the column positions of one ResultSet.
+     *
+     * @param rs The ResultSet whose columns are resolved.
+     * @throws SQLException If a required column is missing.
+     */
+    private AppointmentRowMapper(ResultSet rs) throws SQLException
+    {
+        appointmentId = rs.findColumn("Appointment_ID");
+        title = rs.findColumn("Title");
+        description = rs.findColumn("Description");
+        location = rs.findColumn("Location");
+        contactName = rs.findColumn("Contact_Name");
+        type = rs.findColumn("Type");
+        start = rs.findColumn("Start");
+        end = rs.findColumn("End");
+        customerId = rs.findColumn("Customer_ID");
+        contactId = rs.findColumn("Contact_ID");
+        userId = rs.findColumn("User_ID");
+    }
+
+    /**
+     * Returns a mapper with the column positions of the given ResultSet resolved.
+     *
+     * @param rs The ResultSet about to be read.
+     * @return A resolved AppointmentRowMapper.
+     * @throws SQLException If a required column is missing.
+     */
+    @Override
+    public RowMapper<Appointment> forResultSet(ResultSet rs) throws SQLException {
+        return new AppointmentRowMapper(rs);
+    }
+
+    /**
+     * Builds an Appointment from the current row.
+     *
+     * @param rs The ResultSet positioned on a row.
+     * @return The Appointment for the row.
+     * @throws SQLException If a column cannot be read.
+     */
+    @Override
+    public Appointment mapRow(ResultSet rs) throws SQLException {
+        if (appointmentId == 0) {
+            return forResultSet(rs).mapRow(rs);
+        }
+        return new Appointment(rs.getInt(appointmentId), rs.getString(title), rs.getString(description),
+                rs.getString(location), rs.getString(contactName), rs.getString(type),
+                QueryExecutor.getLocalDateTime(rs, start), QueryExecutor.getLocalDateTime(rs, end),
+                rs.getInt(customerId), rs.getInt(contactId), rs.getInt(userId));
+    }
+}
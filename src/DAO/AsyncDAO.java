@@ -0,0 +1,303 @@
+package DAO;
+
+import DataBase.AsyncExecutor;
+import DataBase.BatchResult;
+import DataBase.QueryHandle;
+import javafx.collections.ObservableList;
+import model.Appointment;
+import model.AppointmentSeries;
+import model.Customer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * The Abstract Class for AsyncDAO. This is the asynchronous variant of the DAO queries used by the screens. Each
+ * method runs the matching blocking DAO method through AsyncExecutor and returns a future that is completed on the
+ * JavaFX application thread. */
+public abstract class AsyncDAO
+{
+    /**
+     * Loads all appointments without blocking the caller.
+     *
+     * @return A future for the list returned by AppointmentDAO.getAppointments.
+     */
+    public static CompletableFuture<ObservableList<Appointment>> getAppointments() {
+        return AsyncExecutor.supply(AppointmentDAO::getAppointments);
+    }
+
+    /**
+     * Loads the appointments in the current month without blocking the caller.
+     *
+     * @return A future for the list returned by AppointmentDAO.getAppointmentsByMonth.
+     */
+    public static CompletableFuture<ObservableList<Appointment>> getAppointmentsByMonth() {
+        return AsyncExecutor.supply(AppointmentDAO::getAppointmentsByMonth);
+    }
+
+    /**
+     * Loads the appointments in the coming week without blocking the caller.
+     *
+     * @return A future for the list returned by AppointmentDAO.getAppointmentsByWeek.
+     */
+    public static CompletableFuture<ObservableList<Appointment>> getAppointmentsByWeek() {
+        return AsyncExecutor.supply(AppointmentDAO::getAppointmentsByWeek);
+    }
+
+    /**
+     * Loads the page of filtered appointments following a given appointment without blocking the caller.
+     *
+     * @param filter The filter and sort order of the view.
+     * @param last  The last appointment of the previous page, or null for the first page.
+     * @param limit The largest number of appointments to return.
+     * @return A future for the page returned by AppointmentDAO.getAppointmentsAfter.
+     */
+    public static CompletableFuture<ObservableList<Appointment>> getAppointmentsAfter(AppointmentFilter filter, Appointment last, int limit) {
+        return AsyncExecutor.supply(() -> AppointmentDAO.getAppointmentsAfter(filter, last, limit));
+    }
+
+    /**
+     * Loads the page of filtered appointments preceding a given appointment without blocking the caller.
+     *
+     * @param filter The filter and sort order of the view.
+     * @param first The first appointment of the following page.
+     * @param limit The largest number of appointments to return.
+     * @return A future for the page returned by AppointmentDAO.getAppointmentsBefore.
+     */
+    public static CompletableFuture<ObservableList<Appointment>> getAppointmentsBefore(AppointmentFilter filter, Appointment first, int limit) {
+        return AsyncExecutor.supply(() -> AppointmentDAO.getAppointmentsBefore(filter, first, limit));
+    }
+
+    /**
+     * Deletes an appointment without blocking the caller.
+     *
+     * @param appointmentId The ID of the appointment to delete.
+     * @return A future completed once AppointmentDAO.deleteAppointment has finished.
+     */
+    public static CompletableFuture<Void> deleteAppointment(int appointmentId) {
+        return AsyncExecutor.supply(() -> {
+            AppointmentDAO.deleteAppointment(appointmentId);
+            return null;
+        });
+    }
+
+    /**
+     * Deletes a recurring series, and with it every occurrence, without blocking the caller.
+     *
+     * @param seriesId The ID of the series to delete.
+     * @return A future completed once SeriesDAO.deleteSeries has finished.
+     */
+    public static CompletableFuture<Void> deleteSeries(int seriesId) {
+        return AsyncExecutor.supply(() -> {
+            SeriesDAO.deleteSeries(seriesId);
+            return null;
+        });
+    }
+
+    /**
+     * Skips the occurrence of a recurring series on one date without blocking the caller. The series is read again
+     * first, so dates skipped by other clients are kept.
+     *
+     * @param seriesId The ID of the series.
+     * @param date The date of the occurrence to skip.
+     * @return A future for whether the date was skipped; `false` if the series no longer exists.
+     */
+    public static CompletableFuture<Boolean> skipOccurrence(int seriesId, LocalDate date) {
+        return AsyncExecutor.supply(() -> {
+            AppointmentSeries series = SeriesDAO.getSeries(seriesId);
+            if (series == null) {
+                return false;
+            }
+            SeriesDAO.addException(series, date);
+            return true;
+        });
+    }
+
+    /**
+     * Inserts a collection of appointments in one batch without blocking the caller.
+     *
+     * @param appointments The appointments to insert.
+     * @return A future for the result returned by AppointmentDAO.insertAppointments.
+     */
+    public static CompletableFuture<BatchResult> insertAppointments(Collection<Appointment> appointments) {
+        return AsyncExecutor.supply(() -> AppointmentDAO.insertAppointments(appointments));
+    }
+
+    /**
+     * Updates a collection of appointments in one batch without blocking the caller.
+     *
+     * @param appointments The appointments to update.
+     * @return A future for the result returned by AppointmentDAO.updateAppointments.
+     */
+    public static CompletableFuture<BatchResult> updateAppointments(Collection<Appointment> appointments) {
+        return AsyncExecutor.supply(() -> AppointmentDAO.updateAppointments(appointments));
+    }
+
+    /**
+     * Counts appointments by month and type without blocking the caller.
+     *
+     * @param month The month selected in the month combo box.
+     * @param type  The type selected in the type combo box.
+     * @return A future for the list returned by AppointmentDAO.getMonthTypeReport.
+     */
+    public static CompletableFuture<ObservableList<Appointment>> getMonthTypeReport(String month, String type) {
+        return AsyncExecutor.supply(() -> AppointmentDAO.getMonthTypeReport(month, type));
+    }
+
+    /**
+     * Loads the appointments for a contact without blocking the caller.
+     *
+     * @param contactName The contact selected in the contact combo box.
+     * @param handle The handle used to cancel the report, or null if it cannot be cancelled.
+     * @return A future for the list returned by AppointmentDAO.getContactReport.
+     */
+    public static CompletableFuture<ObservableList<Appointment>> getContactReport(String contactName, QueryHandle handle) {
+        return AsyncExecutor.supply(() -> AppointmentDAO.getContactReport(contactName, handle));
+    }
+
+    /**
+     * Loads the appointments for a location without blocking the caller.
+     *
+     * @param location The location selected in the location combo box.
+     * @param handle The handle used to cancel the report, or null if it cannot be cancelled.
+     * @return A future for the list returned by AppointmentDAO.getLocationReport.
+     */
+    public static CompletableFuture<ObservableList<Appointment>> getLocationReport(String location, QueryHandle handle) {
+        return AsyncExecutor.supply(() -> AppointmentDAO.getLocationReport(location, handle));
+    }
+
+    /**
+     * Loads all customers without blocking the caller.
+     *
+     * @return A future for the list returned by CustomerDAO.getCustomers.
+     */
+    public static CompletableFuture<ObservableList<Customer>> getCustomers() {
+        return AsyncExecutor.supply(CustomerDAO::getCustomers);
+    }
+
+    /**
+     * Loads the customer IDs without blocking the caller.
+     *
+     * @return A future for the list returned by CustomerDAO.getCustomerIds.
+     */
+    public static CompletableFuture<ObservableList<String>> getCustomerIds() {
+        return AsyncExecutor.supply(CustomerDAO::getCustomerIds);
+    }
+
+    /**
+     * Loads the contact names without blocking the caller.
+     *
+     * @return A future for the list returned by ContactDAO.getContactNames.
+     */
+    public static CompletableFuture<ObservableList<String>> getContactNames() {
+        return AsyncExecutor.supply(ContactDAO::getContactNames);
+    }
+
+    /**
+     * Loads the user IDs without blocking the caller.
+     *
+     * @return A future for the list returned by UserDAO.getUsers.
+     */
+    public static CompletableFuture<ObservableList<String>> getUsers() {
+        return AsyncExecutor.supply(UserDAO::getUsers);
+    }
+
+    /**
+     * Finds the next free start times for an appointment without blocking the caller. The contact is looked up by
+     * name in the background.
+     *
+     * @param customerId  The ID of the customer.
+     * @param contactName The name of the contact.
+     * @param duration    The length of the appointment.
+     * @param from        The earliest start time to suggest.
+     * @param count       The largest number of start times to return.
+     * @return A future for the list returned by FreeSlotFinder.findFreeSlots.
+     */
+    public static CompletableFuture<List<LocalDateTime>> findFreeSlots(int customerId, String contactName, Duration duration, LocalDateTime from, int count) {
+        return AsyncExecutor.supply(() -> FreeSlotFinder.findFreeSlots(customerId, ContactDAO.getContactId(contactName), duration, from, count));
+    }
+
+    /**
+     * Exports every appointment to a file without blocking the caller.
+     *
+     * @param file   The file to write.
+     * @param format The format to write.
+     * @param handle The handle used to cancel the export, or null if it cannot be cancelled.
+     * @return A future for the summary returned by AppointmentExporter.exportAppointments.
+     */
+    public static CompletableFuture<ExportResult> exportAppointments(Path file, ExportFormat format, QueryHandle handle) {
+        return AsyncExecutor.supply(() -> export(() -> AppointmentExporter.exportAppointments(file, format, handle)));
+    }
+
+    /**
+     * Exports the appointments of a contact to a file without blocking the caller.
+     *
+     * @param contactName The name of the contact.
+     * @param file        The file to write.
+     * @param format      The format to write.
+     * @param handle      The handle used to cancel the export, or null if it cannot be cancelled.
+     * @return A future for the summary returned by AppointmentExporter.exportContactReport.
+     */
+    public static CompletableFuture<ExportResult> exportContactReport(String contactName, Path file, ExportFormat format, QueryHandle handle) {
+        return AsyncExecutor.supply(() -> export(() -> AppointmentExporter.exportContactReport(contactName, file, format, handle)));
+    }
+
+    /**
+     * Exports the appointments at a location to a file without blocking the caller.
+     *
+     * @param location The location.
+     * @param file     The file to write.
+     * @param format   The format to write.
+     * @param handle   The handle used to cancel the export, or null if it cannot be cancelled.
+     * @return A future for the summary returned by AppointmentExporter.exportLocationReport.
+     */
+    public static CompletableFuture<ExportResult> exportLocationReport(String location, Path file, ExportFormat format, QueryHandle handle) {
+        return AsyncExecutor.supply(() -> export(() -> AppointmentExporter.exportLocationReport(location, file, format, handle)));
+    }
+
+    /**
+     * Exports the appointments starting in a date range to a file without blocking the caller.
+     *
+     * @param from   The start of the range, inclusive.
+     * @param to     The end of the range, exclusive.
+     * @param file   The file to write.
+     * @param format The format to write.
+     * @param handle The handle used to cancel the export, or null if it cannot be cancelled.
+     * @return A future for the summary returned by AppointmentExporter.exportRange.
+     */
+    public static CompletableFuture<ExportResult> exportRange(LocalDateTime from, LocalDateTime to, Path file, ExportFormat format, QueryHandle handle) {
+        return AsyncExecutor.supply(() -> export(() -> AppointmentExporter.exportRange(from, to, file, format, handle)));
+    }
+
+    /**
+     * Runs an export, passing a failure to write the file on as an UncheckedIOException so it completes the future.
+     *
+     * @param task The export to run.
+     * @return The summary of the export.
+     * @throws SQLException If the query fails, times out or is cancelled.
+     */
+    private static ExportResult export(ExportTask task) throws SQLException {
+        try {
+            return task.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Interface for the export lambda expression.
+     */
+    private interface ExportTask {
+        ExportResult run() throws SQLException, IOException;
+    }
+}
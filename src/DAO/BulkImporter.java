@@ -0,0 +1,386 @@
+package DAO;
+
+import DataBase.BatchResult;
+import DataBase.CsvFormat;
+import DataBase.DataLists;
+import model.Appointment;
+import model.Customer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * The Abstract Class for BulkImporter. This imports customers and appointments from CSV files. Files are read one
+ * chunk of rows at a time, so memory use depends on the chunk size and not on the size of the file. The rows of a
+ * chunk are validated in parallel with the same rules as the AddCustomer and AddAppointment forms; the valid rows are
+ * then written with one batched insert, and rejected rows are written to an error file with the reason. Each chunk is
+ * committed before the next is read, so later rows are checked for overlaps against earlier ones.
+ *
+ * The first record of each file is a header and is skipped. A quoted field may hold line breaks, so a record can span
+ * several lines; rejected rows are reported by the line they start on. Customer files hold the columns
+ * Customer_Name, Address, Postal_Code, Phone, Division. Appointment files hold the columns Title, Description,
+ * Location, Type, Start, End, Customer_ID, User_ID, Contact, with Start and End written as yyyy-MM-dd HH:mm. */
+public abstract class BulkImporter {
+
+    private static final int chunkSize = 1000;
+    private static final int customerColumns = 5;
+    private static final int appointmentColumns = 9;
+    private static final DateTimeFormatter dateTimeFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    /**
+     * Imports customers from a CSV file.
+     *
+     * @param csvFile The file to import.
+     * @param errorFile The file rejected rows are written to. It is replaced if it exists.
+     * @return A summary of the import.
+     * @throws IOException If either file cannot be read or written.
+     * @throws SQLException If a chunk cannot be written to the database.
+     */
+    public static ImportResult importCustomers(Path csvFile, Path errorFile) throws IOException, SQLException {
+        Map<String, Integer> divisionIds = FirstLevelDivisionDAO.getDivisionIdsByName();
+        return run(csvFile, errorFile, rows -> importCustomerChunk(rows, divisionIds));
+    }
+
+    /**
+     * Imports appointments from a CSV file.
+     *
+     * @param csvFile The file to import.
+     * @param errorFile The file rejected rows are written to. It is replaced if it exists.
+     * @return A summary of the import.
+     * @throws IOException If either file cannot be read or written.
+     * @throws SQLException If a chunk cannot be written to the database.
+     */
+    public static ImportResult importAppointments(Path csvFile, Path errorFile) throws IOException, SQLException {
+        Map<String, Integer> contactIds = ContactDAO.getContactIdsByName();
+        Set<Integer> userIds = new HashSet<>();
+        for (String userId : UserDAO.getUserIds()) {
+            userIds.add(Integer.parseInt(userId));
+        }
+        return run(csvFile, errorFile, rows -> importAppointmentChunk(rows, contactIds, userIds));
+    }
+
+    /**
+     * Streams a CSV file through a chunk importer, writing rejected rows to the error file as each chunk finishes.
+     *
+     * @param csvFile The file to import.
+     * @param errorFile The file rejected rows are written to.
+     * @param importer The validation and write step for one chunk.
+     * @return A summary of the import.
+     * @throws IOException If either file cannot be read or written.
+     * @throws SQLException If a chunk cannot be written to the database.
+     */
+    private static ImportResult run(Path csvFile, Path errorFile, ChunkImporter importer) throws IOException, SQLException {
+        long started = System.currentTimeMillis();
+        long read = 0;
+        long imported = 0;
+        long rejected = 0;
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8);
+             BufferedWriter errors = Files.newBufferedWriter(errorFile, StandardCharsets.UTF_8)) {
+            errors.write(CsvFormat.formatLine("Line", "Error", "Row"));
+            errors.newLine();
+            String header = CsvFormat.readRecord(reader);
+            long lineNumber = header == null ? 0 : lineCount(header);
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while (true) {
+                line = CsvFormat.readRecord(reader);
+                if (line != null) {
+                    long firstLine = lineNumber + 1;
+                    lineNumber += lineCount(line);
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    chunk.add(new ImportRow(firstLine, line));
+                    read++;
+                }
+                if (chunk.size() == chunkSize || (line == null && !chunk.isEmpty())) {
+                    imported += importer.importChunk(chunk);
+                    for (ImportRow row : chunk) {
+                        if (row.error != null) {
+                            errors.write(CsvFormat.formatLine(String.valueOf(row.lineNumber), row.error, row.text));
+                            errors.newLine();
+                            rejected++;
+                        }
+                    }
+                    chunk.clear();
+                }
+                if (line == null) {
+                    break;
+                }
+            }
+        }
+        return new ImportResult(read, imported, rejected, errorFile, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Counts the lines of the file a record was read from.
+     *
+     * @param record The record, as returned by CsvFormat.readRecord.
+     * @return The number of lines, one more than the line breaks inside its quoted fields.
+     */
+    private static long lineCount(String record) {
+        long lines = 1;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Validates and writes one chunk of customer rows.
+     *
+     * @param rows The rows of the chunk.
+     * @param divisionIds The division IDs keyed by division name.
+     * @return The number of rows written.
+     * @throws SQLException If the chunk cannot be written to the database.
+     */
+    private static int importCustomerChunk(List<ImportRow> rows, Map<String, Integer> divisionIds) throws SQLException {
+        rows.parallelStream().forEach(row -> {
+            String[] fields = row.fields(customerColumns);
+            if (row.error != null) {
+                return;
+            }
+            Integer divisionId = divisionIds.get(fields[4]);
+            if (divisionId == null) {
+                row.error = "Unknown division: " + fields[4];
+                return;
+            }
+            row.record = new Customer(0, fields[0], fields[1], fields[2], fields[3], fields[4], divisionId, null);
+        });
+        List<ImportRow> valid = new ArrayList<>();
+        List<Customer> customers = new ArrayList<>();
+        for (ImportRow row : rows) {
+            if (row.error == null) {
+                valid.add(row);
+                customers.add((Customer) row.record);
+            }
+        }
+        return recordBatch(valid, CustomerDAO.insertCustomers(customers));
+    }
+
+    /**
+     * Validates and writes one chunk of appointment rows. Field checks, business hours and contact and user
+     * references are checked in parallel; customer references and overlaps with stored appointments are then resolved
+     * with one query each for the whole chunk, and finally rows are checked for overlaps with earlier rows of the same
+     * chunk.
+     *
+     * @param rows The rows of the chunk.
+     * @param contactIds The contact IDs keyed by contact name.
+     * @param userIds The IDs of all users.
+     * @return The number of rows written.
+     * @throws SQLException If the chunk cannot be validated or written.
+     */
+    private static int importAppointmentChunk(List<ImportRow> rows, Map<String, Integer> contactIds, Set<Integer> userIds) throws SQLException {
+        rows.parallelStream().forEach(row -> parseAppointment(row, contactIds, userIds));
+
+        Set<Integer> customerIds = new HashSet<>();
+        LocalDateTime rangeStart = null;
+        LocalDateTime rangeEnd = null;
+        for (ImportRow row : rows) {
+            if (row.error == null) {
+                Appointment appointment = (Appointment) row.record;
+                customerIds.add(appointment.getCustomerId());
+                rangeStart = rangeStart == null || appointment.getStartTime().isBefore(rangeStart) ? appointment.getStartTime() : rangeStart;
+                rangeEnd = rangeEnd == null || appointment.getEndTime().isAfter(rangeEnd) ? appointment.getEndTime() : rangeEnd;
+            }
+        }
+        if (customerIds.isEmpty()) {
+            return 0;
+        }
+        Set<Integer> existingCustomers = CustomerDAO.getExistingCustomerIds(customerIds);
+        Map<Integer, List<Appointment>> booked = new HashMap<>();
+        for (Appointment interval : AppointmentDAO.getCustomerIntervals(existingCustomers, rangeStart, rangeEnd)) {
+            booked.computeIfAbsent(interval.getCustomerId(), id -> new ArrayList<>()).add(interval);
+        }
+
+        rows.parallelStream().forEach(row -> {
+            if (row.error != null) {
+                return;
+            }
+            Appointment appointment = (Appointment) row.record;
+            if (!existingCustomers.contains(appointment.getCustomerId())) {
+                row.error = "Unknown Customer_ID: " + appointment.getCustomerId();
+                return;
+            }
+            Appointment conflict = findOverlap(booked.get(appointment.getCustomerId()), appointment);
+            if (conflict != null) {
+                row.error = "Overlaps with appointment (" + DataLists.myFormattedDTF(conflict.getStartTime()) + " - "
+                        + DataLists.myFormattedDTF(conflict.getEndTime()) + ") for Customer_ID: " + conflict.getCustomerId() + ".";
+            }
+        });
+
+        Map<Integer, List<Appointment>> accepted = new HashMap<>();
+        List<ImportRow> valid = new ArrayList<>();
+        List<Appointment> appointments = new ArrayList<>();
+        for (ImportRow row : rows) {
+            if (row.error != null) {
+                continue;
+            }
+            Appointment appointment = (Appointment) row.record;
+            List<Appointment> earlier = accepted.computeIfAbsent(appointment.getCustomerId(), id -> new ArrayList<>());
+            Appointment conflict = findOverlap(earlier, appointment);
+            if (conflict != null) {
+                row.error = "Overlaps with an earlier row of the file for Customer_ID: " + conflict.getCustomerId() + ".";
+                continue;
+            }
+            earlier.add(appointment);
+            valid.add(row);
+            appointments.add(appointment);
+        }
+        return recordBatch(valid, AppointmentDAO.insertAppointments(appointments));
+    }
+
+    /**
+     * Parses an appointment row and applies the checks of the AddAppointment form that need no customer data:
+     * required fields, the 30-minute grid, start before end, business hours, location, type, contact and user.
+     *
+     * @param row The row to parse. Its error or record is set.
+     * @param contactIds The contact IDs keyed by contact name.
+     * @param userIds The IDs of all users.
+     */
+    private static void parseAppointment(ImportRow row, Map<String, Integer> contactIds, Set<Integer> userIds) {
+        String[] fields = row.fields(appointmentColumns);
+        if (row.error != null) {
+            return;
+        }
+        LocalDateTime start;
+        LocalDateTime end;
+        int customerId;
+        int userId;
+        try {
+            start = LocalDateTime.parse(fields[4], dateTimeFormat);
+            end = LocalDateTime.parse(fields[5], dateTimeFormat);
+        } catch (DateTimeParseException e) {
+            row.error = "Start and End must be written as yyyy-MM-dd HH:mm.";
+            return;
+        }
+        try {
+            customerId = Integer.parseInt(fields[6]);
+            userId = Integer.parseInt(fields[7]);
+        } catch (NumberFormatException e) {
+            row.error = "Customer_ID and User_ID must be numbers.";
+            return;
+        }
+        Integer contactId = contactIds.get(fields[8]);
+        if (!Arrays.asList(DataLists.officeLocation).contains(fields[2])) {
+            row.error = "Unknown location: " + fields[2];
+        } else if (!Arrays.asList(DataLists.typeAppointment).contains(fields[3])) {
+            row.error = "Unknown type: " + fields[3];
+        } else if (start.getMinute() % 30 != 0 || end.getMinute() % 30 != 0) {
+            row.error = "Start and End must be on the half hour.";
+        } else if (end.isBefore(start)) {
+            row.error = "End time must be after Start Time";
+        } else if (start.isEqual(end)) {
+            row.error = "Start and end time are the same.";
+        } else if (!DataLists.checkTimeRange(start, end)) {
+            row.error = "Time must be between 8:00AM - 10:00PM ET";
+        } else if (contactId == null) {
+            row.error = "Unknown contact: " + fields[8];
+        } else if (!userIds.contains(userId)) {
+            row.error = "Unknown User_ID: " + userId;
+        } else {
+            row.record = new Appointment(0, fields[0], fields[1], fields[2], fields[8], fields[3], start, end, customerId, contactId, userId);
+        }
+    }
+
+    /**
+     * Finds an appointment that overlaps the given one. Back-to-back appointments, where one ends exactly when the
+     * other starts, do not overlap.
+     *
+     * @param candidates The appointments to check against, or null if there are none.
+     * @param appointment The appointment being checked.
+     * @return The first overlapping appointment, or null if there is none.
+     */
+    private static Appointment findOverlap(List<Appointment> candidates, Appointment appointment) {
+        if (candidates == null) {
+            return null;
+        }
+        for (Appointment candidate : candidates) {
+            if (candidate.getStartTime().isBefore(appointment.getEndTime()) && candidate.getEndTime().isAfter(appointment.getStartTime())) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Copies the outcome of a batched insert back onto the rows that were sent.
+     *
+     * @param rows The rows sent, in batch order.
+     * @param result The outcome of the batch.
+     * @return The number of rows written.
+     */
+    private static int recordBatch(List<ImportRow> rows, BatchResult result) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (!result.isSuccess(i)) {
+                rows.get(i).error = result.getError(i);
+            }
+        }
+        return result.getSuccessCount();
+    }
+
+    /**
+     * One data row of an import file, with its parsed record or the reason it was rejected.
+     */
+    private static class ImportRow {
+        final long lineNumber;
+        final String text;
+        Object record;
+        String error;
+
+        ImportRow(long lineNumber, String text)
+        {
+            this.lineNumber = lineNumber;
+            this.text = text;
+        }
+
+        /**
+         * Splits the row and checks that it has the expected number of fields and that none is blank. Sets the error
+         * if it does not.
+         *
+         * @param expected The number of columns in the file.
+         * @return The trimmed fields of the row.
+         */
+        String[] fields(int expected)
+        {
+            String[] fields = CsvFormat.parseLine(text);
+            if (fields.length != expected) {
+                error = "Expected " + expected + " fields but found " + fields.length + ".";
+                return fields;
+            }
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = fields[i].trim();
+                if (fields[i].isEmpty()) {
+                    error = "Please complete all fields.";
+                }
+            }
+            return fields;
+        }
+    }
+
+    /**
+     * Interface for the chunk import lambda expression.
+     */
+    private interface ChunkImporter {
+        int importChunk(List<ImportRow> rows) throws SQLException;
+    }
+}
@@ -1,12 +1,11 @@
 package DAO;
 
-import DataBase.JDBC;
-import javafx.collections.FXCollections;
+import DataBase.QueryExecutor;
 import javafx.collections.ObservableList;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * @author Hamza Yousaf
@@ -25,17 +24,31 @@ public abstract class ContactDAO {
      */
     public static int getContactId(String contactName) throws SQLException {
         String sql = "SELECT Contact_ID FROM CONTACTS WHERE Contact_Name = ?" ;
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, contactName);
-        ResultSet rs = ps.executeQuery();
         int contactId = 0;
-        while(rs.next())
+        for (int id : QueryExecutor.query(sql, rs -> rs.getInt("Contact_ID"), contactName))
         {
-            contactId = rs.getInt("Contact_ID");
+            contactId = id;
         }
         return contactId;
     }
 
+    /**
+     * Retrieves the IDs of all contacts keyed by contact name. Used by bulk validation to resolve contact names without
+     * a query per row.
+     *
+     * @return A map from contact name to contact ID.
+     * @throws SQLException If there is an issue executing the query in the database.
+     */
+    public static Map<String, Integer> getContactIdsByName() throws SQLException {
+        String sql = "SELECT Contact_ID, Contact_Name FROM CONTACTS";
+        Map<String, Integer> contactIds = new HashMap<>();
+        for (Map.Entry<String, Integer> contact : QueryExecutor.query(sql, rs -> Map.entry(rs.getString(2), rs.getInt(1))))
+        {
+            contactIds.put(contact.getKey(), contact.getValue());
+        }
+        return contactIds;
+    }
+
     /**
      * Gathers all contact names from the database for use in populating combo boxes.
      * This method queries all contact names to create a list suitable for UI selections.
@@ -45,14 +58,6 @@ public abstract class ContactDAO {
      */
     public static ObservableList<String> getContactNames() throws SQLException {
         String sql = "SELECT Contact_Name FROM CONTACTS";
-        ObservableList<String> contacts = FXCollections.observableArrayList();
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ResultSet rs = ps.executeQuery();
-        while(rs.next())
-        {
-            String contactName = rs.getString("Contact_Name");
-            contacts.add(contactName);
-        }
-        return contacts;
+        return QueryExecutor.query(sql, rs -> rs.getString("Contact_Name"));
     }
 }
\ No newline at end of file
@@ -1,12 +1,11 @@
 package DAO;
 
-import DataBase.JDBC;
+import DataBase.QueryExecutor;
+import DataBase.RowMapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import model.Country;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 
 /**
@@ -17,6 +16,11 @@ public abstract class CountryDAO {
     static ObservableList<Country> allCountries = FXCollections.observableArrayList();
     static ObservableList<String> allCountriesStrings = FXCollections.observableArrayList();
 
+    /**
+     * Maps a row of the countries table into a Country.
+     */
+    private static final RowMapper<Country> countryMapper = rs -> new Country(rs.getInt("Country_ID"), rs.getString("Country"));
+
     /**
      * Retrieves a list of all countries from the database. Each country record is transformed into a Country object
      * and added to an ObservableList, which is used primarily for populating country-related combo boxes in the UI.
@@ -27,14 +31,7 @@ public abstract class CountryDAO {
     public static ObservableList<Country> getCountries() throws SQLException {
 
         String sql = "SELECT * FROM COUNTRIES";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ResultSet rs = ps.executeQuery();
-        while (rs.next()) {
-            int countryId = rs.getInt("Country_ID");
-            String countryName = rs.getString("Country");
-            Country country = new Country(countryId, countryName);
-            allCountries.add(country);
-        }
+        allCountries.addAll(QueryExecutor.query(sql, countryMapper));
         return allCountries;
     }
 
@@ -58,11 +55,10 @@ public abstract class CountryDAO {
      */
     public static int returnUpdateCountryId(int divisionId) throws SQLException {
         String sql = "SELECT Country_ID FROM first_level_divisions WHERE Division_ID = ?;";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setInt(1, divisionId);
-        ResultSet rs = ps.executeQuery();
-        rs.next();
-        int countryId = rs.getInt("Country_ID");
+        Integer countryId = QueryExecutor.queryOne(sql, rs -> rs.getInt("Country_ID"), divisionId);
+        if (countryId == null) {
+            throw new SQLException("No division found with Division_ID " + divisionId);
+        }
         return countryId;
     }
 
@@ -76,13 +72,10 @@ public abstract class CountryDAO {
      */
     public static Country returnUpdateCountry(int countryUpdateId) throws SQLException {
         String sql = "SELECT Country_ID, Country FROM Countries WHERE Country_Id = ?;";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setInt(1, countryUpdateId);
-        ResultSet rs = ps.executeQuery();
-        rs.next();
-        int countryId = rs.getInt("Country_ID");
-        String countryName = rs.getString("Country");
-        Country country = new Country(countryId, countryName);
+        Country country = QueryExecutor.queryOne(sql, countryMapper, countryUpdateId);
+        if (country == null) {
+            throw new SQLException("No country found with Country_ID " + countryUpdateId);
+        }
         return country;
     }
 
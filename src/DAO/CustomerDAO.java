@@ -1,13 +1,18 @@
 package DAO;
 
-import DataBase.JDBC;
-import javafx.collections.FXCollections;
+import DataBase.BatchResult;
+import DataBase.QueryExecutor;
+import DataBase.RowMapper;
 import javafx.collections.ObservableList;
 import model.Customer;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  *
@@ -16,6 +21,13 @@ import java.sql.SQLException;
  * The Abstract Class for AppointmentDAO. This handles database queries related to customers. */
 public abstract class CustomerDAO {
 
+    /**
+     * Decodes a row of the customers query joined with divisions and countries into a Customer for the TableView.
+     */
+    private static final RowMapper<Customer> customerMapper = new CustomerRowMapper();
+    private static final String insertSql = "INSERT INTO CUSTOMERS (Customer_Name, Address, Postal_Code, Phone, Division_ID, Last_Update) VALUES(?, ?, ?, ?, ?, NOW());";
+    private static final String customersSelectSql = "SELECT customers.*, first_level_divisions.* , countries.Country FROM customers JOIN first_level_divisions ON first_level_divisions.Division_ID = customers.Division_ID  JOIN countries ON first_level_divisions.Country_ID = countries.Country_ID ";
+
     /**
      * Fetches customer details from the database to populate a TableView. It joins the Customers, Countries, and
      * First_Level_Divisions tables to provide a comprehensive list of customer information.
@@ -24,23 +36,21 @@ public abstract class CustomerDAO {
      * @throws SQLException If there is an issue executing the query in the database.
      */
     public static ObservableList<Customer> getCustomers() throws SQLException {
-        ObservableList<Customer> allCustomers = FXCollections.observableArrayList();
-        String sql = "SELECT customers.*, first_level_divisions.* , countries.Country FROM customers JOIN first_level_divisions ON first_level_divisions.Division_ID = customers.Division_ID  JOIN countries ON first_level_divisions.Country_ID = countries.Country_ID ORDER BY Customer_ID ASC;";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ResultSet rs = ps.executeQuery();
-        while (rs.next()) {
-            int customerId = rs.getInt("Customer_ID");
-            String name = rs.getString("Customer_Name");
-            String address = rs.getString("Address");
-            String postalCode = rs.getString("Postal_Code");
-            String phone = rs.getString("Phone");
-            String divisionName = rs.getString("Division");
-            int divisionIdFK = rs.getInt("Division_ID");
-            String country = rs.getString("Country");
-            Customer customer = new Customer(customerId, name, address, postalCode, phone, divisionName, divisionIdFK, country);
-            allCustomers.add(customer);
-        }
-        return allCustomers;
+        String sql = customersSelectSql + "ORDER BY Customer_ID ASC;";
+        return QueryExecutor.query(sql, customerMapper);
+    }
+
+    /**
+     * Reads the customers inserted or updated at or after a time, by their Last_Update column. Used by DeltaSync to
+     * refresh the customer table for the cost of the changed rows only.
+     *
+     * @param since The database time to read changes from.
+     * @return The changed customers in Customer_ID order.
+     * @throws SQLException If there is an issue executing the query in the database.
+     */
+    static ObservableList<Customer> getCustomersChangedSince(Timestamp since) throws SQLException {
+        String sql = customersSelectSql + "WHERE customers.Last_Update >= ? ORDER BY customers.Customer_ID ASC;";
+        return QueryExecutor.query(sql, customerMapper, since);
     }
 
     /**
@@ -55,14 +65,30 @@ public abstract class CustomerDAO {
      * @throws SQLException If there is an issue executing the INSERT statement in the database.
      */
     public static void insertCustomer(String customerName, String address, String postalCode, String phone, int divisionIdFK) throws SQLException {
-        String sql = "INSERT INTO CUSTOMERS (Customer_Name, Address, Postal_Code, Phone, Division_ID) VALUES(?, ?, ?, ?, ?);";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, customerName);
-        ps.setString(2,  address);
-        ps.setString(3, postalCode);
-        ps.setString(4, phone);
-        ps.setInt(5, divisionIdFK);
-        ps.executeUpdate();
+        QueryExecutor.update(insertSql, customerName, address, postalCode, phone, divisionIdFK);
+    }
+
+    /**
+     * Inserts a collection of customers in a single batched transaction. Each customer that is written has its
+     * customer ID set to the ID generated by the database.
+     *
+     * @param customers The customers to insert, in the order they should be reported.
+     * @return The outcome of each customer, including its generated Customer_ID.
+     * @throws SQLException If the batch cannot be run or committed.
+     */
+    public static BatchResult insertCustomers(Collection<Customer> customers) throws SQLException {
+        List<Customer> batch = new ArrayList<>(customers);
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Customer customer : batch) {
+            rows.add(new Object[] {customer.getName(), customer.getAddress(), customer.getPostalCode(), customer.getPhone(), customer.getDivisionIdFK()});
+        }
+        BatchResult result = QueryExecutor.batch(insertSql, rows, true);
+        for (int i = 0; i < batch.size(); i++) {
+            if (result.isSuccess(i)) {
+                batch.get(i).setCustomerId((int) result.getGeneratedKey(i));
+            }
+        }
+        return result;
     }
 
     /**
@@ -79,34 +105,24 @@ public abstract class CustomerDAO {
      */
     public static void updateCustomer(String customerName, String address, String postalCode, String phone, int divisionIdFK, int customerId) throws SQLException {
         String sql = "UPDATE CUSTOMERS set Customer_Name = ?, Address = ?, Postal_Code = ?, Phone = ?," +
-                "                Division_ID = ?" +
+                "                Division_ID = ?, Last_Update = NOW()" +
                 "                where Customer_ID = ?;";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, customerName);
-        ps.setString(2,  address);
-        ps.setString(3, postalCode);
-        ps.setString(4, phone);
-        ps.setInt(5, divisionIdFK);
-        ps.setInt(6, customerId);
-        ps.executeUpdate();
+        QueryExecutor.update(sql, customerName, address, postalCode, phone, divisionIdFK, customerId);
     }
 
     /**
-     * Checks if a customer has any existing appointments. This method is useful for validating customer deletion
-     * or updating operations.
+     * Checks if a customer has any existing appointments or recurring series. This method is useful for validating
+     * customer deletion or updating operations, so a deleted customer leaves no appointments or series behind.
      *
      * @param customerId The ID of the customer whose appointments are being checked.
-     * @return The count of appointments associated with the specified customer.
+     * @return The count of appointments and series associated with the specified customer.
      * @throws SQLException If there is an issue executing the query in the database.
      */
     public static int checkCustomerAppointments(int customerId) throws SQLException
     {
-        String sql = "SELECT COUNT(appointment_id) AS RowCount from APPOINTMENTS where customer_id = ?;";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setInt(1, customerId);
-        ResultSet rs = ps.executeQuery();
-        rs.next();
-        int count = rs.getInt("RowCount");
+        String sql = "SELECT (SELECT COUNT(appointment_id) from APPOINTMENTS where customer_id = ?)" +
+                " + (SELECT COUNT(Series_ID) from appointment_series where Customer_ID = ?) AS RowCount;";
+        int count = QueryExecutor.queryOne(sql, rs -> rs.getInt("RowCount"), customerId, customerId);
         return count;
     }
 
@@ -118,9 +134,11 @@ public abstract class CustomerDAO {
      */
     public static void deleteCustomer(int customerId) throws SQLException {
         String sql = "DELETE FROM CUSTOMERS WHERE Customer_ID = ?";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setInt(1, customerId);
-        ps.executeUpdate();
+        QueryExecutor.transaction(connection -> {
+            QueryExecutor.update(connection, sql, customerId);
+            DeltaSync.recordDeletion(connection, DeltaSync.customersTable, customerId);
+            return null;
+        });
     }
 
     /**
@@ -132,15 +150,27 @@ public abstract class CustomerDAO {
      */
     public static ObservableList <String> getCustomerIds() throws SQLException {
         String sql = "SELECT Customer_ID FROM CUSTOMERS";
-        ObservableList<String> customerIds = FXCollections.observableArrayList();
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ResultSet rs = ps.executeQuery();
-        while(rs.next())
-        {
-            String customerId = rs.getString("Customer_ID");
-            customerIds.add(customerId);
+        return QueryExecutor.query(sql, rs -> rs.getString("Customer_ID"));
+    }
+
+    /**
+     * Finds which of the given customer IDs exist in the database. Used by bulk validation to resolve the customer
+     * references of many rows with one query.
+     *
+     * @param customerIds The customer IDs to look up.
+     * @return The subset of the given IDs that exist.
+     * @throws SQLException If there is an issue executing the query in the database.
+     */
+    public static Set<Integer> getExistingCustomerIds(Collection<Integer> customerIds) throws SQLException {
+        if (customerIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        StringBuilder sql = new StringBuilder("SELECT Customer_ID FROM CUSTOMERS WHERE Customer_ID IN (");
+        for (int i = 0; i < customerIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
         }
-        return customerIds;
+        sql.append(");");
+        return new HashSet<>(QueryExecutor.query(sql.toString(), rs -> rs.getInt(1), customerIds.toArray()));
     }
 
     /**
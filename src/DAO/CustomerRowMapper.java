@@ -0,0 +1,71 @@
+package DAO;
+
+import DataBase.RowMapper;
+import model.Customer;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * Class for CustomerRowMapper. Decodes rows of the customers query joined with divisions and countries into Customer
+ * objects. Column positions are resolved once per ResultSet, so every row is read by position. */
+class CustomerRowMapper implements RowMapper<Customer>
+{
+    private final int customerId, name, address, postalCode, phone, divisionName, divisionIdFK, country;
+
+    /**
+     * Constructs an unresolved CustomerRowMapper. It resolves the column positions of each ResultSet it is given.
+     */
+    CustomerRowMapper()
+    {
+        customerId = name = address = postalCode = phone = divisionName = divisionIdFK = country = 0;
+    }
+
+    /**
+     * Constructs a CustomerRowMapper with the column positions of one ResultSet.
+     *
+     * @param rs The ResultSet whose columns are resolved.
+     * @throws SQLException If a required column is missing.
+     */
+    private CustomerRowMapper(ResultSet rs) throws SQLException
+    {
+        customerId = rs.findColumn("Customer_ID");
+        name = rs.findColumn("Customer_Name");
+        address = rs.findColumn("Address");
+        postalCode = rs.findColumn("Postal_Code");
+        phone = rs.findColumn("Phone");
+        divisionName = rs.findColumn("Division");
+        divisionIdFK = rs.findColumn("Division_ID");
+        country = rs.findColumn("Country");
+    }
+
+    /**
+     * Returns a mapper with the column positions of the given ResultSet resolved.
+     *
+     * @param rs The ResultSet about to be read.
+     * @return A resolved CustomerRowMapper.
+     * @throws SQLException If a required column is missing.
+     */
+    @Override
+    public RowMapper<Customer> forResultSet(ResultSet rs) throws SQLException {
+        return new CustomerRowMapper(rs);
+    }
+
+    /**
+     * Builds a Customer from the current row.
+     *
+     * @param rs The ResultSet positioned on a row.
+     * @return The Customer for the row.
+     * @throws SQLException If a column cannot be read.
+     */
+    @Override
+    public Customer mapRow(ResultSet rs) throws SQLException {
+        if (customerId == 0) {
+            return forResultSet(rs).mapRow(rs);
+        }
+        return new Customer(rs.getInt(customerId), rs.getString(name), rs.getString(address), rs.getString(postalCode),
+                rs.getString(phone), rs.getString(divisionName), rs.getInt(divisionIdFK), rs.getString(country));
+    }
+}
@@ -0,0 +1,54 @@
+package DAO;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the Delta class. It holds the rows of one table that DeltaSync found changed since its last refresh, and
+ * the IDs of the rows deleted since then. A row may be reported again in a later delta; applying a delta twice has
+ * the same effect as applying it once.
+ *
+ * @param <T> The type of object built from each changed row.
+ */
+public class Delta<T> {
+
+    private final List<T> changed;
+    private final Set<Integer> deletedIds;
+
+    /**
+     * Constructs a Delta.
+     *
+     * @param changed The rows inserted or updated since the last refresh.
+     * @param deletedIds The IDs of the rows deleted since the last refresh.
+     */
+    Delta(List<T> changed, Set<Integer> deletedIds)
+    {
+        this.changed = changed;
+        this.deletedIds = deletedIds;
+    }
+
+    /**
+     * @return The rows inserted or updated since the last refresh.
+     */
+    public List<T> getChanged() {
+        return changed;
+    }
+
+    /**
+     * @return The IDs of the rows deleted since the last refresh.
+     */
+    public Set<Integer> getDeletedIds() {
+        return deletedIds;
+    }
+
+    /**
+     * Checks whether nothing changed.
+     *
+     * @return `true` if there are no changed or deleted rows.
+     */
+    public boolean isEmpty() {
+        return changed.isEmpty() && deletedIds.isEmpty();
+    }
+}
@@ -0,0 +1,13 @@
+package DAO;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * Interface for the delta listener lambda expression. A screen registers a DeltaListener with DeltaSync to apply the
+ * rows changed by other clients to the table it shows. Listeners are called on the JavaFX application thread.
+ *
+ * @param <T> The type of object built from each changed row.
+ */
+public interface DeltaListener<T> {
+    void apply(Delta<T> delta);
+}
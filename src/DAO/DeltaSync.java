@@ -0,0 +1,214 @@
+package DAO;
+
+import DataBase.JDBC;
+import DataBase.QueryExecutor;
+import javafx.application.Platform;
+import model.Appointment;
+import model.AppointmentSeries;
+import model.Customer;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * The Abstract Class for DeltaSync. This keeps the open appointment and customer views current without reloading
+ * them. Every refreshMillis it asks the database only for the rows whose Last_Update is at or after its watermark, and
+ * for the deletions recorded in the deleted_rows table since the last one it read, then passes them to the
+ * AppointmentCache and to the listener of the screen being shown. Changed and deleted series are read the same way
+ * once the AppointmentCache has loaded its series and passed to it only; the screens build occurrences from it.
+ *
+ * The watermark is the database's own clock, read at the start of each refresh, so client clocks do not matter. Each
+ * refresh reaches back overlapSeconds before the watermark to pick up rows whose transactions committed late; rows
+ * seen twice are simply applied twice. Deletions are read the same way, by the Deleted_At of the tombstone that the DAO
+ * delete methods write in the same transaction as the delete, rather than by Deleted_ID: IDs are handed out when a
+ * tombstone is inserted, not when it commits, so a tombstone committed late can have a lower ID than one already read.
+ * The IDs of the tombstones read within the overlap are kept so each deletion is applied once. */
+public abstract class DeltaSync {
+
+    private static final long refreshMillis = 5_000;
+    private static final int overlapSeconds = 10;
+    private static final int tombstoneRetentionDays = 7;
+    static final String appointmentsTable = "appointments";
+    static final String customersTable = "customers";
+    static final String seriesTable = "appointment_series";
+
+    private static final String insertTombstoneSql = "INSERT INTO deleted_rows (Table_Name, Row_ID) VALUES(?, ?);";
+    private static final String tombstonesSql = "SELECT Deleted_ID, Table_Name, Row_ID, Deleted_At FROM deleted_rows WHERE Deleted_At >= ? ORDER BY Deleted_ID ASC;";
+    private static final String pruneTombstonesSql = "DELETE FROM deleted_rows WHERE Deleted_At < NOW() - INTERVAL " + tombstoneRetentionDays + " DAY;";
+
+    private static ScheduledExecutorService timer;
+    private static Timestamp watermark;
+    private static final Map<Long, Timestamp> seenTombstones = new HashMap<>();
+    private static volatile DeltaListener<Appointment> appointmentListener;
+    private static volatile DeltaListener<Customer> customerListener;
+
+    /**
+     * Sets the watermarks to the current state of the database and starts refreshing in the background. Called once
+     * the database connection is open and the deleted_rows table has been created by SchemaMigrations.
+     */
+    public static synchronized void start() {
+        if (timer != null) {
+            return;
+        }
+        try {
+            QueryExecutor.update(pruneTombstonesSql);
+            watermark = serverNow();
+            seenTombstones.clear();
+        } catch (SQLException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "delta-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (SQLException e) {
+                System.out.println("Error: " + e.getMessage());
+            }
+        }, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops refreshing. Called when the application exits.
+     */
+    public static synchronized void stop() {
+        if (timer != null) {
+            timer.shutdownNow();
+            timer = null;
+        }
+    }
+
+    /**
+     * Sets the listeners of the screen being shown, replacing those of the previous screen. Changes to a table with
+     * no listener are not fetched, except for appointments while the AppointmentCache is loaded.
+     *
+     * @param appointments Applies appointment deltas to the screen, or null if it shows no appointments.
+     * @param customers Applies customer deltas to the screen, or null if it shows no customers.
+     */
+    public static void watch(DeltaListener<Appointment> appointments, DeltaListener<Customer> customers) {
+        appointmentListener = appointments;
+        customerListener = customers;
+    }
+
+    /**
+     * Fetches the rows changed since the last refresh and applies them to the AppointmentCache and the listeners.
+     *
+     * @throws SQLException If the changes cannot be read.
+     */
+    public static synchronized void refresh() throws SQLException {
+        if (watermark == null) {
+            return;
+        }
+        DeltaListener<Appointment> appointments = appointmentListener;
+        DeltaListener<Customer> customers = customerListener;
+        boolean cacheLoaded = AppointmentCache.isLoaded();
+
+        Timestamp now = serverNow();
+        Timestamp since = new Timestamp(watermark.getTime() - overlapSeconds * 1000L);
+        List<Appointment> changedAppointments = appointments != null || cacheLoaded
+                ? AppointmentDAO.getAppointmentsChangedSince(since) : new ArrayList<>();
+        List<Customer> changedCustomers = customers != null
+                ? CustomerDAO.getCustomersChangedSince(since) : new ArrayList<>();
+        boolean seriesLoaded = AppointmentCache.isSeriesLoaded();
+        List<AppointmentSeries> changedSeries = seriesLoaded
+                ? SeriesDAO.getSeriesChangedSince(since) : new ArrayList<>();
+        Set<Integer> deletedAppointments = new HashSet<>();
+        Set<Integer> deletedCustomers = new HashSet<>();
+        Set<Integer> deletedSeries = new HashSet<>();
+        for (Object[] tombstone : QueryExecutor.query(tombstonesSql, rs -> new Object[] {rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getTimestamp(4)}, since)) {
+            if (seenTombstones.putIfAbsent((Long) tombstone[0], (Timestamp) tombstone[3]) != null) {
+                continue;
+            }
+            if (appointmentsTable.equals(tombstone[1])) {
+                deletedAppointments.add((Integer) tombstone[2]);
+            } else if (customersTable.equals(tombstone[1])) {
+                deletedCustomers.add((Integer) tombstone[2]);
+            } else if (seriesTable.equals(tombstone[1])) {
+                deletedSeries.add((Integer) tombstone[2]);
+            }
+        }
+        watermark = now;
+        //Tombstones older than the next refresh's window cannot be read again
+        Timestamp nextSince = new Timestamp(now.getTime() - overlapSeconds * 1000L);
+        seenTombstones.values().removeIf(deletedAt -> deletedAt.before(nextSince));
+
+        Delta<Appointment> appointmentDelta = new Delta<>(changedAppointments, deletedAppointments);
+        Delta<Customer> customerDelta = new Delta<>(changedCustomers, deletedCustomers);
+        if (cacheLoaded && !appointmentDelta.isEmpty()) {
+            AppointmentCache.putAll(changedAppointments);
+            for (int appointmentId : deletedAppointments) {
+                AppointmentCache.remove(appointmentId);
+            }
+        }
+        if (seriesLoaded) {
+            for (AppointmentSeries series : changedSeries) {
+                AppointmentCache.putSeries(series);
+            }
+            for (int seriesId : deletedSeries) {
+                AppointmentCache.removeSeries(seriesId);
+            }
+        }
+        if (appointments != null && !appointmentDelta.isEmpty()) {
+            Platform.runLater(() -> {
+                if (appointmentListener == appointments) {
+                    appointments.apply(appointmentDelta);
+                }
+            });
+        }
+        if (customers != null && !customerDelta.isEmpty()) {
+            Platform.runLater(() -> {
+                if (customerListener == customers) {
+                    customers.apply(customerDelta);
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes the tombstone of a deleted row. Called by the DAO delete methods inside the transaction that deletes the
+     * row, so the deletion and its tombstone are committed together. If the tombstone cannot be written, for example
+     * because the deleted_rows table could not be created, the delete still goes ahead and other clients simply do
+     * not see it until they reload.
+     *
+     * @param connection The connection of the delete transaction.
+     * @param table The table the row was deleted from.
+     * @param rowId The ID of the deleted row.
+     * @throws SQLException If the connection fails while the tombstone is written.
+     */
+    static void recordDeletion(Connection connection, String table, int rowId) throws SQLException {
+        try {
+            QueryExecutor.update(connection, insertTombstoneSql, table, rowId);
+        } catch (SQLException e) {
+            if (JDBC.isConnectionError(e)) {
+                throw e;
+            }
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the database's current time, used as the watermark.
+     *
+     * @return The current time of the database server.
+     * @throws SQLException If the time cannot be read.
+     */
+    private static Timestamp serverNow() throws SQLException {
+        return QueryExecutor.queryOne("SELECT NOW();", rs -> rs.getTimestamp(1));
+    }
+}
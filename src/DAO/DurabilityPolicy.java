@@ -0,0 +1,16 @@
+package DAO;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * How hard LoginActivityLog tries to get each group of login attempts onto the disk before taking the next one. Every
+ * policy writes a group with one system call; they differ only in when it is forced past the operating system's
+ * cache, which is what costs time. */
+public enum DurabilityPolicy {
+    /** Groups are left to the operating system to write back. A crash of the machine can lose recent attempts. */
+    NONE,
+    /** Groups are forced to disk at most once per sync interval, so a crash loses at most that much. */
+    INTERVAL,
+    /** Every group is forced to disk before the next is taken. */
+    EVERY_GROUP
+}
@@ -0,0 +1,11 @@
+package DAO;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * The file formats AppointmentExporter can write. CSV writes a header line followed by one comma-separated line per
+ * appointment; NDJSON writes one JSON object per line with no header. */
+public enum ExportFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,71 @@
+package DAO;
+
+import java.nio.file.Path;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the ExportResult class. It summarises one export run by AppointmentExporter: how many rows were written,
+ * to which file, and how long it took, from which the throughput is reported. */
+public class ExportResult {
+
+    private final long rows;
+    private final Path file;
+    private final long elapsedMillis;
+
+    /**
+     * Constructs an ExportResult.
+     *
+     * @param rows The number of rows written.
+     * @param file The file the rows were written to.
+     * @param elapsedMillis The time the export took, in milliseconds.
+     */
+    ExportResult(long rows, Path file, long elapsedMillis)
+    {
+        this.rows = rows;
+        this.file = file;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return The number of rows written.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return The file the rows were written to.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return The time the export took, in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Returns the export throughput.
+     *
+     * @return The number of rows written per second.
+     */
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? rows * 1000.0 : rows * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * Returns a one-line summary of the export.
+     *
+     * @return The summary text.
+     */
+    @Override
+    public String toString()
+    {
+        return "Exported " + rows + " rows to " + file + " in " + elapsedMillis + " ms ("
+                + Math.round(getRowsPerSecond()) + " rows/s).";
+    }
+}
@@ -1,13 +1,13 @@
 package DAO;
 
-import DataBase.JDBC;
+import DataBase.QueryExecutor;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import model.FirstLevelDivision;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * @author Hamza Yousaf
@@ -29,15 +29,7 @@ public abstract class FirstLevelDivisionDAO
     public static ObservableList<FirstLevelDivision> getAllFLD(int countryIdFK) throws SQLException {
 
         String sql = "SELECT * FROM FIRST_LEVEL_DIVISIONS WHERE country_ID = ?;";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setInt(1, countryIdFK);
-        ResultSet rs = ps.executeQuery();
-        while (rs.next()) {
-            int divisionId = rs.getInt("Division_ID");
-            String divisionName = rs.getString("Division");
-            FirstLevelDivision fld = new FirstLevelDivision(divisionId, divisionName, countryIdFK);
-            allFLD.add(fld);
-        }
+        allFLD.addAll(QueryExecutor.query(sql, rs -> new FirstLevelDivision(rs.getInt("Division_ID"), rs.getString("Division"), countryIdFK), countryIdFK));
         return allFLD;
     }
 
@@ -63,16 +55,31 @@ public abstract class FirstLevelDivisionDAO
     {
         int divisionId = -1;
         String sql = "SELECT DIVISION_ID FROM FIRST_LEVEL_DIVISIONS WHERE DIVISION = ?";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, division);
-        ResultSet rs = ps.executeQuery();
-        while(rs.next())
+        for (int id : QueryExecutor.query(sql, rs -> rs.getInt("Division_ID"), division))
         {
-            divisionId = rs.getInt("Division_ID");
+            divisionId = id;
         }
         return divisionId;
     }
 
+    /**
+     * Retrieves the IDs of all divisions keyed by division name. Used by bulk validation to resolve division names
+     * without a query per row.
+     *
+     * @return A map from division name to division ID.
+     * @throws SQLException If there is an issue executing the query in the database.
+     */
+    public static Map<String, Integer> getDivisionIdsByName() throws SQLException
+    {
+        String sql = "SELECT Division_ID, Division FROM FIRST_LEVEL_DIVISIONS";
+        Map<String, Integer> divisionIds = new HashMap<>();
+        for (Map.Entry<String, Integer> division : QueryExecutor.query(sql, rs -> Map.entry(rs.getString(2), rs.getInt(1))))
+        {
+            divisionIds.put(division.getKey(), division.getValue());
+        }
+        return divisionIds;
+    }
+
     /**
      * Retrieves a FirstLevelDivision object based on a given division ID. This method is used in updating customer
      * information, particularly for setting the appropriate first-level division in the UpdateCustomer view.
@@ -83,12 +90,10 @@ public abstract class FirstLevelDivisionDAO
      */
     public static FirstLevelDivision returnDivision(int divisionId) throws SQLException {
         String sql = "SELECT * FROM first_level_divisions WHERE Division_ID = ?;";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setInt(1, divisionId);
-        ResultSet rs = ps.executeQuery();
-        rs.next();
-        String division = rs.getString("Division");
-        FirstLevelDivision updateDivision = new FirstLevelDivision(division);
+        FirstLevelDivision updateDivision = QueryExecutor.queryOne(sql, rs -> new FirstLevelDivision(rs.getString("Division")), divisionId);
+        if (updateDivision == null) {
+            throw new SQLException("No division found with Division_ID " + divisionId);
+        }
         return updateDivision;
     }
 }
\ No newline at end of file
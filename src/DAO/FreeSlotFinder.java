@@ -0,0 +1,110 @@
+package DAO;
+
+import DataBase.BusinessHours;
+import DataBase.DataLists;
+import model.Appointment;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * The Abstract Class for FreeSlotFinder. This suggests start times for a new appointment that are free for both the
+ * customer and the contact, pass the ET office hours check of DataLists.checkTimeRange, and start on the slotMinutes
+ * grid of the time combo boxes. Times are in the user's time zone, like the rest of the screens, and office hours are
+ * looked up by the user's local date, as checkTimeRange does, so every suggestion is one the screens accept.
+ *
+ * Candidates are checked against the customer's and contact's IntervalSets in the AppointmentCache. A candidate that
+ * conflicts jumps straight past the latest conflicting appointment, and one outside office hours jumps to the next
+ * opening, so the search costs a few cache lookups per busy stretch rather than one per grid slot, however many
+ * appointments the calendars hold. */
+public abstract class FreeSlotFinder {
+
+    private static final int maxSearchDays = 366;
+
+    /**
+     * Finds the next free start times for an appointment.
+     *
+     * @param customerId The ID of the customer.
+     * @param contactId The ID of the contact.
+     * @param duration The length of the appointment.
+     * @param from The earliest start time to suggest.
+     * @param count The largest number of start times to return.
+     * @return Up to count free start times in ascending order, one grid slot apart at the closest. Empty if the
+     *         duration does not fit in office hours or nothing is free within maxSearchDays.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
+     */
+    public static List<LocalDateTime> findFreeSlots(int customerId, int contactId, Duration duration, LocalDateTime from, int count) throws SQLException {
+        List<LocalDateTime> slots = new ArrayList<>();
+        if (duration.isZero() || duration.isNegative() || duration.compareTo(Duration.between(DataLists.openHour, DataLists.closedHour)) > 0) {
+            return slots;
+        }
+        LocalDateTime limit = from.plusDays(maxSearchDays);
+        LocalDateTime candidate = roundUp(from);
+        while (slots.size() < count && candidate.isBefore(limit)) {
+            LocalDateTime end = candidate.plus(duration);
+            //checkTimeRange takes office hours from the user's local date, so the search must too
+            LocalDate date = candidate.toLocalDate();
+            LocalDateTime open = BusinessHours.getOpen(date);
+            LocalDateTime closed = BusinessHours.getClosed(date);
+            if (candidate.isBefore(open)) {
+                candidate = roundUp(open);
+                continue;
+            }
+            if (end.isAfter(closed)) {
+                LocalDateTime next = roundUp(BusinessHours.getOpen(date.plusDays(1)));
+                candidate = next.isAfter(candidate) ? next : candidate.plusMinutes(DataLists.slotMinutes);
+                continue;
+            }
+            if (!DataLists.checkTimeRange(candidate, end)) {
+                candidate = candidate.plusMinutes(DataLists.slotMinutes);
+                continue;
+            }
+            LocalDateTime busyUntil = latestEnd(AppointmentCache.getConflicts(customerId, candidate, end, 0), null);
+            busyUntil = latestEnd(AppointmentCache.getContactConflicts(contactId, candidate, end), busyUntil);
+            if (busyUntil != null) {
+                candidate = roundUp(busyUntil);
+                continue;
+            }
+            slots.add(candidate);
+            candidate = candidate.plusMinutes(DataLists.slotMinutes);
+        }
+        return slots;
+    }
+
+    /**
+     * Returns the latest end time among some appointments and a previous latest end time.
+     *
+     * @param conflicts The appointments.
+     * @param latest The latest end time found so far, or null.
+     * @return The latest end time, or null if there are no appointments and no previous time.
+     */
+    private static LocalDateTime latestEnd(List<Appointment> conflicts, LocalDateTime latest)
+    {
+        for (Appointment conflict : conflicts) {
+            if (latest == null || conflict.getEndTime().isAfter(latest)) {
+                latest = conflict.getEndTime();
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Rounds a time up to the next slotMinutes grid slot, leaving times already on the grid unchanged.
+     *
+     * @param time The time to round.
+     * @return The first grid slot at or after the time.
+     */
+    private static LocalDateTime roundUp(LocalDateTime time)
+    {
+        LocalDateTime slot = time.truncatedTo(ChronoUnit.HOURS)
+                .plusMinutes(time.getMinute() / DataLists.slotMinutes * DataLists.slotMinutes);
+        return slot.isBefore(time) ? slot.plusMinutes(DataLists.slotMinutes) : slot;
+    }
+}
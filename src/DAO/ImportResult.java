@@ -0,0 +1,82 @@
+package DAO;
+
+import java.nio.file.Path;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the ImportResult class. It summarises one bulk CSV import run by BulkImporter: how many data rows were read,
+ * how many were written to the database, how many were rejected to the error file, and how long the import took. */
+public class ImportResult {
+
+    private final long rowsRead;
+    private final long rowsImported;
+    private final long rowsRejected;
+    private final Path errorFile;
+    private final long elapsedMillis;
+
+    /**
+     * Constructs an ImportResult.
+     *
+     * @param rowsRead The number of data rows read from the file.
+     * @param rowsImported The number of rows written to the database.
+     * @param rowsRejected The number of rows written to the error file.
+     * @param errorFile The file the rejected rows were written to.
+     * @param elapsedMillis The time the import took, in milliseconds.
+     */
+    ImportResult(long rowsRead, long rowsImported, long rowsRejected, Path errorFile, long elapsedMillis)
+    {
+        this.rowsRead = rowsRead;
+        this.rowsImported = rowsImported;
+        this.rowsRejected = rowsRejected;
+        this.errorFile = errorFile;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return The number of data rows read from the file.
+     */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * @return The number of rows written to the database.
+     */
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    /**
+     * @return The number of rows written to the error file.
+     */
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    /**
+     * @return The file the rejected rows were written to.
+     */
+    public Path getErrorFile() {
+        return errorFile;
+    }
+
+    /**
+     * @return The time the import took, in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Returns a one-line summary of the import.
+     *
+     * @return The summary text.
+     */
+    @Override
+    public String toString()
+    {
+        return "Read " + rowsRead + " rows, imported " + rowsImported + ", rejected " + rowsRejected
+                + " (see " + errorFile + ") in " + elapsedMillis + " ms.";
+    }
+}
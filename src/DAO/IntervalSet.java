@@ -0,0 +1,101 @@
+package DAO;
+
+import model.Appointment;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the IntervalSet class. It holds the appointments of one customer or contact, and the occurrences of their
+ * series, sorted by start time, together with a count of their lengths, so the appointments overlapping a time range
+ * can be found without scanning them all.
+ * An appointment can only overlap [start, end) if it starts before end and no earlier than start minus the longest
+ * appointment held, so only that slice of the sorted set is visited. Appointments are half-open: one that ends exactly
+ * when another starts does not overlap it.
+ *
+ * An IntervalSet is not thread-safe; AppointmentCache guards it with its lock. */
+class IntervalSet {
+
+    private static final Comparator<Appointment> byStart = Comparator.comparing(Appointment::getStartTime)
+            .thenComparingInt(Appointment::getAppointmentId).thenComparingInt(Appointment::getSeriesId);
+
+    private final TreeSet<Appointment> intervals = new TreeSet<>(byStart);
+    private final TreeMap<Long, Integer> lengths = new TreeMap<>();
+
+    /**
+     * Adds an appointment. It must not already be held.
+     *
+     * @param appointment The appointment to add.
+     */
+    void add(Appointment appointment)
+    {
+        if (intervals.add(appointment)) {
+            lengths.merge(lengthOf(appointment), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Removes an appointment, compared by start time, Appointment_ID and series ID.
+     *
+     * @param appointment The appointment to remove.
+     */
+    void remove(Appointment appointment)
+    {
+        if (intervals.remove(appointment)) {
+            lengths.computeIfPresent(lengthOf(appointment), (length, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    /**
+     * Checks whether the set holds no appointments.
+     *
+     * @return `true` if the set is empty.
+     */
+    boolean isEmpty()
+    {
+        return intervals.isEmpty();
+    }
+
+    /**
+     * Finds every appointment overlapping a time range.
+     *
+     * @param start The start of the range, inclusive.
+     * @param end The end of the range, exclusive.
+     * @param excludeAppointmentId The ID of an appointment to leave out, such as the one being updated, or 0 to leave
+     *                             out none. Series occurrences, whose ID is 0, are never left out.
+     * @return The overlapping appointments in start time order.
+     */
+    List<Appointment> overlapping(LocalDateTime start, LocalDateTime end, int excludeAppointmentId)
+    {
+        List<Appointment> conflicts = new ArrayList<>();
+        if (intervals.isEmpty() || !start.isBefore(end)) {
+            return conflicts;
+        }
+        Appointment low = new Appointment(Integer.MIN_VALUE, start.minusSeconds(lengths.lastKey()), null);
+        Appointment high = new Appointment(Integer.MIN_VALUE, end, null);
+        for (Appointment appointment : intervals.subSet(low, true, high, false)) {
+            if (appointment.getEndTime().isAfter(start) && (excludeAppointmentId == 0 || appointment.getAppointmentId() != excludeAppointmentId)) {
+                conflicts.add(appointment);
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Returns the length of an appointment in seconds.
+     *
+     * @param appointment The appointment.
+     * @return The time from its start to its end.
+     */
+    private static long lengthOf(Appointment appointment)
+    {
+        return Math.max(0, Duration.between(appointment.getStartTime(), appointment.getEndTime()).getSeconds());
+    }
+}
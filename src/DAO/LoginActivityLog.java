@@ -0,0 +1,194 @@
+package DAO;
+
+import DataBase.DataLists;
+import model.LoginAttempt;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * The Abstract Class for LoginActivityLog. This records login attempts in the LoginActivityStore without making the
+ * login screen wait for the disk. Attempts are put on a lock-free queue and written by a single background thread,
+ * which takes everything queued since its last write and appends it as one group with one system call, then forces it
+ * to disk as the DurabilityPolicy says. A burst of attempts therefore costs one write and at most one sync per group
+ * instead of an open, append, close and sync each. If the queue is full, attempts are dropped and counted rather than
+ * blocking the caller. */
+public abstract class LoginActivityLog {
+
+    private static final int maxQueuedAttempts = 100_000;
+    private static final int maxGroupSize = 1_000;
+    private static final long syncIntervalMillis = 1_000;
+    private static final long closeTimeoutMillis = 5_000;
+
+    private static final ConcurrentLinkedQueue<LoginAttempt> queue = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger queued = new AtomicInteger();
+    private static final LongAdder dropped = new LongAdder();
+    private static volatile DurabilityPolicy durabilityPolicy = DurabilityPolicy.EVERY_GROUP;
+    private static volatile Thread writer;
+    private static volatile boolean closing;
+
+    private static boolean unsynced;
+    private static long lastSyncNanos;
+
+    /**
+     * Queues a login attempt to be written to the store. Never blocks; the writer thread is started on first use.
+     *
+     * @param attempt The login attempt.
+     * @return `true` if the attempt was queued, `false` if the queue was full or the log is closed and it was dropped.
+     */
+    public static boolean record(LoginAttempt attempt) {
+        Thread current = writer;
+        if (current == null) {
+            current = start();
+        }
+        if (current == null || closing) {
+            dropped.increment();
+            return false;
+        }
+        if (queued.incrementAndGet() > maxQueuedAttempts) {
+            queued.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        queue.offer(attempt);
+        LockSupport.unpark(current);
+        return true;
+    }
+
+    /**
+     * Sets when written groups are forced to disk. Takes effect from the next group.
+     *
+     * @param policy The new policy.
+     */
+    public static void setDurabilityPolicy(DurabilityPolicy policy) {
+        durabilityPolicy = policy;
+    }
+
+    /**
+     * Returns the number of attempts dropped because the queue was full or the log was closed.
+     *
+     * @return The number of dropped attempts.
+     */
+    public static long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Writes every queued attempt, closes the store and stops the writer thread. Called when the application
+     * exits; attempts recorded afterwards are dropped.
+     */
+    public static synchronized void close() {
+        closing = true;
+        Thread current = writer;
+        if (current == null) {
+            return;
+        }
+        LockSupport.unpark(current);
+        try {
+            current.join(closeTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Formats a login attempt as a line of login_activity.txt, as written by LoginActivityStore.exportText.
+     *
+     * @param attempt The login attempt.
+     * @return The line, without a line separator.
+     */
+    public static String format(LoginAttempt attempt) {
+        return "Login by \"" + attempt.getUserName() + "\" was " + (attempt.isSuccessful() ? "login successful" : "login unsuccessful") +
+                " at " + DataLists.myFormattedDTF(attempt.getLocalTime()) + " " + attempt.getZoneId().toString();
+    }
+
+    /**
+     * Starts the writer thread unless it is running or the log has been closed.
+     *
+     * @return The writer thread, or null if the log is closed.
+     */
+    private static synchronized Thread start() {
+        if (writer == null && !closing) {
+            Thread thread = new Thread(LoginActivityLog::run, "login-activity");
+            thread.setDaemon(true);
+            writer = thread;
+            thread.start();
+        }
+        return closing ? null : writer;
+    }
+
+    /**
+     * The writer thread's loop. Writes groups until the log is closed and the queue is empty, waking when attempts are
+     * queued and, under the INTERVAL policy, when a sync is due.
+     */
+    private static void run() {
+        List<LoginAttempt> group = new ArrayList<>();
+        while (true) {
+            boolean stopping = closing;
+            LoginAttempt attempt;
+            while (group.size() < maxGroupSize && (attempt = queue.poll()) != null) {
+                group.add(attempt);
+            }
+            queued.addAndGet(-group.size());
+            if (!group.isEmpty()) {
+                write(group);
+                group.clear();
+                continue;
+            }
+            syncIfDue();
+            if (stopping) {
+                break;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis));
+        }
+        LoginActivityStore.close();
+    }
+
+    /**
+     * Appends one group of attempts to the LoginActivityStore and syncs it as the policy says. If the store cannot be
+     * written the group is reported and lost.
+     *
+     * @param group The attempts, in the order they were queued.
+     */
+    private static void write(List<LoginAttempt> group) {
+        try {
+            LoginActivityStore.append(group);
+            unsynced = true;
+            syncIfDue();
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+            dropped.add(group.size());
+        }
+    }
+
+    /**
+     * Forces written attempts to disk if the policy asks for it now.
+     */
+    private static void syncIfDue() {
+        if (!unsynced) {
+            return;
+        }
+        DurabilityPolicy policy = durabilityPolicy;
+        long now = System.nanoTime();
+        boolean due = policy == DurabilityPolicy.EVERY_GROUP
+                || (policy == DurabilityPolicy.INTERVAL && now - lastSyncNanos >= TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis));
+        if (!due) {
+            return;
+        }
+        try {
+            LoginActivityStore.force();
+            unsynced = false;
+            lastSyncNanos = now;
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+}
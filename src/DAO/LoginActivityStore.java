@@ -0,0 +1,553 @@
+package DAO;
+
+import DataBase.DataLists;
+import model.LoginAttempt;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * The Abstract Class for LoginActivityStore. This keeps the login history in the login_activity directory as a series
+ * of LoginSegments of fixed-size binary records, with usernames and time zones stored once each in two dictionary
+ * files and referred to by number. LoginActivityLog appends to the last segment from its writer thread, and a new
+ * segment is started once it holds maxSegmentRecords.
+ *
+ * Queries find the segments covering a time range from their first times, then seek within each through its sparse
+ * time index, or walk the user's postings when searching by user, so their cost follows the number of attempts
+ * returned rather than the length of the history. login_activity.txt is no longer written as attempts are made; the
+ * same lines are produced by exportText, run from Main with --export-login-activity, and getAttempts answers
+ * --query-login-activity. A login_activity.txt left by an older version is imported when the store is first created.
+ *
+ * Records are kept in time order: an attempt queued a few milliseconds behind a later one, by another thread, is
+ * stored at the later one's time. Readers and the writer thread are guarded by a read-write lock. */
+public abstract class LoginActivityStore {
+
+    private static final Path storeDirectory = Paths.get("login_activity");
+    private static final Path legacyFile = Paths.get("login_activity.txt");
+    private static final String segmentPrefix = "segment-";
+    private static final String segmentSuffix = ".bin";
+    private static final int maxSegmentRecords = 1 << 20;
+    private static final int exportChunkRecords = 4096;
+    private static final Pattern legacyLine = Pattern.compile("Login by \"(.*)\" was (login successful|login unsuccessful) at (\\S+ \\S+) (\\S+)");
+
+    private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private static final List<LoginSegment> segments = new ArrayList<>();
+    private static final Dictionary users = new Dictionary(storeDirectory.resolve("users.dict"));
+    private static final Dictionary zones = new Dictionary(storeDirectory.resolve("zones.dict"));
+    private static final Map<Integer, ZoneId> zoneIds = new ConcurrentHashMap<>();
+    private static boolean opened = false;
+    private static long lastTime = Long.MIN_VALUE;
+
+    /**
+     * Returns every login attempt made in a time range.
+     *
+     * @param from The start of the range, inclusive.
+     * @param to The end of the range, exclusive.
+     * @return The attempts in time order.
+     * @throws IOException If the store cannot be opened.
+     */
+    public static List<LoginAttempt> getAttempts(Instant from, Instant to) throws IOException {
+        return getAttempts(null, null, from, to);
+    }
+
+    /**
+     * Returns the login attempts made in a time range, by one user or with one outcome, such as every failed login of
+     * a user last month.
+     *
+     * @param userName The username to match, or null for any.
+     * @param successful `true` for successful logins, `false` for failed ones, or null for both.
+     * @param from The start of the range, inclusive.
+     * @param to The end of the range, exclusive.
+     * @return The matching attempts in time order.
+     * @throws IOException If the store cannot be opened.
+     */
+    public static List<LoginAttempt> getAttempts(String userName, Boolean successful, Instant from, Instant to) throws IOException {
+        open();
+        List<LoginAttempt> attempts = new ArrayList<>();
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        lock.readLock().lock();
+        try {
+            int userIndex = userName == null ? -1 : users.indexOf(userName);
+            if (userName != null && userIndex < 0) {
+                return attempts;
+            }
+            for (int s = firstSegment(fromMillis); s < segments.size() && segments.get(s).getFirstTime() < toMillis; s++) {
+                LoginSegment segment = segments.get(s);
+                ByteBuffer view = segment.view();
+                if (userName == null) {
+                    for (int i = segment.firstAtOrAfter(fromMillis); i < segment.getRecordCount(); i++) {
+                        if (LoginSegment.getTime(view, i) >= toMillis) {
+                            break;
+                        }
+                        addIfMatches(attempts, view, i, successful);
+                    }
+                } else {
+                    int[] postings = segment.getPostings(userIndex);
+                    int count = segment.getPostingCount(userIndex);
+                    for (int p = firstPosting(view, postings, count, fromMillis); p < count; p++) {
+                        if (LoginSegment.getTime(view, postings[p]) >= toMillis) {
+                            break;
+                        }
+                        addIfMatches(attempts, view, postings[p], successful);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return attempts;
+    }
+
+    /**
+     * Writes the whole login history to a text file, one line per attempt in the format login_activity.txt used. The
+     * history is written segment by segment, exportChunkRecords at a time, so memory use does not grow with its length,
+     * and the lock is held only while a chunk is decoded. Attempts recorded after the export starts are not written.
+     *
+     * @param file The file to write, replaced if it exists.
+     * @return The number of attempts written.
+     * @throws IOException If the store cannot be opened or the file cannot be written.
+     */
+    public static long exportText(Path file) throws IOException {
+        open();
+        List<LoginSegment> exported;
+        int[] counts;
+        lock.readLock().lock();
+        try {
+            exported = new ArrayList<>(segments);
+            counts = new int[exported.size()];
+            for (int s = 0; s < counts.length; s++) {
+                counts[s] = exported.get(s).getRecordCount();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        long written = 0;
+        List<LoginAttempt> chunk = new ArrayList<>(exportChunkRecords);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int s = 0; s < counts.length; s++) {
+                ByteBuffer view = exported.get(s).view();
+                for (int first = 0; first < counts[s]; first += exportChunkRecords) {
+                    chunk.clear();
+                    lock.readLock().lock();
+                    try {
+                        for (int i = first; i < Math.min(counts[s], first + exportChunkRecords); i++) {
+                            addIfMatches(chunk, view, i, null);
+                        }
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                    for (LoginAttempt attempt : chunk) {
+                        writer.write(LoginActivityLog.format(attempt));
+                        writer.newLine();
+                    }
+                    written += chunk.size();
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Appends a group of attempts to the store, adding new usernames and time zones to the dictionaries first.
+     * Called by the LoginActivityLog writer thread.
+     *
+     * @param group The attempts, in the order they were queued.
+     * @throws IOException If the store cannot be opened or written.
+     */
+    static void append(List<LoginAttempt> group) throws IOException {
+        open();
+        lock.writeLock().lock();
+        try {
+            List<LoginAttempt> sorted = new ArrayList<>(group);
+            sorted.sort(Comparator.comparing(LoginAttempt::getAttemptTime));
+            int written = 0;
+            while (written < sorted.size()) {
+                LoginSegment active = activeSegment();
+                int count = Math.min(sorted.size() - written, maxSegmentRecords - active.getRecordCount());
+                ByteBuffer records = ByteBuffer.allocate(count * LoginSegment.recordBytes);
+                for (LoginAttempt attempt : sorted.subList(written, written + count)) {
+                    lastTime = Math.max(lastTime, attempt.getAttemptTime().toEpochMilli());
+                    LoginSegment.encode(records, lastTime, users.add(attempt.getUserName()),
+                            zones.add(attempt.getZoneId().getId()), attempt.isSuccessful());
+                }
+                records.flip();
+                users.flush();
+                zones.flush();
+                active.append(records);
+                written += count;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forces the dictionaries and the last segment to disk, dictionaries first so no record outlives its names.
+     *
+     * @throws IOException If the files cannot be synced.
+     */
+    static void force() throws IOException {
+        lock.writeLock().lock();
+        try {
+            users.force();
+            zones.force();
+            if (!segments.isEmpty()) {
+                segments.get(segments.size() - 1).force();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forces and closes the store's files. Mapped segments stay readable until the store is opened again.
+     */
+    static void close() {
+        lock.writeLock().lock();
+        try {
+            users.close();
+            zones.close();
+            if (!segments.isEmpty()) {
+                segments.get(segments.size() - 1).seal();
+            }
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        } finally {
+            segments.clear();
+            opened = false;
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Opens the store unless it is open: reads the dictionaries, maps the segments and opens the last one for
+     * appending. A new store imports the legacy login_activity.txt if there is one.
+     *
+     * @throws IOException If the store cannot be read.
+     */
+    private static void open() throws IOException {
+        lock.readLock().lock();
+        try {
+            if (opened) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            if (opened) {
+                return;
+            }
+            Files.createDirectories(storeDirectory);
+            users.load();
+            zones.load();
+            zoneIds.clear();
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(storeDirectory, segmentPrefix + "*" + segmentSuffix)) {
+                stream.forEach(files::add);
+            }
+            files.sort(Comparator.naturalOrder());
+            for (int i = 0; i < files.size(); i++) {
+                LoginSegment segment = new LoginSegment(files.get(i), i == files.size() - 1);
+                if (segment.getRecordCount() > 0) {
+                    lastTime = Math.max(lastTime, LoginSegment.getTime(segment.view(), segment.getRecordCount() - 1));
+                }
+                segments.add(segment);
+            }
+            opened = true;
+            if (files.isEmpty() && Files.exists(legacyFile)) {
+                importLegacy();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the segment being appended to, starting a new one if there is none or the last one is full. Must be
+     * called holding the write lock.
+     *
+     * @return The last segment.
+     * @throws IOException If a new segment cannot be created.
+     */
+    private static LoginSegment activeSegment() throws IOException {
+        LoginSegment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (last != null && last.getRecordCount() < maxSegmentRecords) {
+            return last;
+        }
+        if (last != null) {
+            last.seal();
+        }
+        String name = String.format("%s%06d%s", segmentPrefix, segments.size() + 1, segmentSuffix);
+        LoginSegment segment = new LoginSegment(storeDirectory.resolve(name), true);
+        segments.add(segment);
+        return segment;
+    }
+
+    /**
+     * Finds the first segment that can hold attempts at or after a time. Must be called holding the lock.
+     *
+     * @param time The time in epoch milliseconds.
+     * @return The index of the last segment starting at or before the time, or 0.
+     */
+    private static int firstSegment(long time) {
+        int low = 0;
+        int high = segments.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            LoginSegment segment = segments.get(mid);
+            if (segment.getRecordCount() > 0 && segment.getFirstTime() <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return Math.max(0, low - 1);
+    }
+
+    /**
+     * Finds the first of a user's records in a segment at or after a time, by binary search of the postings.
+     *
+     * @param view The segment's view.
+     * @param postings The user's record positions in the segment.
+     * @param count The number of positions.
+     * @param time The time in epoch milliseconds.
+     * @return The index in the postings, or count if every record is earlier.
+     */
+    private static int firstPosting(ByteBuffer view, int[] postings, int count, long time) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (LoginSegment.getTime(view, postings[mid]) < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Decodes one record into a LoginAttempt and adds it to a list, if it has the wanted outcome.
+     *
+     * @param attempts The list to add to.
+     * @param view The segment's view.
+     * @param index The record's position.
+     * @param successful The outcome to match, or null for both.
+     */
+    private static void addIfMatches(List<LoginAttempt> attempts, ByteBuffer view, int index, Boolean successful) {
+        boolean recordSuccessful = LoginSegment.isSuccessful(view, index);
+        if (successful == null || successful == recordSuccessful) {
+            ZoneId zone = zoneIds.computeIfAbsent(LoginSegment.getZone(view, index), zoneIndex -> ZoneId.of(zones.get(zoneIndex)));
+            attempts.add(new LoginAttempt(users.get(LoginSegment.getUser(view, index)), recordSuccessful,
+                    Instant.ofEpochMilli(LoginSegment.getTime(view, index)), zone));
+        }
+    }
+
+    /**
+     * Imports the lines of the legacy login_activity.txt into a new store. Lines that cannot be read are skipped.
+     * Must be called holding the write lock.
+     *
+     * @throws IOException If the file cannot be read or the store written.
+     */
+    private static void importLegacy() throws IOException {
+        List<LoginAttempt> attempts = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(legacyFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = legacyLine.matcher(line);
+                if (!matcher.matches()) {
+                    continue;
+                }
+                try {
+                    ZoneId zone = ZoneId.of(matcher.group(4));
+                    Instant time = LocalDateTime.parse(matcher.group(3), DataLists.dateTimeFormat).atZone(zone).toInstant();
+                    attempts.add(new LoginAttempt(matcher.group(1), matcher.group(2).equals("login successful"), time, zone));
+                } catch (DateTimeException e) {
+                    System.out.println("Error: " + e.getMessage());
+                }
+            }
+        }
+        if (!attempts.isEmpty()) {
+            append(attempts);
+            force();
+            System.out.println("Imported " + attempts.size() + " login attempts from " + legacyFile);
+        }
+    }
+
+    /**
+     * An append-only list of strings stored in a file, each numbered by its position, used for the usernames and time
+     * zones of the records. Must be used holding the store's lock.
+     */
+    private static final class Dictionary {
+
+        private final Path file;
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        private FileChannel channel;
+
+        /**
+         * Constructs a Dictionary.
+         *
+         * @param file The file holding the strings.
+         */
+        Dictionary(Path file)
+        {
+            this.file = file;
+        }
+
+        /**
+         * Reads the strings from the file and opens it for appending. A partly written string at the end of the file
+         * is cut off.
+         *
+         * @throws IOException If the file cannot be read.
+         */
+        void load() throws IOException
+        {
+            values.clear();
+            indexes.clear();
+            long valid = 0;
+            if (Files.exists(file)) {
+                try (InputStream in = Files.newInputStream(file); DataInputStream data = new DataInputStream(in)) {
+                    while (true) {
+                        int length = data.readUnsignedShort();
+                        byte[] bytes = new byte[length];
+                        data.readFully(bytes);
+                        String value = new String(bytes, StandardCharsets.UTF_8);
+                        indexes.put(value, values.size());
+                        values.add(value);
+                        valid += 2 + length;
+                    }
+                } catch (EOFException e) {
+                    //End of the file, or of its last complete string
+                }
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.truncate(valid);
+            channel.position(valid);
+        }
+
+        /**
+         * Returns the number of a string, adding it to the end of the dictionary if it is new. Added strings are
+         * written by flush.
+         *
+         * @param value The string.
+         * @return Its number.
+         * @throws IOException If the string is too long to store.
+         */
+        int add(String value) throws IOException
+        {
+            Integer index = indexes.get(value);
+            if (index != null) {
+                return index;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IOException("Login activity value is too long to store.");
+            }
+            new DataOutputStream(pending).writeShort(bytes.length);
+            pending.write(bytes);
+            indexes.put(value, values.size());
+            values.add(value);
+            return values.size() - 1;
+        }
+
+        /**
+         * Returns the number of a string.
+         *
+         * @param value The string.
+         * @return Its number, or -1 if it is not in the dictionary.
+         */
+        int indexOf(String value)
+        {
+            return indexes.getOrDefault(value, -1);
+        }
+
+        /**
+         * Returns the string with a number.
+         *
+         * @param index The number.
+         * @return The string, or a placeholder if the record outlived its dictionary entry in a crash.
+         */
+        String get(int index)
+        {
+            return index >= 0 && index < values.size() ? values.get(index) : "#" + index;
+        }
+
+        /**
+         * Writes the strings added since the last flush.
+         *
+         * @throws IOException If the file cannot be written.
+         */
+        void flush() throws IOException
+        {
+            if (pending.size() > 0) {
+                ByteBuffer bytes = ByteBuffer.wrap(pending.toByteArray());
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                pending.reset();
+            }
+        }
+
+        /**
+         * Forces the file to disk.
+         *
+         * @throws IOException If the file cannot be synced.
+         */
+        void force() throws IOException
+        {
+            if (channel != null) {
+                channel.force(false);
+            }
+        }
+
+        /**
+         * Forces and closes the file.
+         *
+         * @throws IOException If the file cannot be synced or closed.
+         */
+        void close() throws IOException
+        {
+            if (channel != null) {
+                flush();
+                channel.force(false);
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package DAO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the LoginSegment class. A segment is one file of the LoginActivityStore: a 16-byte header followed by
+ * fixed-size 16-byte records in time order, each holding the attempt time in epoch milliseconds, the user's and time
+ * zone's numbers in the store's dictionaries, and whether the login succeeded. Fixed-size records let any record be
+ * found by arithmetic, so the segment is read through a memory mapping rather than parsed.
+ *
+ * Every indexStride-th record's time is kept in memory as a sparse time index, so a time is found by a binary search
+ * of that array and a scan of at most indexStride records. The positions of each user's records are built into
+ * postings the first time the segment is searched by user, and extended as records are appended. Only the last
+ * segment of the store is appended to; LoginActivityStore guards it with its lock. */
+class LoginSegment {
+
+    static final int headerBytes = 16;
+    static final int recordBytes = 16;
+    private static final int magic = 0x4C4F4741;
+    private static final int formatVersion = 1;
+    private static final int indexStride = 128;
+
+    private final Path path;
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private int mappedCount;
+    private int recordCount;
+    private long[] sparseTimes = new long[16];
+    private Map<Integer, int[]> postings;
+    private Map<Integer, Integer> postingCounts;
+    private int postedCount;
+
+    /**
+     * Opens a segment file, creating it if it does not exist. A partly written record at the end of the file, left by
+     * a crash during a write, is cut off.
+     *
+     * @param path The segment file.
+     * @param writable `true` to open the segment for appending.
+     * @throws IOException If the file cannot be opened or is not a segment.
+     */
+    LoginSegment(Path path, boolean writable) throws IOException
+    {
+        this.path = path;
+        channel = writable
+                ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        if (size < headerBytes) {
+            if (!writable) {
+                throw new IOException("Login segment " + path + " has no header.");
+            }
+            ByteBuffer header = ByteBuffer.allocate(headerBytes).putInt(magic).putInt(formatVersion);
+            header.rewind();
+            channel.write(header, 0);
+            size = headerBytes;
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(8);
+            channel.read(header, 0);
+            if (header.getInt(0) != magic || header.getInt(4) != formatVersion) {
+                throw new IOException("Login segment " + path + " is not in a known format.");
+            }
+        }
+        recordCount = (int) ((size - headerBytes) / recordBytes);
+        if (writable && size != headerBytes + (long) recordCount * recordBytes) {
+            channel.truncate(headerBytes + (long) recordCount * recordBytes);
+        }
+        remap();
+        for (int i = 0; i < recordCount; i += indexStride) {
+            addSparseTime(i, getTime(map, i));
+        }
+        if (!writable) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Appends records to the segment. The records must not be earlier than the last one already in it.
+     *
+     * @param records The encoded records, from position to limit.
+     * @throws IOException If the records cannot be written.
+     */
+    synchronized void append(ByteBuffer records) throws IOException
+    {
+        int count = records.remaining() / recordBytes;
+        int first = recordCount;
+        long position = headerBytes + (long) recordCount * recordBytes;
+        ByteBuffer times = records.duplicate();
+        while (records.hasRemaining()) {
+            position += channel.write(records, position);
+        }
+        recordCount += count;
+        for (int i = first; i < recordCount; i++) {
+            if (i % indexStride == 0) {
+                addSparseTime(i, times.getLong(times.position() + (i - first) * recordBytes));
+            }
+        }
+    }
+
+    /**
+     * Forces the appended records to disk.
+     *
+     * @throws IOException If the file cannot be synced.
+     */
+    synchronized void force() throws IOException
+    {
+        if (channel != null) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Stops appending to the segment, forcing it to disk and closing its file channel. The mapping stays readable.
+     *
+     * @throws IOException If the file cannot be synced or closed.
+     */
+    synchronized void seal() throws IOException
+    {
+        if (channel != null) {
+            remap();
+            channel.force(false);
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Returns the index of the first record at or after a time.
+     *
+     * @param time The time in epoch milliseconds.
+     * @return The index, or recordCount if every record is earlier.
+     */
+    synchronized int firstAtOrAfter(long time)
+    {
+        ensureMapped();
+        int blocks = (recordCount + indexStride - 1) / indexStride;
+        int low = 0;
+        int high = blocks;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sparseTimes[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int index = Math.max(0, low - 1) * indexStride;
+        int end = Math.min(recordCount, low * indexStride);
+        while (index < end && getTime(map, index) < time) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the positions of one user's records, in time order.
+     *
+     * @param userIndex The user's number in the store's dictionary.
+     * @return An array whose first count entries are the positions; see getPostingCount.
+     */
+    synchronized int[] getPostings(int userIndex)
+    {
+        ensurePostings();
+        int[] userPostings = postings.get(userIndex);
+        return userPostings == null ? new int[0] : userPostings;
+    }
+
+    /**
+     * Returns how many positions of one user's records are held by getPostings.
+     *
+     * @param userIndex The user's number in the store's dictionary.
+     * @return The number of the user's records in the segment.
+     */
+    synchronized int getPostingCount(int userIndex)
+    {
+        ensurePostings();
+        return postingCounts.getOrDefault(userIndex, 0);
+    }
+
+    /** Returns the number of records.
+     *  @return The record count. */
+    synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /** Returns the segment file.
+     *  @return The path. */
+    Path getPath() {
+        return path;
+    }
+
+    /** Returns the time of the first record; the segment must not be empty.
+     *  @return The time in epoch milliseconds. */
+    long getFirstTime() {
+        return sparseTimes[0];
+    }
+
+    /**
+     * Returns a read-only view of the records, mapping any appended since the last view. The view stays valid after
+     * later appends, covering the records there were when it was taken, and can be read without holding any lock.
+     *
+     * @return The mapped segment, header included.
+     */
+    synchronized ByteBuffer view()
+    {
+        ensureMapped();
+        return map.duplicate();
+    }
+
+    /** Returns the time of a record.
+     *  @param view The segment's view.
+     *  @param index The record's position.
+     *  @return The time in epoch milliseconds. */
+    static long getTime(ByteBuffer view, int index) {
+        return view.getLong(headerBytes + index * recordBytes);
+    }
+
+    /** Returns the user number of a record.
+     *  @param view The segment's view.
+     *  @param index The record's position.
+     *  @return The user's number in the store's dictionary. */
+    static int getUser(ByteBuffer view, int index) {
+        return view.getInt(headerBytes + index * recordBytes + 8);
+    }
+
+    /** Returns the time zone number of a record.
+     *  @param view The segment's view.
+     *  @param index The record's position.
+     *  @return The zone's number in the store's dictionary. */
+    static int getZone(ByteBuffer view, int index) {
+        return view.getShort(headerBytes + index * recordBytes + 12);
+    }
+
+    /** Returns whether the login of a record succeeded.
+     *  @param view The segment's view.
+     *  @param index The record's position.
+     *  @return `true` for a successful login. */
+    static boolean isSuccessful(ByteBuffer view, int index) {
+        return view.get(headerBytes + index * recordBytes + 14) != 0;
+    }
+
+    /**
+     * Encodes one record into a buffer.
+     *
+     * @param buffer The buffer to write to.
+     * @param time The attempt time in epoch milliseconds.
+     * @param userIndex The user's number in the store's dictionary.
+     * @param zoneIndex The zone's number in the store's dictionary.
+     * @param successful Whether the login succeeded.
+     */
+    static void encode(ByteBuffer buffer, long time, int userIndex, int zoneIndex, boolean successful)
+    {
+        buffer.putLong(time).putInt(userIndex).putShort((short) zoneIndex).put((byte) (successful ? 1 : 0)).put((byte) 0);
+    }
+
+    /**
+     * Maps the records again if some were appended since the last mapping.
+     */
+    private void ensureMapped()
+    {
+        if (mappedCount != recordCount) {
+            try {
+                remap();
+            } catch (IOException e) {
+                throw new IllegalStateException("Login segment " + path + " cannot be read.", e);
+            }
+        }
+    }
+
+    /**
+     * Maps every record of the segment read-only.
+     *
+     * @throws IOException If the file cannot be mapped.
+     */
+    private void remap() throws IOException
+    {
+        map = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerBytes + (long) recordCount * recordBytes);
+        mappedCount = recordCount;
+    }
+
+    /**
+     * Builds or extends the per-user postings to cover every record.
+     */
+    private void ensurePostings()
+    {
+        ensureMapped();
+        if (postings == null) {
+            postings = new HashMap<>();
+            postingCounts = new HashMap<>();
+        }
+        for (; postedCount < recordCount; postedCount++) {
+            int user = getUser(map, postedCount);
+            int count = postingCounts.getOrDefault(user, 0);
+            int[] userPostings = postings.get(user);
+            if (userPostings == null || userPostings.length == count) {
+                userPostings = userPostings == null ? new int[4] : Arrays.copyOf(userPostings, count * 2);
+                postings.put(user, userPostings);
+            }
+            userPostings[count] = postedCount;
+            postingCounts.put(user, count + 1);
+        }
+    }
+
+    /**
+     * Records the time of a record that starts a block of the sparse time index.
+     *
+     * @param index The record's position, a multiple of indexStride.
+     * @param time Its time in epoch milliseconds.
+     */
+    private void addSparseTime(int index, long time)
+    {
+        int block = index / indexStride;
+        if (block == sparseTimes.length) {
+            sparseTimes = Arrays.copyOf(sparseTimes, block * 2);
+        }
+        sparseTimes[block] = time;
+    }
+}
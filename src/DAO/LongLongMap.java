@@ -0,0 +1,161 @@
+package DAO;
+
+import java.util.Arrays;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the LongLongMap class. It maps long keys to long values in two primitive arrays with open addressing and
+ * linear probing, so an entry costs 16 bytes and no objects, where a HashMap would box both and allocate an entry.
+ * Keys must not be negative. A value of 0 is the same as no entry: getting a missing key returns 0 and putting 0
+ * removes the key. Removal shifts later entries of the probe run back, so no tombstones build up.
+ *
+ * A LongLongMap is not thread-safe. */
+class LongLongMap {
+
+    private static final long free = -1L;
+    private static final int initialCapacity = 16;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    /**
+     * Constructs an empty LongLongMap.
+     */
+    LongLongMap()
+    {
+        clear();
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key The key.
+     * @return The value, or 0 if the key is not present.
+     */
+    long get(long key)
+    {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); keys[i] != free; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Sets the value of a key, or removes the key if the value is 0.
+     *
+     * @param key The key, which must not be negative.
+     * @param value The value.
+     */
+    void put(long key, long value)
+    {
+        if (value == 0) {
+            remove(key);
+            return;
+        }
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != free) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 4 >= keys.length * 3) {
+            grow();
+        }
+    }
+
+    /**
+     * Returns the number of keys present.
+     *
+     * @return The number of entries.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Removes every entry and releases the arrays.
+     */
+    void clear()
+    {
+        keys = new long[initialCapacity];
+        Arrays.fill(keys, free);
+        values = new long[initialCapacity];
+        size = 0;
+    }
+
+    /**
+     * Removes a key, moving back the entries after it in its probe run so they can still be found.
+     *
+     * @param key The key.
+     */
+    private void remove(long key)
+    {
+        int mask = keys.length - 1;
+        int gap = slot(key, mask);
+        while (keys[gap] != key) {
+            if (keys[gap] == free) {
+                return;
+            }
+            gap = (gap + 1) & mask;
+        }
+        for (int j = (gap + 1) & mask; keys[j] != free; j = (j + 1) & mask) {
+            int home = slot(keys[j], mask);
+            boolean reachable = gap <= j ? (gap < home && home <= j) : (gap < home || home <= j);
+            if (!reachable) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = free;
+        values[gap] = 0;
+        size--;
+    }
+
+    /**
+     * Doubles the capacity and reinserts every entry.
+     */
+    private void grow()
+    {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        Arrays.fill(keys, free);
+        values = new long[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != free) {
+                int j = slot(oldKeys[i], mask);
+                while (keys[j] != free) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the home slot of a key, spreading the bits of keys that differ only in their high or low half.
+     *
+     * @param key The key.
+     * @param mask The table length minus one.
+     * @return The index the key's probe run starts at.
+     */
+    private static int slot(long key, int mask)
+    {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
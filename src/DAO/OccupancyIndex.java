@@ -0,0 +1,160 @@
+package DAO;
+
+import DataBase.DataLists;
+import model.Appointment;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the OccupancyIndex class. It records which slots of the half-hour grid of DataLists.getTimes each customer,
+ * contact and user is busy in, one 48-bit long per resource and day: bit i is set when an appointment overlaps the
+ * slot starting i * slotMinutes after midnight. The longs are held in a LongLongMap per kind of resource, keyed by the
+ * resource's ID in the high half and the epoch day in the low half, so a busy day costs 16 bytes where the
+ * Appointment objects behind it cost hundreds.
+ *
+ * Days and slots are in the user's time zone, like the time combo boxes. AppointmentCache keeps the index and guards
+ * it with its lock. */
+class OccupancyIndex {
+
+    static final int slotsPerDay = 24 * 60 / DataLists.slotMinutes;
+    static final long allSlots = -1L >>> (64 - slotsPerDay);
+
+    private final Map<OccupancyResource, LongLongMap> days = new EnumMap<>(OccupancyResource.class);
+
+    /**
+     * Constructs an empty OccupancyIndex.
+     */
+    OccupancyIndex()
+    {
+        for (OccupancyResource resource : OccupancyResource.values()) {
+            days.put(resource, new LongLongMap());
+        }
+    }
+
+    /**
+     * Returns the busy slots of a resource on a day.
+     *
+     * @param resource The kind of resource.
+     * @param id The ID of the resource.
+     * @param day The day.
+     * @return The bitmap of busy slots.
+     */
+    long get(OccupancyResource resource, int id, LocalDate day)
+    {
+        return days.get(resource).get(key(id, day));
+    }
+
+    /**
+     * Marks the slots of an appointment busy for its customer, contact and user.
+     *
+     * @param appointment The appointment.
+     */
+    void add(Appointment appointment)
+    {
+        mark(OccupancyResource.CUSTOMER, appointment.getCustomerId(), appointment);
+        mark(OccupancyResource.CONTACT, appointment.getContactId(), appointment);
+        mark(OccupancyResource.USER, appointment.getUserId(), appointment);
+    }
+
+    /**
+     * Rebuilds the days of a removed appointment for one resource from the appointments the resource still has, since
+     * a slot stays busy while another appointment overlaps it.
+     *
+     * @param resource The kind of resource.
+     * @param id The ID of the resource.
+     * @param removed The removed appointment.
+     * @param remaining The resource's remaining appointments, or null if it has none.
+     */
+    void refresh(OccupancyResource resource, int id, Appointment removed, IntervalSet remaining)
+    {
+        LongLongMap map = days.get(resource);
+        for (LocalDate day = removed.getStartTime().toLocalDate(); day.atStartOfDay().isBefore(removed.getEndTime()); day = day.plusDays(1)) {
+            long bits = 0;
+            if (remaining != null) {
+                List<Appointment> sameDay = remaining.overlapping(day.atStartOfDay(), day.plusDays(1).atStartOfDay(), 0);
+                for (Appointment appointment : sameDay) {
+                    bits |= slotMask(appointment.getStartTime(), appointment.getEndTime(), day);
+                }
+            }
+            map.put(key(id, day), bits);
+        }
+    }
+
+    /**
+     * Empties the index.
+     */
+    void clear()
+    {
+        for (LongLongMap map : days.values()) {
+            map.clear();
+        }
+    }
+
+    /**
+     * Returns the slots of a day that a time range overlaps.
+     *
+     * @param start The start of the range, inclusive.
+     * @param end The end of the range, exclusive.
+     * @param day The day.
+     * @return The bitmap of the slots overlapped, 0 if the range does not touch the day.
+     */
+    static long slotMask(LocalDateTime start, LocalDateTime end, LocalDate day)
+    {
+        LocalDateTime dayStart = day.atStartOfDay();
+        long from = Math.max(0, Duration.between(dayStart, start).toMinutes());
+        long to = Math.min(24 * 60, minutesCeil(Duration.between(dayStart, end)));
+        if (from >= to) {
+            return 0;
+        }
+        int first = (int) (from / DataLists.slotMinutes);
+        int last = (int) ((to + DataLists.slotMinutes - 1) / DataLists.slotMinutes);
+        return (allSlots >>> (slotsPerDay - (last - first))) << first;
+    }
+
+    /**
+     * Sets the bits of an appointment on every day it spans.
+     *
+     * @param resource The kind of resource.
+     * @param id The ID of the resource.
+     * @param appointment The appointment.
+     */
+    private void mark(OccupancyResource resource, int id, Appointment appointment)
+    {
+        LongLongMap map = days.get(resource);
+        for (LocalDate day = appointment.getStartTime().toLocalDate(); day.atStartOfDay().isBefore(appointment.getEndTime()); day = day.plusDays(1)) {
+            long key = key(id, day);
+            map.put(key, map.get(key) | slotMask(appointment.getStartTime(), appointment.getEndTime(), day));
+        }
+    }
+
+    /**
+     * Returns the number of whole minutes in a duration, rounding any remaining seconds up.
+     *
+     * @param duration The duration.
+     * @return The minutes, rounded up.
+     */
+    private static long minutesCeil(Duration duration)
+    {
+        long minutes = duration.toMinutes();
+        return duration.minusMinutes(minutes).isZero() || duration.isNegative() ? minutes : minutes + 1;
+    }
+
+    /**
+     * Packs a resource ID and a day into a map key.
+     *
+     * @param id The ID of the resource.
+     * @param day The day.
+     * @return The key.
+     */
+    private static long key(int id, LocalDate day)
+    {
+        return ((long) id << 32) | (day.toEpochDay() & 0xFFFFFFFFL);
+    }
+}
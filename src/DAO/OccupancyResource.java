@@ -0,0 +1,12 @@
+package DAO;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * The kinds of resource whose time SlotOccupancy tracks. Each resource is identified by the matching ID column of its
+ * appointments. */
+public enum OccupancyResource {
+    CUSTOMER,
+    CONTACT,
+    USER
+}
@@ -0,0 +1,67 @@
+package DAO;
+
+import model.Appointment;
+
+import java.sql.Timestamp;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * The columns appointments can be sorted and paged by. Every order is completed with Appointment_ID, so each row has
+ * a unique position and a page can continue from the last row of the one before it with keyset pagination. Each column
+ * has an index, created by SchemaMigrations, that InnoDB completes with the primary key, so a page is read in index
+ * order without sorting the table. The contact name lives in the joined contacts table and cannot be indexed with the
+ * appointments, so it is not offered. */
+public enum PageOrder {
+    APPOINTMENT_ID("appointments.Appointment_ID"),
+    TITLE("appointments.Title"),
+    DESCRIPTION("appointments.Description"),
+    LOCATION("appointments.Location"),
+    TYPE("appointments.Type"),
+    START("appointments.Start"),
+    END("appointments.End"),
+    CUSTOMER_ID("appointments.Customer_ID"),
+    USER_ID("appointments.User_ID");
+
+    private final String column;
+
+    /**
+     * Constructs a PageOrder for a column of the appointments query.
+     *
+     * @param column The qualified column name used in ORDER BY and keyset predicates.
+     */
+    PageOrder(String column)
+    {
+        this.column = column;
+    }
+
+    /**
+     * Returns the qualified column name this order sorts by.
+     *
+     * @return The column name.
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Returns the value of this order's column for an appointment, ready to bind as a query parameter.
+     *
+     * @param appointment The appointment.
+     * @return The sort key of the appointment.
+     */
+    Object keyOf(Appointment appointment)
+    {
+        switch (this) {
+            case TITLE: return appointment.getTitle();
+            case DESCRIPTION: return appointment.getDescription();
+            case LOCATION: return appointment.getLocation();
+            case TYPE: return appointment.getType();
+            case START: return Timestamp.valueOf(appointment.getStartTime());
+            case END: return Timestamp.valueOf(appointment.getEndTime());
+            case CUSTOMER_ID: return appointment.getCustomerId();
+            case USER_ID: return appointment.getUserId();
+            default: return appointment.getAppointmentId();
+        }
+    }
+}
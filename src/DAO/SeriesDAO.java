@@ -0,0 +1,342 @@
+package DAO;
+
+import DataBase.DataLists;
+import DataBase.QueryExecutor;
+import DataBase.RowMapper;
+import model.Appointment;
+import model.AppointmentSeries;
+import model.RecurrenceFrequency;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.LongPredicate;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * The Abstract Class for SeriesDAO. This handles database queries related to recurring appointment series. A series
+ * is stored as one row of the appointment_series table holding its first occurrence, its recurrence rule and its
+ * exception dates; occurrences are expanded in memory only for the window being shown or checked. The table is
+ * created by SchemaMigrations.
+ *
+ * Every write is passed on to the AppointmentCache, which keeps the definition of every series alongside the single
+ * appointments. The overlap checks, free slots and counts, the schedule views, reports and the login alert all read
+ * the definitions from there and build only the occurrences inside the range or page they show. */
+public abstract class SeriesDAO {
+
+    private static final String seriesSelectSql = "SELECT appointment_series.*, contacts.Contact_Name\n" +
+            "FROM appointment_series\n" +
+            "JOIN contacts ON appointment_series.Contact_ID = contacts.Contact_ID\n";
+    private static final String insertSql = "INSERT INTO appointment_series (Title, Description, Location, Type, Start, End, Frequency, Repeat_Interval, Occurrence_Count, Until, Exceptions, Customer_ID, User_ID, Contact_ID, Last_Update) VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW());";
+
+    /**
+     * Decodes a row of the series query joined with contacts into an AppointmentSeries.
+     */
+    private static final RowMapper<AppointmentSeries> seriesMapper = rs ->
+    {
+        AppointmentSeries series = new AppointmentSeries(rs.getInt("Series_ID"), rs.getString("Title"), rs.getString("Description"),
+                rs.getString("Location"), rs.getString("Type"), QueryExecutor.getLocalDateTime(rs, rs.findColumn("Start")),
+                QueryExecutor.getLocalDateTime(rs, rs.findColumn("End")), rs.getInt("Customer_ID"), rs.getInt("Contact_ID"),
+                rs.getInt("User_ID"), RecurrenceFrequency.valueOf(rs.getString("Frequency")), rs.getInt("Repeat_Interval"));
+        series.setContactName(rs.getString("Contact_Name"));
+        series.setCount(rs.getInt("Occurrence_Count"));
+        Date until = rs.getDate("Until");
+        series.setUntil(until == null ? null : until.toLocalDate());
+        String exceptions = rs.getString("Exceptions");
+        if (exceptions != null && !exceptions.isEmpty()) {
+            for (String date : exceptions.split(",")) {
+                series.getExceptions().add(LocalDate.parse(date));
+            }
+        }
+        return series;
+    };
+
+    /**
+     * Stores a new series, sets its series ID to the one generated by the database and adds it to the
+     * AppointmentCache.
+     *
+     * @param series The series to store. It must not be changed afterwards.
+     * @throws SQLException If there is an issue executing the INSERT statement in the database.
+     */
+    public static void insertSeries(AppointmentSeries series) throws SQLException {
+        long seriesId = QueryExecutor.insert(insertSql, series.getTitle(), series.getDescription(), series.getLocation(), series.getType(),
+                Timestamp.valueOf(series.getStartTime()), Timestamp.valueOf(series.getEndTime()), series.getFrequency().name(),
+                series.getInterval(), series.getCount(), series.getUntil() == null ? null : Date.valueOf(series.getUntil()),
+                formatExceptions(series), series.getCustomerId(), series.getUserId(), series.getContactId());
+        series.setSeriesId((int) seriesId);
+        AppointmentCache.putSeries(series);
+    }
+
+    /**
+     * Skips one occurrence of a series by adding its date to the series' exceptions.
+     *
+     * @param series The series, as read by getSeries(int) rather than from the AppointmentCache.
+     * @param date The date of the occurrence to skip.
+     * @throws SQLException If there is an issue executing the UPDATE statement in the database.
+     */
+    public static void addException(AppointmentSeries series, LocalDate date) throws SQLException {
+        series.getExceptions().add(date);
+        String sql = "UPDATE appointment_series SET Exceptions = ?, Last_Update = NOW() WHERE Series_ID = ?;";
+        QueryExecutor.update(sql, formatExceptions(series), series.getSeriesId());
+        AppointmentCache.putSeries(series);
+    }
+
+    /**
+     * Deletes a series, and with it every occurrence. A tombstone is written in the same transaction so DeltaSync
+     * removes the series from the AppointmentCache of other clients.
+     *
+     * @param seriesId The ID of the series.
+     * @throws SQLException If there is an issue executing the DELETE statement in the database.
+     */
+    public static void deleteSeries(int seriesId) throws SQLException {
+        String sql = "DELETE FROM appointment_series WHERE Series_ID = ?;";
+        QueryExecutor.transaction(connection -> {
+            QueryExecutor.update(connection, sql, seriesId);
+            DeltaSync.recordDeletion(connection, DeltaSync.seriesTable, seriesId);
+            return null;
+        });
+        AppointmentCache.removeSeries(seriesId);
+    }
+
+    /**
+     * Retrieves one series.
+     *
+     * @param seriesId The ID of the series.
+     * @return The series, or null if there is none with that ID.
+     * @throws SQLException If there is an issue executing the query in the database.
+     */
+    public static AppointmentSeries getSeries(int seriesId) throws SQLException {
+        return QueryExecutor.queryOne(seriesSelectSql + "WHERE appointment_series.Series_ID = ?;", seriesMapper, seriesId);
+    }
+
+    /**
+     * Retrieves every series from the database. Used by the AppointmentCache to load the series; everything else reads
+     * them from the cache.
+     *
+     * @return The series in Series_ID order.
+     * @throws SQLException If there is an issue executing the query in the database.
+     */
+    public static List<AppointmentSeries> getSeries() throws SQLException {
+        return QueryExecutor.query(seriesSelectSql + "ORDER BY Series_ID ASC;", seriesMapper);
+    }
+
+    /**
+     * Reads the series inserted or updated at or after a time, by their Last_Update column. Used by DeltaSync to keep
+     * the series in the AppointmentCache current.
+     *
+     * @param since The database time to read changes from.
+     * @return The changed series in Series_ID order.
+     * @throws SQLException If there is an issue executing the query in the database.
+     */
+    static List<AppointmentSeries> getSeriesChangedSince(Timestamp since) throws SQLException {
+        return QueryExecutor.query(seriesSelectSql + "WHERE appointment_series.Last_Update >= ? ORDER BY Series_ID ASC;", seriesMapper, since);
+    }
+
+    /**
+     * Expands the occurrences of every series that overlap a time window, such as the one of the login alert.
+     *
+     * @param from The start of the window, inclusive.
+     * @param to   The end of the window, exclusive.
+     * @return The occurrences in start time order.
+     */
+    public static List<Appointment> getOccurrences(LocalDateTime from, LocalDateTime to) {
+        List<Appointment> occurrences = new ArrayList<>();
+        for (AppointmentSeries series : AppointmentCache.getSeries()) {
+            occurrences.addAll(series.getOccurrences(from, to));
+        }
+        occurrences.sort((a, b) -> a.getStartTime().compareTo(b.getStartTime()));
+        return occurrences;
+    }
+
+    /**
+     * Expands every occurrence of the series that passes a filter, such as the one of a report or an export.
+     *
+     * @param filter The filter whose conditions the occurrences must meet.
+     * @return The matching occurrences, in the filter's order.
+     */
+    public static List<Appointment> getOccurrences(AppointmentFilter filter) {
+        return getOccurrences(filter, null, false, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Expands the occurrences that pass a filter and fall on one page of it, next to a boundary in the filter's order.
+     * For every sort order the occurrences of one series are ordered as their start times are, or the reverse, so the
+     * ones inside the filter's date range and on the right side of the boundary are a run of occurrence numbers found
+     * by binary search. At most limit occurrences of each series are built, starting from the boundary, so a page
+     * costs the same however many occurrences the series have.
+     *
+     * @param filter   The filter whose conditions the occurrences must meet.
+     * @param boundary The appointment the page follows or precedes, or null for the start of the filter's order.
+     * @param before   `true` for the occurrences preceding the boundary, `false` for those following it.
+     * @param limit    The largest number of occurrences to return.
+     * @return Up to limit occurrences next to the boundary, in the filter's order.
+     */
+    public static List<Appointment> getOccurrences(AppointmentFilter filter, Appointment boundary, boolean before, int limit) {
+        Comparator<Appointment> order = filter.comparator();
+        //The occurrences on the boundary's side have the highest numbers when the page runs forward in time
+        boolean forward = filter.isDescending() == before;
+        List<Appointment> occurrences = new ArrayList<>();
+        for (AppointmentSeries series : AppointmentCache.getSeries()) {
+            long first = 0;
+            long last = series.getLastIndex();
+            if (filter.getFrom() != null) {
+                first = firstIndex(first, last, index -> !series.getOccurrenceStart(index).isBefore(filter.getFrom()));
+            }
+            if (filter.getTo() != null) {
+                last = firstIndex(first, last, index -> !series.getOccurrenceStart(index).isBefore(filter.getTo())) - 1;
+            }
+            if (first > last || !filter.matches(series.getOccurrence(first))) {
+                continue;
+            }
+            if (boundary != null && forward) {
+                first = firstIndex(first, last, index -> before
+                        ? order.compare(series.getOccurrence(index), boundary) < 0
+                        : order.compare(series.getOccurrence(index), boundary) > 0);
+            } else if (boundary != null) {
+                last = firstIndex(first, last, index -> before
+                        ? order.compare(series.getOccurrence(index), boundary) >= 0
+                        : order.compare(series.getOccurrence(index), boundary) <= 0) - 1;
+            }
+            int built = 0;
+            for (long index = forward ? first : last; index >= first && index <= last && built < limit; index += forward ? 1 : -1) {
+                if (!series.isSkipped(index)) {
+                    occurrences.add(series.getOccurrence(index));
+                    built++;
+                }
+            }
+        }
+        occurrences.sort(order);
+        if (occurrences.size() <= limit) {
+            return occurrences;
+        }
+        return new ArrayList<>(before ? occurrences.subList(occurrences.size() - limit, occurrences.size()) : occurrences.subList(0, limit));
+    }
+
+    /**
+     * Finds the occurrences of the given customers' series that overlap a time range. Used by bulk validation alongside
+     * AppointmentDAO.getCustomerIntervals, reading every customer's series with one query.
+     *
+     * @param customerIds The IDs of the customers.
+     * @param start       The start of the range, inclusive.
+     * @param end         The end of the range, exclusive.
+     * @return The overlapping occurrences.
+     * @throws SQLException If there is an issue executing the query in the database.
+     */
+    static List<Appointment> getCustomerOccurrences(Collection<Integer> customerIds, LocalDateTime start, LocalDateTime end) throws SQLException {
+        List<Appointment> occurrences = new ArrayList<>();
+        if (customerIds.isEmpty()) {
+            return occurrences;
+        }
+        StringBuilder sql = new StringBuilder(seriesSelectSql).append("WHERE appointment_series.Start < ? AND appointment_series.Customer_ID IN (");
+        List<Object> params = new ArrayList<>();
+        params.add(Timestamp.valueOf(end));
+        for (int customerId : customerIds) {
+            sql.append(params.size() == 1 ? "?" : ", ?");
+            params.add(customerId);
+        }
+        sql.append(");");
+        for (AppointmentSeries series : QueryExecutor.query(sql.toString(), seriesMapper, params.toArray())) {
+            occurrences.addAll(series.getOccurrences(start, end));
+        }
+        return occurrences;
+    }
+
+    /**
+     * Checks every occurrence of a new series in one pass before it is stored. Each occurrence must fall within the
+     * office hours of DataLists.checkTimeRange, must not overlap the customer's appointments or the occurrences of the
+     * customer's other series, and must not overlap another occurrence of the same series, as a daily series longer
+     * than a day would. The appointments and other series are both checked against the AppointmentCache, and the
+     * series' own occurrences against an IntervalSet built as they are checked, so the cost does not grow with a query
+     * per occurrence.
+     *
+     * @param series The series to check.
+     * @return One message per problem found, in occurrence order; empty if the series can be stored.
+     * @throws SQLException If the appointments or series cannot be read.
+     */
+    public static List<String> validateSeries(AppointmentSeries series) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        if (!series.isBounded()) {
+            problems.add("A series needs an end date or a number of occurrences.");
+            return problems;
+        }
+        List<Appointment> occurrences = series.getAllOccurrences();
+        if (occurrences.isEmpty()) {
+            problems.add("The series has no occurrences.");
+            return problems;
+        }
+        IntervalSet ownOccurrences = new IntervalSet();
+        for (Appointment occurrence : occurrences) {
+            LocalDateTime start = occurrence.getStartTime();
+            LocalDateTime end = occurrence.getEndTime();
+            String when = DataLists.myFormattedDTF(start) + ": ";
+            boolean overlapsAppointment = false;
+            boolean overlapsSeries = false;
+            for (Appointment conflict : AppointmentCache.getConflicts(series.getCustomerId(), start, end, 0)) {
+                if (conflict.getSeriesId() == 0) {
+                    overlapsAppointment = true;
+                } else if (conflict.getSeriesId() != series.getSeriesId()) {
+                    overlapsSeries = true;
+                }
+            }
+            if (!DataLists.checkTimeRange(start, end)) {
+                problems.add(when + "Time must be between 8:00AM - 10:00PM ET");
+            } else if (overlapsAppointment) {
+                problems.add(when + "Overlaps an appointment for Customer_ID: " + series.getCustomerId() + ".");
+            } else if (overlapsSeries) {
+                problems.add(when + "Overlaps another series for Customer_ID: " + series.getCustomerId() + ".");
+            } else if (!ownOccurrences.overlapping(start, end, 0).isEmpty()) {
+                problems.add(when + "Overlaps an earlier occurrence of this series.");
+            }
+            ownOccurrences.add(occurrence);
+        }
+        return problems;
+    }
+
+    /**
+     * Finds the first occurrence number in a range for which a test holds, given that it fails for every number
+     * before that one and holds for every number after it.
+     *
+     * @param first The first number of the range.
+     * @param last  The last number of the range.
+     * @param test  The test.
+     * @return The first number passing the test, or last + 1 if none does.
+     */
+    private static long firstIndex(long first, long last, LongPredicate test) {
+        long low = first;
+        long high = last + 1;
+        while (low < high) {
+            long middle = low + (high - low) / 2;
+            if (test.test(middle)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Joins the exception dates of a series into the comma-separated form stored in the Exceptions column.
+     *
+     * @param series The series.
+     * @return The dates in ISO format, or null if there are none.
+     */
+    private static String formatExceptions(AppointmentSeries series) {
+        if (series.getExceptions().isEmpty()) {
+            return null;
+        }
+        StringJoiner exceptions = new StringJoiner(",");
+        for (LocalDate date : series.getExceptions()) {
+            exceptions.add(date.toString());
+        }
+        return exceptions.toString();
+    }
+}
@@ -0,0 +1,146 @@
+package DAO;
+
+import DataBase.DataLists;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * The Abstract Class for SlotOccupancy. This answers availability questions on the half-hour grid of the time combo
+ * boxes from the OccupancyIndex in the AppointmentCache, with bitwise operations on one long per resource and day
+ * instead of queries. Bit i of a day's bitmap stands for the slot starting at DataLists.getTimes().get(i); toTimes
+ * turns a bitmap back into those times. */
+public abstract class SlotOccupancy {
+
+    /**
+     * The bitmap with every slot of a day set.
+     */
+    public static final long allSlots = OccupancyIndex.allSlots;
+
+    /**
+     * Returns the slots of a day in which a customer, contact or user has an appointment.
+     *
+     * @param resource The kind of resource.
+     * @param id The ID of the resource.
+     * @param day The day.
+     * @return The bitmap of busy slots.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
+     */
+    public static long getBusySlots(OccupancyResource resource, int id, LocalDate day) throws SQLException {
+        return AppointmentCache.getBusySlots(resource, id, day, 1)[0];
+    }
+
+    /**
+     * Returns the slots of a day in which a customer, contact or user has no appointment.
+     *
+     * @param resource The kind of resource.
+     * @param id The ID of the resource.
+     * @param day The day.
+     * @return The bitmap of free slots.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
+     */
+    public static long getFreeSlots(OccupancyResource resource, int id, LocalDate day) throws SQLException {
+        return ~getBusySlots(resource, id, day) & allSlots;
+    }
+
+    /**
+     * Returns the slots of a day in which both a customer and a contact are free.
+     *
+     * @param customerId The ID of the customer.
+     * @param contactId The ID of the contact.
+     * @param day The day.
+     * @return The bitmap of slots free for both.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
+     */
+    public static long getCommonFreeSlots(int customerId, int contactId, LocalDate day) throws SQLException {
+        return getFreeSlots(OccupancyResource.CUSTOMER, customerId, day) & getFreeSlots(OccupancyResource.CONTACT, contactId, day);
+    }
+
+    /**
+     * Checks whether a customer, contact or user is free for every slot a time range touches. A range that starts or
+     * ends inside a slot needs the whole slot free.
+     *
+     * @param resource The kind of resource.
+     * @param id The ID of the resource.
+     * @param start The start of the range, inclusive.
+     * @param end The end of the range, exclusive.
+     * @return `true` if none of the slots are busy.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
+     */
+    public static boolean isFree(OccupancyResource resource, int id, LocalDateTime start, LocalDateTime end) throws SQLException {
+        LocalDate first = start.toLocalDate();
+        int dayCount = (int) ChronoUnit.DAYS.between(first, end.minusNanos(1).toLocalDate()) + 1;
+        long[] busy = AppointmentCache.getBusySlots(resource, id, first, Math.max(dayCount, 1));
+        for (int i = 0; i < busy.length; i++) {
+            if ((busy[i] & OccupancyIndex.slotMask(start, end, first.plusDays(i))) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the busy slots of a customer, contact or user over a range of days.
+     *
+     * @param resource The kind of resource.
+     * @param id The ID of the resource.
+     * @param from The first day, inclusive.
+     * @param to The last day, exclusive.
+     * @return The number of busy slots.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
+     */
+    public static int getBusySlotCount(OccupancyResource resource, int id, LocalDate from, LocalDate to) throws SQLException {
+        int count = 0;
+        for (long day : AppointmentCache.getBusySlots(resource, id, from, (int) Math.max(0, ChronoUnit.DAYS.between(from, to)))) {
+            count += Long.bitCount(day);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the share of the slots in a range of days that a customer, contact or user is busy in. Only the slots
+     * set in a mask are counted, such as the slots inside office hours.
+     *
+     * @param resource The kind of resource.
+     * @param id The ID of the resource.
+     * @param from The first day, inclusive.
+     * @param to The last day, exclusive.
+     * @param mask The slots of each day to count, or allSlots for the whole day.
+     * @return The busy share, from 0 to 1, or 0 if the range or the mask is empty.
+     * @throws SQLException If the cache has to be loaded and the appointments cannot be read.
+     */
+    public static double getUtilization(OccupancyResource resource, int id, LocalDate from, LocalDate to, long mask) throws SQLException {
+        long[] busy = AppointmentCache.getBusySlots(resource, id, from, (int) Math.max(0, ChronoUnit.DAYS.between(from, to)));
+        int available = Long.bitCount(mask & allSlots) * busy.length;
+        if (available == 0) {
+            return 0;
+        }
+        int used = 0;
+        for (long day : busy) {
+            used += Long.bitCount(day & mask);
+        }
+        return (double) used / available;
+    }
+
+    /**
+     * Returns the start times of the slots set in a bitmap.
+     *
+     * @param slots The bitmap.
+     * @return The start times in ascending order.
+     */
+    public static List<LocalTime> toTimes(long slots)
+    {
+        List<LocalTime> times = new ArrayList<>(Long.bitCount(slots));
+        for (long rest = slots & allSlots; rest != 0; rest &= rest - 1) {
+            times.add(LocalTime.MIDNIGHT.plusMinutes((long) Long.numberOfTrailingZeros(rest) * DataLists.slotMinutes));
+        }
+        return times;
+    }
+}
@@ -1,11 +1,8 @@
 package DAO;
 
-import DataBase.JDBC;
-import javafx.collections.FXCollections;
+import DataBase.QueryExecutor;
 import javafx.collections.ObservableList;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 
 /**
@@ -23,15 +20,7 @@ public abstract class UserDAO {
      */
     public static ObservableList<String> getUsers() throws SQLException {
         String sql = "SELECT User_ID FROM USERS";
-        ObservableList<String> users = FXCollections.observableArrayList();
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ResultSet rs = ps.executeQuery();
-        while(rs.next())
-        {
-            String userId = rs.getString("User_ID");
-            users.add(userId);
-        }
-        return users;
+        return QueryExecutor.query(sql, rs -> rs.getString("User_ID"));
     }
 
     /**
@@ -43,15 +32,7 @@ public abstract class UserDAO {
      */
     public static ObservableList <String> getUserIds() throws SQLException {
         String sql = "SELECT User_ID FROM USERS";
-        ObservableList<String> userIds = FXCollections.observableArrayList();
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ResultSet rs = ps.executeQuery();
-        while(rs.next())
-        {
-            String userId = rs.getString("User_ID");
-            userIds.add(userId);
-        }
-        return userIds;
+        return QueryExecutor.query(sql, rs -> rs.getString("User_ID"));
     }
 
     /**
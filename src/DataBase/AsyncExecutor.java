@@ -0,0 +1,68 @@
+package DataBase;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the AsyncExecutor class. It runs blocking DAO calls on a small set of background worker threads so the
+ * JavaFX application thread never waits on the database. At most maxConcurrency calls run at once, matching the
+ * size of the connection pool, and every returned future is completed on the JavaFX application thread, so stages
+ * added with thenAccept may update controls directly. */
+public abstract class AsyncExecutor {
+
+    private static final int maxConcurrency = JDBC.getMaxPoolSize();
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService workers = Executors.newFixedThreadPool(maxConcurrency, r -> {
+        Thread thread = new Thread(r, "database-worker-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Runs a DAO call on a background worker thread.
+     *
+     * @param task The blocking DAO call to run.
+     * @param <T> The type of result produced by the DAO call.
+     * @return A future completed on the JavaFX application thread with the call's result, or exceptionally with the
+     *         exception it threw.
+     */
+    public static <T> CompletableFuture<T> supply(DatabaseTask<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        workers.execute(() -> {
+            try {
+                T result = task.run();
+                Platform.runLater(() -> future.complete(result));
+            }
+            catch (Throwable e) {
+                Platform.runLater(() -> future.completeExceptionally(e));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Prints the stack trace of a failed DAO call. Used as the exceptionally stage of futures returned by supply,
+     * matching how the screens report SQL errors.
+     *
+     * @param e The exception the DAO call failed with.
+     * @param <T> The result type of the failed future.
+     * @return null, so the future continues without a result.
+     */
+    public static <T> T printError(Throwable e) {
+        e.printStackTrace();
+        return null;
+    }
+
+    /**
+     * Stops accepting new calls. Calls that are already running are allowed to finish.
+     */
+    public static void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,123 @@
+package DataBase;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the BatchResult class. It reports the outcome of each row of a batched write run through
+ * QueryExecutor.batch: whether the row was written, the key the database generated for it, and the error for rows
+ * that failed. Rows are reported in the order they were given. */
+public class BatchResult {
+
+    private final boolean[] succeeded;
+    private final long[] generatedKeys;
+    private final String[] errors;
+
+    /**
+     * Constructs a BatchResult for the given number of rows, with every row marked as not written.
+     *
+     * @param size The number of rows in the batch.
+     */
+    BatchResult(int size)
+    {
+        succeeded = new boolean[size];
+        generatedKeys = new long[size];
+        errors = new String[size];
+    }
+
+    /**
+     * Marks a row as written.
+     *
+     * @param row The 0-based position of the row.
+     */
+    void markSucceeded(int row)
+    {
+        succeeded[row] = true;
+        errors[row] = null;
+    }
+
+    /**
+     * Marks a row as failed.
+     *
+     * @param row The 0-based position of the row.
+     * @param error A description of the failure.
+     */
+    void markFailed(int row, String error)
+    {
+        succeeded[row] = false;
+        errors[row] = error;
+    }
+
+    /**
+     * Records the key the database generated for a written row.
+     *
+     * @param row The 0-based position of the row.
+     * @param key The generated key.
+     */
+    void setGeneratedKey(int row, long key)
+    {
+        generatedKeys[row] = key;
+    }
+
+    /**
+     * Returns the number of rows in the batch.
+     *
+     * @return The row count.
+     */
+    public int size() {
+        return succeeded.length;
+    }
+
+    /**
+     * Checks whether a row was written.
+     *
+     * @param row The 0-based position of the row.
+     * @return `true` if the row was written, `false` otherwise.
+     */
+    public boolean isSuccess(int row) {
+        return succeeded[row];
+    }
+
+    /**
+     * Returns the key the database generated for a row.
+     *
+     * @param row The 0-based position of the row.
+     * @return The generated key, or 0 if the row failed or the statement generates no key.
+     */
+    public long getGeneratedKey(int row) {
+        return generatedKeys[row];
+    }
+
+    /**
+     * Returns the error for a row that failed.
+     *
+     * @param row The 0-based position of the row.
+     * @return A description of the failure, or null if the row was written.
+     */
+    public String getError(int row) {
+        return errors[row];
+    }
+
+    /**
+     * Returns the number of rows that were written.
+     *
+     * @return The success count.
+     */
+    public int getSuccessCount() {
+        int count = 0;
+        for (boolean success : succeeded) {
+            if (success) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of rows that failed.
+     *
+     * @return The failure count.
+     */
+    public int getFailureCount() {
+        return size() - getSuccessCount();
+    }
+}
@@ -0,0 +1,118 @@
+package DataBase;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * The Abstract Class for BusinessHours. This holds the opening and closing times of the ET office, converted to the
+ * user's time zone, for every date of each year asked about. A year's table is built once, resolving its daylight
+ * saving transitions in both zones, and then reused, so checking a time range costs an array lookup and two
+ * comparisons of primitive seconds instead of building ZonedDateTimes on every call.
+ *
+ * Times are kept as the seconds of the user's local date-time counted as if it were UTC, which only takes arithmetic
+ * to compute from a LocalDateTime. Tables are built for the system time zone at the time of the first call; reset
+ * discards them if it changes. */
+public abstract class BusinessHours {
+
+    private static final Map<Integer, long[]> years = new ConcurrentHashMap<>();
+    private static volatile ZoneId myZoneId = ZoneId.systemDefault();
+
+    /**
+     * Checks if a given appointment time range falls within the working hours of the ET office on the date it starts.
+     * This gives the same answers as the original checks in DataLists.checkTimeRange.
+     *
+     * @param startLDT The start time of the appointment.
+     * @param endLDT The end time of the appointment.
+     * @return `true` if the appointment falls within the ET office hours, `false` otherwise.
+     */
+    public static boolean checkTimeRange(LocalDateTime startLDT, LocalDateTime endLDT)
+    {
+        long[] table = tableFor(startLDT.getYear());
+        int day = (startLDT.getDayOfYear() - 1) * 2;
+        long open = table[day];
+        long closed = table[day + 1];
+        long start = startLDT.toEpochSecond(ZoneOffset.UTC);
+        long end = endLDT.toEpochSecond(ZoneOffset.UTC);
+        return (start > open && end < closed) || start == open || end == closed;
+    }
+
+    /**
+     * Returns when the ET office opens on a date, in the user's time zone.
+     *
+     * @param date The date at the office.
+     * @return The opening time.
+     */
+    public static LocalDateTime getOpen(LocalDate date)
+    {
+        return LocalDateTime.ofEpochSecond(tableFor(date.getYear())[(date.getDayOfYear() - 1) * 2], 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Returns when the ET office closes on a date, in the user's time zone.
+     *
+     * @param date The date at the office.
+     * @return The closing time.
+     */
+    public static LocalDateTime getClosed(LocalDate date)
+    {
+        return LocalDateTime.ofEpochSecond(tableFor(date.getYear())[(date.getDayOfYear() - 1) * 2 + 1], 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Discards the tables, so they are built again for the current system time zone.
+     */
+    public static void reset()
+    {
+        myZoneId = ZoneId.systemDefault();
+        years.clear();
+    }
+
+    /**
+     * Returns the table of a year, building it on first use. Entry 2i holds the opening time of day i of the year and
+     * entry 2i + 1 its closing time.
+     *
+     * @param year The year.
+     * @return The year's table.
+     */
+    private static long[] tableFor(int year)
+    {
+        long[] table = years.get(year);
+        return table != null ? table : years.computeIfAbsent(year, BusinessHours::buildYear);
+    }
+
+    /**
+     * Converts the office hours of every date of a year into the user's time zone.
+     *
+     * @param year The year.
+     * @return The year's table.
+     */
+    private static long[] buildYear(int year)
+    {
+        ZoneId zone = myZoneId;
+        LocalDate date = LocalDate.ofYearDay(year, 1);
+        long[] table = new long[date.lengthOfYear() * 2];
+        for (int i = 0; i < table.length; i += 2, date = date.plusDays(1)) {
+            table[i] = toMySeconds(date.atTime(DataLists.openHour), zone);
+            table[i + 1] = toMySeconds(date.atTime(DataLists.closedHour), zone);
+        }
+        return table;
+    }
+
+    /**
+     * Converts an ET office time into the user's time zone.
+     *
+     * @param businessTime The time at the ET office.
+     * @param zone The user's time zone.
+     * @return The local date-time in the user's zone, as seconds counted as if it were UTC.
+     */
+    private static long toMySeconds(LocalDateTime businessTime, ZoneId zone)
+    {
+        return businessTime.atZone(DataLists.businessZone).withZoneSameInstant(zone).toLocalDateTime().toEpochSecond(ZoneOffset.UTC);
+    }
+}
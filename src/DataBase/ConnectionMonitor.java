@@ -0,0 +1,203 @@
+package DataBase;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the ConnectionMonitor class. It watches the health of the ConnectionPool: a periodic health check borrows
+ * and validates a connection, and the pool reports every failed or successful attempt to open a connection. When the
+ * database stops answering, the monitor switches to RECONNECTING and retries with exponential backoff until a
+ * connection can be opened again, notifying registered listeners of every state change. */
+public class ConnectionMonitor {
+
+    private static final int failuresBeforeDisconnected = 5;
+
+    private final ConnectionPool pool;
+    private final long healthCheckMillis;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final List<ConnectionStateListener> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+    private volatile ConnectionState state = ConnectionState.CONNECTED;
+    private long backoffMillis;
+    private int failedAttempts;
+    private boolean reconnectScheduled;
+
+    /**
+     * Constructs a ConnectionMonitor for a pool and starts its periodic health check.
+     *
+     * @param pool The pool being monitored.
+     * @param healthCheckMillis The interval between health checks while connected.
+     * @param initialBackoffMillis The delay before the first reconnect attempt.
+     * @param maxBackoffMillis The longest delay between reconnect attempts.
+     */
+    ConnectionMonitor(ConnectionPool pool, long healthCheckMillis, long initialBackoffMillis, long maxBackoffMillis)
+    {
+        this.pool = pool;
+        this.healthCheckMillis = healthCheckMillis;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.backoffMillis = initialBackoffMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkHealth, healthCheckMillis, healthCheckMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the current connection state.
+     *
+     * @return The current state.
+     */
+    public ConnectionState getState() {
+        return state;
+    }
+
+    /**
+     * Registers a listener that is called on every state change.
+     *
+     * @param listener The listener to add.
+     */
+    public void addListener(ConnectionStateListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeListener(ConnectionStateListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Called by the pool when a connection was opened; returns the monitor to CONNECTED.
+     */
+    void connectionSucceeded()
+    {
+        if (state == ConnectionState.CONNECTED) {
+            return;
+        }
+        synchronized (this) {
+            failedAttempts = 0;
+            backoffMillis = initialBackoffMillis;
+        }
+        setState(ConnectionState.CONNECTED);
+    }
+
+    /**
+     * Called by the pool when a connection could not be opened; starts reconnecting if not already doing so.
+     *
+     * @param e The error raised while opening the connection.
+     */
+    void connectionFailed(SQLException e)
+    {
+        ConnectionState next;
+        synchronized (this) {
+            failedAttempts++;
+            next = failedAttempts >= failuresBeforeDisconnected ? ConnectionState.DISCONNECTED : ConnectionState.RECONNECTING;
+            scheduleReconnect();
+        }
+        if (state != next) {
+            System.out.println("Error: " + e.getMessage());
+        }
+        setState(next);
+    }
+
+    /**
+     * Stops the health check and any pending reconnect attempt.
+     */
+    void shutdown()
+    {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Schedules the next reconnect attempt after the current backoff and doubles the backoff for the attempt after.
+     * Must be called while holding this monitor's lock.
+     */
+    private void scheduleReconnect()
+    {
+        if (reconnectScheduled || scheduler.isShutdown()) {
+            return;
+        }
+        reconnectScheduled = true;
+        long delay = backoffMillis;
+        backoffMillis = Math.min(backoffMillis * 2, maxBackoffMillis);
+        scheduler.schedule(this::attemptReconnect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Tries to open a connection through the pool. A failure is reported back to connectionFailed, which schedules
+     * the next attempt.
+     */
+    private void attemptReconnect()
+    {
+        synchronized (this) {
+            reconnectScheduled = false;
+        }
+        probe();
+    }
+
+    /**
+     * Periodic health check. Skipped while a reconnect is in progress, since the reconnect attempts already probe
+     * the database.
+     */
+    private void checkHealth()
+    {
+        if (state == ConnectionState.CONNECTED) {
+            probe();
+        }
+    }
+
+    /**
+     * Borrows a connection, which validates an idle connection or opens a new one, and gives it straight back.
+     */
+    private void probe()
+    {
+        Connection connection = null;
+        try {
+            connection = pool.borrow();
+        }
+        catch (SQLException e) {
+            //Opening failures are already reported by the pool; a timeout only means the pool is busy
+        }
+        finally {
+            pool.release(connection);
+        }
+    }
+
+    /**
+     * Changes the state and notifies listeners if it differs from the current one.
+     *
+     * @param next The new state.
+     */
+    private void setState(ConnectionState next)
+    {
+        synchronized (this) {
+            if (state == next) {
+                return;
+            }
+            state = next;
+        }
+        System.out.println("Connection state: " + next);
+        for (ConnectionStateListener listener : listeners) {
+            try {
+                listener.stateChanged(next);
+            }
+            catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
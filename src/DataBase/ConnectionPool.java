@@ -0,0 +1,624 @@
+package DataBase;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the ConnectionPool class. It keeps a bounded set of physical connections to the MySQL database that the
+ * DAO classes borrow from and return to. Connections are validated on borrow, idle connections above the minimum size
+ * are evicted, and connections held longer than the leak threshold are reported, with the call site that borrowed them
+ * when borrow sites are traced. Each connection caches its prepared statements; DAO methods obtain them through
+ * prepareStatement. A ConnectionMonitor is told about every failed and successful attempt to open a connection, so the
+ * pool reconnects after the database has been restarted or the network has dropped. */
+public class ConnectionPool {
+
+    private final String jdbcUrl;
+    private final String userName;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+    private final boolean traceBorrowSites;
+    private final StatementCacheStats statementStats = new StatementCacheStats();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>();
+    private final Map<Connection, PooledConnection> borrowed = new IdentityHashMap<>();
+    private final ScheduledExecutorService maintenance;
+    private final ConnectionMonitor monitor;
+    private int pending;
+    private int waiting;
+    private boolean closed;
+
+    //Statistics
+    private long borrowCount, timeoutCount, createdCount, destroyedCount, validationFailures, leakCount;
+
+    /**
+     * Constructs a ConnectionPool, opens the minimum number of connections and starts the maintenance task that evicts
+     * idle connections and reports leaks. If the database cannot be reached the pool starts empty and reconnects
+     * in the background.
+     *
+     * @param jdbcUrl The JDBC URL of the database.
+     * @param userName The database user name.
+     * @param password The database password.
+     * @param minSize The number of connections kept open even when idle.
+     * @param maxSize The largest number of connections the pool will open.
+     * @param borrowTimeoutMillis How long a caller waits for a free connection before the borrow fails.
+     * @param idleTimeoutMillis How long a connection above the minimum size may stay idle before it is closed.
+     * @param leakThresholdMillis How long a connection may stay borrowed before it is reported as leaked.
+     * @param validationTimeoutSeconds The timeout passed to Connection.isValid when a connection is borrowed.
+     * @param statementCacheSize The largest number of prepared statements cached for each connection.
+     * @param healthCheckMillis The interval between health checks while the database is reachable.
+     * @param initialBackoffMillis The delay before the first reconnect attempt once the database stops answering.
+     * @param maxBackoffMillis The longest delay between reconnect attempts.
+     * @param traceBorrowSites `true` to capture the call site of every borrow so leak reports can print it. Meant for
+     *                         debugging, as it builds a stack trace on each borrow.
+     */
+    public ConnectionPool(String jdbcUrl, String userName, String password, int minSize, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis,
+                          int validationTimeoutSeconds, int statementCacheSize, long healthCheckMillis,
+                          long initialBackoffMillis, long maxBackoffMillis, boolean traceBorrowSites) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min " + minSize + ", max " + maxSize);
+        }
+        if (statementCacheSize < 1) {
+            throw new IllegalArgumentException("Invalid statement cache size: " + statementCacheSize);
+        }
+        this.jdbcUrl = jdbcUrl;
+        this.userName = userName;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = statementCacheSize;
+        this.traceBorrowSites = traceBorrowSites;
+
+        this.monitor = new ConnectionMonitor(this, healthCheckMillis, initialBackoffMillis, maxBackoffMillis);
+
+        //A database that is down at startup is not fatal; the monitor keeps trying to reach it
+        try {
+            for (int i = 0; i < minSize; i++) {
+                idle.add(createConnection());
+            }
+        } catch (SQLException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+
+        maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis, leakThresholdMillis) / 2);
+        maintenance.scheduleWithFixedDelay(this::runMaintenance, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool. An idle connection is validated before it is handed out; if none is idle and
+     * the pool is below its maximum size a new connection is opened, otherwise the caller waits up to the borrow
+     * timeout for one to be returned. Every borrowed connection must be given back through release.
+     *
+     * @return A valid connection reserved for the caller.
+     * @throws SQLException If the pool is closed, a connection cannot be opened, or the borrow timeout expires.
+     */
+    public Connection borrow() throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+        while (true) {
+            PooledConnection candidate = null;
+            boolean mayCreate = false;
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        throw new SQLException("Connection pool is closed.");
+                    }
+                    candidate = idle.pollFirst();
+                    if (candidate != null) {
+                        break;
+                    }
+                    if (borrowed.size() + pending < maxSize) {
+                        pending++;
+                        mayCreate = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeoutCount++;
+                        throw new SQLTimeoutException("Timed out after " + borrowTimeoutMillis + " ms waiting for a database connection.");
+                    }
+                    waiting++;
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection.", e);
+                    } finally {
+                        waiting--;
+                    }
+                }
+                if (candidate != null) {
+                    pending++;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            //Open or validate outside the lock so slow network calls do not block other borrowers
+            if (mayCreate) {
+                PooledConnection created;
+                try {
+                    created = createConnection();
+                } catch (SQLException e) {
+                    lock.lock();
+                    try {
+                        pending--;
+                        available.signal();
+                    } finally {
+                        lock.unlock();
+                    }
+                    throw e;
+                }
+                return checkOut(created);
+            }
+            if (isValid(candidate)) {
+                Connection connection = checkOut(candidate);
+                monitor.connectionSucceeded();
+                return connection;
+            }
+            candidate.closeQuietly();
+            lock.lock();
+            try {
+                pending--;
+                validationFailures++;
+                destroyedCount++;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns a borrowed connection to the pool. A connection that has been closed or broken by the caller is discarded
+     * instead of being reused.
+     *
+     * @param connection The connection obtained from borrow.
+     */
+    public void release(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        //Reset outside the lock so the rollback round trips do not block other borrowers
+        boolean reusable = !isClosed(connection) && resetState(connection);
+        PooledConnection pooled;
+        boolean discard;
+        lock.lock();
+        try {
+            pooled = borrowed.remove(connection);
+            if (pooled == null) {
+                return;
+            }
+            discard = closed || !reusable;
+            if (!discard) {
+                pooled.markReturned();
+                idle.addFirst(pooled);
+            } else {
+                destroyedCount++;
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (discard) {
+            pooled.closeQuietly();
+        }
+    }
+
+    /**
+     * Removes a borrowed connection that failed with a connection error from the pool and closes it, instead of
+     * returning it to the idle set.
+     *
+     * @param connection The connection obtained from borrow.
+     */
+    public void invalidate(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        PooledConnection pooled;
+        lock.lock();
+        try {
+            pooled = borrowed.remove(connection);
+            if (pooled == null) {
+                return;
+            }
+            destroyedCount++;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        pooled.closeQuietly();
+    }
+
+    /**
+     * Returns the monitor that tracks whether the database can be reached.
+     *
+     * @return The connection monitor.
+     */
+    public ConnectionMonitor getMonitor() {
+        return monitor;
+    }
+
+    /**
+     * Returns a prepared statement for the given SQL from the borrowed connection's statement cache, preparing it on the
+     * first use. The statement stays owned by the cache: callers must not close it, and must finish with it before
+     * releasing the connection.
+     *
+     * @param connection A connection obtained from borrow.
+     * @param sql The SQL text to prepare.
+     * @return A prepared statement with its parameters cleared.
+     * @throws SQLException If the connection was not borrowed from this pool or the statement cannot be prepared.
+     */
+    public PreparedStatement prepareStatement(Connection connection, String sql) throws SQLException {
+        PooledConnection pooled;
+        lock.lock();
+        try {
+            pooled = borrowed.get(connection);
+        } finally {
+            lock.unlock();
+        }
+        if (pooled == null) {
+            throw new SQLException("Connection was not borrowed from this pool.");
+        }
+        return pooled.statements.prepare(sql);
+    }
+
+    /**
+     * Closes every idle connection, stops the maintenance task and fails all further borrows. Connections that are
+     * still borrowed are closed when they are released.
+     */
+    public void close() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            destroyedCount += idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        maintenance.shutdownNow();
+        monitor.shutdown();
+        for (PooledConnection pooled : toClose) {
+            pooled.closeQuietly();
+        }
+    }
+
+    /**
+     * Returns the largest number of connections the pool will open.
+     *
+     * @return The maximum pool size.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of open connections, borrowed and idle.
+     *
+     * @return The total number of open connections.
+     */
+    public int getTotalConnections() {
+        lock.lock();
+        try {
+            return idle.size() + borrowed.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of connections waiting in the pool to be borrowed.
+     *
+     * @return The number of idle connections.
+     */
+    public int getIdleConnections() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of connections currently borrowed by callers.
+     *
+     * @return The number of active connections.
+     */
+    public int getActiveConnections() {
+        lock.lock();
+        try {
+            return borrowed.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of threads currently waiting for a connection.
+     *
+     * @return The number of waiting threads.
+     */
+    public int getWaitingThreads() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of successful borrows since the pool was created.
+     *
+     * @return The borrow count.
+     */
+    public long getBorrowCount() {
+        lock.lock();
+        try {
+            return borrowCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of borrows that failed because the borrow timeout expired.
+     *
+     * @return The timeout count.
+     */
+    public long getTimeoutCount() {
+        lock.lock();
+        try {
+            return timeoutCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of borrowed connections that were reported as leaked.
+     *
+     * @return The leak count.
+     */
+    public long getLeakCount() {
+        lock.lock();
+        try {
+            return leakCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the prepared statement cache counters shared by every connection in the pool.
+     *
+     * @return The statement cache statistics.
+     */
+    public StatementCacheStats getStatementCacheStats() {
+        return statementStats;
+    }
+
+    /**
+     * Builds a one-line summary of the pool's current state and counters, suitable for logging.
+     *
+     * @return A summary of the pool statistics.
+     */
+    public String getStatistics() {
+        lock.lock();
+        try {
+            return "total=" + (idle.size() + borrowed.size()) + ", active=" + borrowed.size() + ", idle=" + idle.size() +
+                    ", waiting=" + waiting + ", min=" + minSize + ", max=" + maxSize + ", borrows=" + borrowCount +
+                    ", timeouts=" + timeoutCount + ", created=" + createdCount + ", destroyed=" + destroyedCount +
+                    ", validationFailures=" + validationFailures + ", leaks=" + leakCount +
+                    ", statementCache=[" + statementStats + "]";
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Opens a new physical connection and reports the outcome to the monitor.
+     *
+     * @return The new connection wrapped for pool bookkeeping.
+     * @throws SQLException If the driver cannot open the connection.
+     */
+    private PooledConnection createConnection() throws SQLException {
+        Connection connection;
+        try {
+            connection = DriverManager.getConnection(jdbcUrl, userName, password);
+        } catch (SQLException e) {
+            monitor.connectionFailed(e);
+            throw e;
+        }
+        monitor.connectionSucceeded();
+        lock.lock();
+        try {
+            createdCount++;
+        } finally {
+            lock.unlock();
+        }
+        return new PooledConnection(connection, statementCacheSize, statementStats);
+    }
+
+    /**
+     * Records a connection as borrowed and hands it to the caller.
+     *
+     * @param pooled The connection being handed out.
+     * @return The physical connection.
+     * @throws SQLException If the pool was closed while the connection was being prepared.
+     */
+    private Connection checkOut(PooledConnection pooled) throws SQLException {
+        lock.lock();
+        try {
+            pending--;
+            if (closed) {
+                destroyedCount++;
+                available.signal();
+            } else {
+                pooled.markBorrowed(traceBorrowSites);
+                borrowed.put(pooled.connection, pooled);
+                borrowCount++;
+                return pooled.connection;
+            }
+        } finally {
+            lock.unlock();
+        }
+        pooled.closeQuietly();
+        throw new SQLException("Connection pool is closed.");
+    }
+
+    /**
+     * Checks that an idle connection is still usable before it is handed out.
+     *
+     * @param pooled The connection to validate.
+     * @return `true` if the connection is valid, `false` otherwise.
+     */
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether a returned connection has been closed by the caller.
+     *
+     * @param connection The connection being returned.
+     * @return `true` if the connection is closed or its state cannot be read, `false` otherwise.
+     */
+    private static boolean isClosed(Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Restores auto-commit on a returned connection so the next borrower starts from the default state.
+     *
+     * @param connection The connection being returned.
+     * @return `true` if the connection was reset, `false` if it failed and should be discarded.
+     */
+    private static boolean resetState(Connection connection) {
+        try {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Periodic maintenance: closes connections that have been idle longer than the idle timeout while keeping the
+     * minimum size, tops the pool back up to its minimum size, and reports connections held past the leak threshold.
+     */
+    private void runMaintenance() {
+        List<PooledConnection> evicted = new ArrayList<>();
+        int missing;
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+            while (oldestFirst.hasNext() && idle.size() + borrowed.size() > minSize) {
+                PooledConnection pooled = oldestFirst.next();
+                if (idleTimeoutMillis > 0 && now - pooled.lastReturnedAt >= idleTimeoutMillis) {
+                    oldestFirst.remove();
+                    evicted.add(pooled);
+                }
+            }
+            destroyedCount += evicted.size();
+
+            if (leakThresholdMillis > 0) {
+                for (PooledConnection pooled : borrowed.values()) {
+                    if (!pooled.leakReported && now - pooled.borrowedAt >= leakThresholdMillis) {
+                        pooled.leakReported = true;
+                        leakCount++;
+                        System.out.println("Warning: connection held for " + (now - pooled.borrowedAt) + " ms without being released.");
+                        if (pooled.borrowSite != null) {
+                            pooled.borrowSite.printStackTrace();
+                        }
+                    }
+                }
+            }
+            missing = minSize - (idle.size() + borrowed.size() + pending);
+            pending += Math.max(missing, 0);
+        } finally {
+            lock.unlock();
+        }
+
+        for (PooledConnection pooled : evicted) {
+            pooled.closeQuietly();
+        }
+        for (int i = 0; i < missing; i++) {
+            PooledConnection created = null;
+            try {
+                created = createConnection();
+            } catch (SQLException e) {
+                System.out.println("Error: " + e.getMessage());
+            }
+            lock.lock();
+            try {
+                pending--;
+                if (created != null && !closed) {
+                    idle.addLast(created);
+                    created = null;
+                }
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+            if (created != null) {
+                created.closeQuietly();
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package DataBase;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * The states of the link between the application and the MySQL database, as reported by the ConnectionMonitor. */
+public enum ConnectionState {
+    /** Connections to the database are being opened normally. */
+    CONNECTED,
+    /** The database stopped answering and the monitor is retrying with backoff. */
+    RECONNECTING,
+    /** Reconnecting has failed repeatedly; the monitor keeps retrying at the longest backoff interval. */
+    DISCONNECTED
+}
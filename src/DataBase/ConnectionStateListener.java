@@ -0,0 +1,12 @@
+package DataBase;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * Interface for the ConnectionStateListener lambda expression. Screens register one with
+ * JDBC.addConnectionStateListener to be told when the database connection is lost and restored. Listeners are called
+ * on a background thread, so UI updates must go through Platform.runLater.
+ */
+public interface ConnectionStateListener {
+    void stateChanged(ConnectionState state);
+}
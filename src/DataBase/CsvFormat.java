@@ -0,0 +1,147 @@
+package DataBase;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the CsvFormat class. It reads, splits and builds records of comma-separated values for the bulk import and
+ * export paths. Fields containing commas, quotes or line breaks are quoted, and quotes inside a quoted field are
+ * doubled, so a record spans several lines when a quoted field holds a line break. */
+public abstract class CsvFormat {
+
+    /**
+     * Reads the next record from a reader. A record ends at the first line break outside a quoted field, so line breaks
+     * inside quoted fields are kept in the record as \n.
+     *
+     * @param reader The reader positioned at the start of a record.
+     * @return The record without its line terminator, or null at the end of the input. A quoted field left open at the
+     *         end of the input runs to the end.
+     * @throws IOException If the input cannot be read.
+     */
+    public static String readRecord(BufferedReader reader) throws IOException
+    {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        StringBuilder record = null;
+        int quotes = countQuotes(line);
+        while (quotes % 2 != 0) {
+            String next = reader.readLine();
+            if (next == null) {
+                break;
+            }
+            if (record == null) {
+                record = new StringBuilder(line);
+            }
+            record.append('\n').append(next);
+            quotes += countQuotes(next);
+        }
+        return record == null ? line : record.toString();
+    }
+
+    /**
+     * Splits one record of comma-separated values into its fields.
+     *
+     * @param line The record to split, as returned by readRecord.
+     * @return The fields of the line, with quoting removed.
+     */
+    public static String[] parseLine(String line)
+    {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * Joins fields into one line of comma-separated values, quoting the fields that need it.
+     *
+     * @param fields The fields to join. A null field is written as an empty field.
+     * @return The joined line, without a line terminator.
+     */
+    public static String formatLine(String... fields)
+    {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            appendField(line, fields[i]);
+        }
+        return line.toString();
+    }
+
+    /**
+     * Appends one field to a line, quoting it if it contains a comma, quote or line break.
+     *
+     * @param line The line being built.
+     * @param field The field to append, or null for an empty field.
+     */
+    public static void appendField(StringBuilder line, String field)
+    {
+        if (field == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < field.length() && !needsQuotes; i++) {
+            char c = field.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            line.append(field);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    /**
+     * Counts the quote characters in a line. An odd count leaves a quoted field open at the end of the line.
+     *
+     * @param line The line.
+     * @return The number of quotes.
+     */
+    private static int countQuotes(String line)
+    {
+        int quotes = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes;
+    }
+}
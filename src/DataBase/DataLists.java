@@ -33,8 +33,19 @@ public abstract class DataLists {
     public static String [] months = {"January", "February", "March", "April", "May", "June", "July", "August", "September", "October", "November", "December"};
     public static boolean monthsLoaded = false;
 
+    //Business hours of the ET office, and the grid appointment times are picked on
+    public static final ZoneId businessZone = ZoneId.of("America/Indianapolis");
+    public static final LocalTime openHour = LocalTime.of(8, 0);
+    public static final LocalTime closedHour = LocalTime.of(22, 0);
+    public static final int slotMinutes = 30;
+
+    //Formats for dates and times shown to the user
+    public static final DateTimeFormatter dateTimeFormat = DateTimeFormatter.ofPattern("MM-dd-yyyy HH:mm");
+    public static final DateTimeFormatter timeFormat = DateTimeFormatter.ofPattern("HH:mm");
+
     /**
      * Checks if a given appointment time range falls within the working hours of the Eastern Time (ET) office.
+     * The office hours of the start date are looked up in the precomputed BusinessHours tables.
      *
      * @param startLDT The start time of the appointment.
      * @param endLDT The end time of the appointment.
@@ -42,36 +53,7 @@ public abstract class DataLists {
      */
     public static boolean checkTimeRange(LocalDateTime startLDT, LocalDateTime endLDT)
     {
-        boolean withinTime = false;
-        ZoneId myBusinessZone = ZoneId.of("America/Indianapolis");
-        ZoneId myZoneId = ZoneId.systemDefault();
-        LocalDateTime appointmentDateTime = startLDT;
-        LocalDate appointmentDate = appointmentDateTime.toLocalDate();
-
-        //Open hour at ET office, perceived from any timezone
-        LocalTime openHour = LocalTime.of(8, 0);
-        LocalDateTime businessOpenDT = LocalDateTime.of(appointmentDate, openHour);
-        ZonedDateTime zonedBusinessOpenDT = businessOpenDT.atZone(myBusinessZone);
-        ZonedDateTime myZonedOpenDT = zonedBusinessOpenDT.withZoneSameInstant(myZoneId);
-        LocalDateTime myOpenLDT = myZonedOpenDT.toLocalDateTime();
-
-        //Closed hour at ET office, perceived from any timezone
-        LocalTime closedHour = LocalTime.of(22, 0);
-        LocalDateTime businessClosedDT = LocalDateTime.of(appointmentDate, closedHour);
-        ZonedDateTime zonedBusinessClosedDT = businessClosedDT.atZone(myBusinessZone);
-        ZonedDateTime myZonedClosedDT = zonedBusinessClosedDT.withZoneSameInstant(myZoneId);
-        LocalDateTime myClosedLDT = myZonedClosedDT.toLocalDateTime();
-
-        if (startLDT.isAfter(myOpenLDT) && (endLDT.isBefore(myClosedLDT)))
-        {
-            withinTime = true;
-        }
-
-        if (startLDT.isEqual(myOpenLDT) || (endLDT.isEqual(myClosedLDT)))
-        {
-            withinTime = true;
-        }
-        return withinTime;
+        return BusinessHours.checkTimeRange(startLDT, endLDT);
     }
 
     /**
@@ -194,8 +176,7 @@ public abstract class DataLists {
      */
     public static String myFormattedDTF (LocalDateTime myLDT)
     {
-        DateTimeFormatter format = DateTimeFormatter.ofPattern("MM-dd-yyyy HH:mm");
-        String formattedDate = myLDT.format(format);
+        String formattedDate = myLDT.format(dateTimeFormat);
         return formattedDate;
     }
 
@@ -207,8 +188,7 @@ public abstract class DataLists {
      */
     public static String myFormattedTF (LocalTime myLT)
     {
-        DateTimeFormatter format = DateTimeFormatter.ofPattern("HH:mm");
-        String formattedDate = myLT.format(format);
+        String formattedDate = myLT.format(timeFormat);
         return formattedDate;
     }
 }
\ No newline at end of file
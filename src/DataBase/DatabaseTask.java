@@ -0,0 +1,15 @@
+package DataBase;
+
+import java.sql.SQLException;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * Interface for the DatabaseTask lambda expression used by AsyncExecutor. A DatabaseTask wraps a blocking DAO call,
+ * such as AppointmentDAO::getAppointments, so it can be run away from the JavaFX application thread.
+ *
+ * @param <T> The type of result produced by the DAO call.
+ */
+public interface DatabaseTask<T> {
+    T run() throws SQLException;
+}
@@ -1,13 +1,20 @@
 package DataBase;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
 
 /**
  * @author Hamza Yousaf
  *
  * This is the JDBC class. This is the Java Database Connection driver's class.
- * It manages the methods that are used to link the Java application and MySQL database. */
+ * It manages the methods that are used to link the Java application and MySQL database. Connections are handed out
+ * by a ConnectionPool; DAO methods borrow one with getConnection, obtain cached statements with prepareStatement and
+ * give the connection back with releaseConnection. */
 public abstract class JDBC {
 
     private static final String protocol = "jdbc";
@@ -18,17 +25,36 @@ public abstract class JDBC {
     private static final String driver = "com.mysql.cj.jdbc.Driver";
     private static final String userName = "sqlUser";
     private static final String password = "Passw0rd!";
-    public static Connection connection;
+
+    //Connection pool settings
+    private static final int minPoolSize = 2;
+    private static final int maxPoolSize = 10;
+    private static final long borrowTimeoutMillis = 30_000;
+    private static final long idleTimeoutMillis = 10 * 60_000;
+    private static final long leakThresholdMillis = 60_000;
+    private static final int validationTimeoutSeconds = 5;
+    private static final int statementCacheSize = 32;
+    private static final long healthCheckMillis = 15_000;
+    private static final long initialBackoffMillis = 500;
+    private static final long maxBackoffMillis = 30_000;
+    //Run with -Djdbc.traceBorrowSites=true to print where leaked connections were borrowed
+    private static final boolean traceBorrowSites = Boolean.getBoolean("jdbc.traceBorrowSites");
+    private static volatile ConnectionPool pool;
 
     /**
-     * Opens a connection between the Java program and the MySQL database using the specified connection details.
-     * It loads the MySQL JDBC driver, establishes a connection, and prints a success message upon successful connection.
+     * Opens the connection pool between the Java program and the MySQL database using the specified connection details.
+     * It loads the MySQL JDBC driver, opens the minimum number of pooled connections, and prints a success message once
+     * the pool holds a connection. If the database cannot be reached yet, the pool keeps reconnecting in the background.
      */
     public static void openConnection(){
         try{
             Class.forName(driver);
-            connection = DriverManager.getConnection(jdbcUrl, userName, password);
-            System.out.println("Connection successful!");
+            pool = new ConnectionPool(jdbcUrl, userName, password, minPoolSize, maxPoolSize,
+                    borrowTimeoutMillis, idleTimeoutMillis, leakThresholdMillis, validationTimeoutSeconds, statementCacheSize,
+                    healthCheckMillis, initialBackoffMillis, maxBackoffMillis, traceBorrowSites);
+            if (pool.getTotalConnections() > 0) {
+                System.out.println("Connection successful!");
+            }
         }
         catch(Exception e) {
             System.out.println("Error: " + e.getMessage());
@@ -36,12 +62,140 @@ public abstract class JDBC {
     }
 
     /**
-     * Closes the connection between the Java program and the MySQL database.
+     * Borrows a connection from the pool. The caller must give it back with releaseConnection, normally in a finally block.
+     *
+     * @return A validated connection reserved for the caller.
+     * @throws SQLException If the pool has not been opened or no connection becomes available within the borrow timeout.
+     */
+    public static Connection getConnection() throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            throw new SQLException("Connection pool has not been opened.");
+        }
+        return current.borrow();
+    }
+
+    /**
+     * Removes a connection that failed with a connection error from the pool instead of returning it.
+     *
+     * @param connection The connection obtained from getConnection.
+     */
+    public static void discardConnection(Connection connection){
+        ConnectionPool current = pool;
+        if (current != null) {
+            current.invalidate(connection);
+        }
+    }
+
+    /**
+     * Checks whether an exception means the connection to the database was lost, as opposed to an error in the SQL
+     * or the data. Such errors are worth retrying once the connection has been restored.
+     *
+     * @param e The exception to check.
+     * @return `true` if the exception is a connection error, `false` otherwise.
+     */
+    public static boolean isConnectionError(SQLException e){
+        if (e instanceof SQLTimeoutException) {
+            return false;
+        }
+        if (e instanceof SQLRecoverableException || e instanceof SQLTransientConnectionException ||
+                e instanceof SQLNonTransientConnectionException) {
+            return true;
+        }
+        String sqlState = e.getSQLState();
+        return sqlState != null && sqlState.startsWith("08");
+    }
+
+    /**
+     * Returns the current state of the link to the database.
+     *
+     * @return The connection state, or DISCONNECTED if openConnection has not succeeded.
+     */
+    public static ConnectionState getConnectionState(){
+        ConnectionPool current = pool;
+        return current == null ? ConnectionState.DISCONNECTED : current.getMonitor().getState();
+    }
+
+    /**
+     * Registers a listener that is told when the database connection is lost and restored.
+     *
+     * @param listener The listener to add.
+     */
+    public static void addConnectionStateListener(ConnectionStateListener listener){
+        ConnectionPool current = pool;
+        if (current != null) {
+            current.getMonitor().addListener(listener);
+        }
+    }
+
+    /**
+     * Removes a listener added with addConnectionStateListener.
+     *
+     * @param listener The listener to remove.
+     */
+    public static void removeConnectionStateListener(ConnectionStateListener listener){
+        ConnectionPool current = pool;
+        if (current != null) {
+            current.getMonitor().removeListener(listener);
+        }
+    }
+
+    /**
+     * Returns the cached prepared statement for the given SQL on a borrowed connection. The statement is owned by the
+     * connection's statement cache and must not be closed by the caller.
+     *
+     * @param connection A connection obtained from getConnection.
+     * @param sql The SQL text to prepare.
+     * @return A prepared statement with its parameters cleared.
+     * @throws SQLException If the pool has not been opened or the statement cannot be prepared.
+     */
+    public static PreparedStatement prepareStatement(Connection connection, String sql) throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            throw new SQLException("Connection pool has not been opened.");
+        }
+        return current.prepareStatement(connection, sql);
+    }
+
+    /**
+     * Returns a connection obtained from getConnection to the pool.
+     *
+     * @param connection The connection to return.
+     */
+    public static void releaseConnection(Connection connection){
+        ConnectionPool current = pool;
+        if (current != null) {
+            current.release(connection);
+        }
+    }
+
+    /**
+     * Returns the largest number of connections the pool opens, which bounds how many queries can run at once.
+     *
+     * @return The pool's maximum size, or the configured size if openConnection has not been called.
+     */
+    public static int getMaxPoolSize(){
+        ConnectionPool current = pool;
+        return current == null ? maxPoolSize : current.getMaxSize();
+    }
+
+    /**
+     * Returns the connection pool so its statistics can be read at runtime.
+     *
+     * @return The connection pool, or null if openConnection has not succeeded.
+     */
+    public static ConnectionPool getPool(){
+        return pool;
+    }
+
+    /**
+     * Closes the connection pool between the Java program and the MySQL database.
      * This method should be called when the Java program is being closed or when the connection is no longer needed.
      */
     public static void closeConnection(){
         try{
-            connection.close();
+            System.out.println("Connection pool: " + pool.getStatistics());
+            pool.close();
             System.out.println("Connection closed!");
 
         }
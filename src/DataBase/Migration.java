@@ -0,0 +1,93 @@
+package DataBase;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the Migration class. A migration is one numbered change to the client_schedule schema that SchemaMigrations
+ * runs the first time it sees the migration's version. It is either a list of SQL statements or a MigrationTask.
+ *
+ * An SQL migration has a checksum of its statements, recorded when it is applied, so a migration edited after it ran
+ * somewhere is caught instead of leaving databases that claim the same version but differ. A Java migration has no
+ * checksum, since its code cannot be read back. */
+public class Migration {
+
+    private final int version;
+    private final String description;
+    private final List<String> statements;
+    private final MigrationTask task;
+
+    /**
+     * Constructs an SQL Migration.
+     *
+     * @param version The version number, unique and increasing in the order the migrations must run.
+     * @param description A short description recorded in the schema history.
+     * @param statements The SQL statements to run.
+     */
+    public Migration(int version, String description, String... statements)
+    {
+        this.version = version;
+        this.description = description;
+        this.statements = List.of(statements);
+        this.task = null;
+    }
+
+    /**
+     * Constructs a Java Migration.
+     *
+     * @param version The version number, unique and increasing in the order the migrations must run.
+     * @param description A short description recorded in the schema history.
+     * @param task The change to make.
+     */
+    public Migration(int version, String description, MigrationTask task)
+    {
+        this.version = version;
+        this.description = description;
+        this.statements = List.of();
+        this.task = task;
+    }
+
+    /**
+     * Returns the checksum of the migration's statements.
+     *
+     * @return The CRC32 of the statements, each followed by a newline, or null for a Java migration.
+     */
+    public Long getChecksum()
+    {
+        if (task != null) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        for (String sql : statements) {
+            crc.update((sql + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return crc.getValue();
+    }
+
+    /** Returns the version number.
+     *  @return The version. */
+    public int getVersion() {
+        return version;
+    }
+
+    /** Returns the description.
+     *  @return The description. */
+    public String getDescription() {
+        return description;
+    }
+
+    /** Returns the SQL statements.
+     *  @return The statements, in the order they run, or an empty list for a Java migration. */
+    public List<String> getStatements() {
+        return statements;
+    }
+
+    /** Returns the Java change.
+     *  @return The task, or null for an SQL migration. */
+    public MigrationTask getTask() {
+        return task;
+    }
+}
@@ -0,0 +1,14 @@
+package DataBase;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * Interface for the migration lambda expression. A MigrationTask makes a change to the schema or its data that is
+ * easier to write in Java than in SQL, on the connection given to it by SchemaMigrations.
+ */
+public interface MigrationTask {
+    void run(Connection connection) throws SQLException;
+}
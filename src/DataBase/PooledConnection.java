@@ -0,0 +1,71 @@
+package DataBase;
+
+import java.sql.Connection;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the PooledConnection class. It wraps a physical database connection owned by the ConnectionPool and keeps
+ * the bookkeeping the pool needs for idle eviction and leak detection, along with the connection's statement cache. */
+class PooledConnection {
+
+    final Connection connection;
+    final StatementCache statements;
+    final long createdAt;
+    long lastReturnedAt;
+    long borrowedAt;
+    Throwable borrowSite;
+    boolean leakReported;
+
+    /**
+     * Constructs a PooledConnection around a newly opened physical connection.
+     *
+     * @param connection The physical connection opened by the pool.
+     * @param statementCacheSize The largest number of prepared statements cached for this connection.
+     * @param statementStats The shared counters for the statement cache.
+     */
+    PooledConnection(Connection connection, int statementCacheSize, StatementCacheStats statementStats)
+    {
+        this.connection = connection;
+        this.statements = new StatementCache(connection, statementCacheSize, statementStats);
+        this.createdAt = System.currentTimeMillis();
+        this.lastReturnedAt = createdAt;
+    }
+
+    /**
+     * Marks the connection as handed out to a caller, remembering when and where it was borrowed.
+     *
+     * @param trackSite `true` to capture the borrowing call site for leak reports.
+     */
+    void markBorrowed(boolean trackSite)
+    {
+        borrowedAt = System.currentTimeMillis();
+        borrowSite = trackSite ? new Throwable("Connection borrowed here") : null;
+        leakReported = false;
+    }
+
+    /**
+     * Marks the connection as returned to the idle set.
+     */
+    void markReturned()
+    {
+        lastReturnedAt = System.currentTimeMillis();
+        borrowedAt = 0;
+        borrowSite = null;
+        leakReported = false;
+    }
+
+    /**
+     * Closes the cached statements and the physical connection, ignoring any error raised by the driver.
+     */
+    void closeQuietly()
+    {
+        statements.clear();
+        try {
+            connection.close();
+        }
+        catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+}
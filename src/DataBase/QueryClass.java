@@ -0,0 +1,37 @@
+package DataBase;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * The classes of queries run through QueryExecutor, each with its own statement timeout. Interactive queries back
+ * forms and bookings and must answer quickly; report queries scan more rows and are given longer. Export queries
+ * stream their rows, so their timeout only bounds the time until the first row arrives. */
+public enum QueryClass {
+    /** Queries behind forms, tables and booking validation. */
+    INTERACTIVE(10),
+    /** The contact, location and month/type reports. */
+    REPORT(60),
+    /** Streaming exports of appointments and reports. */
+    EXPORT(300);
+
+    private final int timeoutSeconds;
+
+    /**
+     * Constructs a QueryClass with its statement timeout.
+     *
+     * @param timeoutSeconds The timeout passed to Statement.setQueryTimeout.
+     */
+    QueryClass(int timeoutSeconds)
+    {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    /**
+     * Returns the statement timeout for this class of query.
+     *
+     * @return The timeout in seconds.
+     */
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+}
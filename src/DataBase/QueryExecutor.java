@@ -0,0 +1,500 @@
+package DataBase;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.io.IOException;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the QueryExecutor class. It runs the DAO queries and owns the lifecycle of every resource they use:
+ * a connection is borrowed from the pool and always released, statements come from the connection's statement cache,
+ * and every ResultSet is closed before the connection is given back. Rows are turned into objects by a RowMapper.
+ * A connection that fails with a connection error is discarded rather than returned to the pool, and queries, which
+ * only read and are therefore safe to repeat, are retried with exponential backoff while the pool reconnects.
+ * Every statement runs under the timeout of its QueryClass, and queries given a QueryHandle can be cancelled. */
+public abstract class QueryExecutor {
+
+    private static final int maxReadAttempts = 4;
+    private static final long initialRetryDelayMillis = 500;
+    private static final int batchChunkSize = 500;
+
+    /**
+     * Runs an interactive query and maps every row into a list.
+     *
+     * @param sql The SQL text of the query.
+     * @param mapper The RowMapper that builds one object per row.
+     * @param params The values bound to the query's parameters, in order.
+     * @param <T> The type of object built from each row.
+     * @return An ObservableList with one object per row, in the order returned by the database.
+     * @throws SQLException If there is an error in executing the query.
+     */
+    public static <T> ObservableList<T> query(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        return query(QueryClass.INTERACTIVE, null, sql, mapper, params);
+    }
+
+    /**
+     * Runs a query under the timeout of its query class and maps every row into a list.
+     *
+     * @param queryClass The class of the query, which sets its statement timeout.
+     * @param handle The handle the caller may use to cancel the query, or null if it cannot be cancelled.
+     * @param sql The SQL text of the query.
+     * @param mapper The RowMapper that builds one object per row.
+     * @param params The values bound to the query's parameters, in order.
+     * @param <T> The type of object built from each row.
+     * @return An ObservableList with one object per row, in the order returned by the database.
+     * @throws SQLException If there is an error in executing the query, it times out, or it is cancelled.
+     */
+    public static <T> ObservableList<T> query(QueryClass queryClass, QueryHandle handle, String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        return read(queryClass, handle, sql, params, rs -> {
+            ObservableList<T> results = FXCollections.observableArrayList();
+            RowMapper<T> rowMapper = mapper.forResultSet(rs);
+            while (rs.next()) {
+                results.add(rowMapper.mapRow(rs));
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Runs an interactive query and maps only its first row.
+     *
+     * @param sql The SQL text of the query.
+     * @param mapper The RowMapper that builds the object from the first row.
+     * @param params The values bound to the query's parameters, in order.
+     * @param <T> The type of object built from the row.
+     * @return The object built from the first row, or null if the query returned no rows.
+     * @throws SQLException If there is an error in executing the query.
+     */
+    public static <T> T queryOne(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        return queryOne(QueryClass.INTERACTIVE, null, sql, mapper, params);
+    }
+
+    /**
+     * Runs a query under the timeout of its query class and maps only its first row.
+     *
+     * @param queryClass The class of the query, which sets its statement timeout.
+     * @param handle The handle the caller may use to cancel the query, or null if it cannot be cancelled.
+     * @param sql The SQL text of the query.
+     * @param mapper The RowMapper that builds the object from the first row.
+     * @param params The values bound to the query's parameters, in order.
+     * @param <T> The type of object built from the row.
+     * @return The object built from the first row, or null if the query returned no rows.
+     * @throws SQLException If there is an error in executing the query, it times out, or it is cancelled.
+     */
+    public static <T> T queryOne(QueryClass queryClass, QueryHandle handle, String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        return read(queryClass, handle, sql, params, rs -> rs.next() ? mapper.forResultSet(rs).mapRow(rs) : null);
+    }
+
+    /**
+     * Runs a query and hands each row to a handler as it arrives, without holding the result in memory. The statement
+     * is prepared outside the statement cache as forward-only and read-only with a fetch size of Integer.MIN_VALUE,
+     * which makes the MySQL driver stream rows from the server one at a time instead of buffering the whole result.
+     * Because the handler may already have consumed rows, a streamed query is not retried.
+     *
+     * @param queryClass The class of the query, which sets its statement timeout.
+     * @param handle The handle the caller may use to cancel the query, or null if it cannot be cancelled.
+     * @param sql The SQL text of the query.
+     * @param mapper The RowMapper that builds one object per row.
+     * @param handler Receives each mapped row in the order returned by the database.
+     * @param params The values bound to the query's parameters, in order.
+     * @param <T> The type of object built from each row.
+     * @return The number of rows handed to the handler.
+     * @throws SQLException If there is an error in executing the query, it times out, or it is cancelled.
+     * @throws IOException If the handler fails to write a row.
+     */
+    public static <T> long stream(QueryClass queryClass, QueryHandle handle, String sql, RowMapper<T> mapper, RowHandler<T> handler, Object... params) throws SQLException, IOException {
+        Connection connection = JDBC.getConnection();
+        boolean broken = false;
+        long started = System.currentTimeMillis();
+        try (PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE);
+            bind(ps, params);
+            ps.setQueryTimeout(queryClass.getTimeoutSeconds());
+            if (handle != null) {
+                handle.started(ps);
+            }
+            long rows = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                RowMapper<T> rowMapper = mapper.forResultSet(rs);
+                while (rs.next()) {
+                    handler.handle(rowMapper.mapRow(rs));
+                    rows++;
+                }
+            }
+            return rows;
+        } catch (SQLException e) {
+            long elapsed = System.currentTimeMillis() - started;
+            if (handle != null && handle.isCancelled()) {
+                SlowQueryLog.recordCancellation(sql, elapsed);
+            } else if (e instanceof SQLTimeoutException) {
+                SlowQueryLog.recordTimeout(sql, queryClass, elapsed);
+            } else {
+                broken = JDBC.isConnectionError(e);
+            }
+            throw e;
+        } finally {
+            if (handle != null) {
+                handle.finished();
+            }
+            release(connection, broken);
+        }
+    }
+
+    /**
+     * Runs a query and hands its ResultSet to a reader, retrying on connection errors. The statement timeout of the
+     * query class is applied, the running statement is registered with the handle so it can be cancelled, and
+     * timeouts and cancellations are recorded in the SlowQueryLog.
+     *
+     * @param queryClass The class of the query, which sets its statement timeout.
+     * @param handle The handle the caller may use to cancel the query, or null.
+     * @param sql The SQL text of the query.
+     * @param params The values bound to the query's parameters, in order.
+     * @param reader Reads the whole ResultSet into a result.
+     * @param <T> The type of result produced by the reader.
+     * @return The reader's result.
+     * @throws SQLException If there is an error in executing the query, it times out, or it is cancelled.
+     */
+    private static <T> T read(QueryClass queryClass, QueryHandle handle, String sql, Object[] params, ResultReader<T> reader) throws SQLException {
+        return withRetry(() -> {
+            Connection connection = JDBC.getConnection();
+            boolean broken = false;
+            long started = System.currentTimeMillis();
+            try {
+                PreparedStatement ps = JDBC.prepareStatement(connection, sql);
+                bind(ps, params);
+                ps.setQueryTimeout(queryClass.getTimeoutSeconds());
+                if (handle != null) {
+                    handle.started(ps);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    return reader.read(rs);
+                }
+            } catch (SQLException e) {
+                long elapsed = System.currentTimeMillis() - started;
+                if (handle != null && handle.isCancelled()) {
+                    SlowQueryLog.recordCancellation(sql, elapsed);
+                } else if (e instanceof SQLTimeoutException) {
+                    SlowQueryLog.recordTimeout(sql, queryClass, elapsed);
+                } else {
+                    broken = JDBC.isConnectionError(e);
+                }
+                throw e;
+            } finally {
+                if (handle != null) {
+                    handle.finished();
+                }
+                release(connection, broken);
+            }
+        });
+    }
+
+    /**
+     * Runs an INSERT, UPDATE or DELETE statement. Writes are not retried, since a lost connection leaves it unknown
+     * whether the statement was applied.
+     *
+     * @param sql The SQL text of the statement.
+     * @param params The values bound to the statement's parameters, in order.
+     * @return The number of rows affected.
+     * @throws SQLException If there is an error in executing the statement.
+     */
+    public static int update(String sql, Object... params) throws SQLException {
+        Connection connection = JDBC.getConnection();
+        boolean broken = false;
+        try {
+            PreparedStatement ps = JDBC.prepareStatement(connection, sql);
+            bind(ps, params);
+            ps.setQueryTimeout(QueryClass.INTERACTIVE.getTimeoutSeconds());
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            broken = JDBC.isConnectionError(e);
+            throw e;
+        } finally {
+            release(connection, broken);
+        }
+    }
+
+    /**
+     * Runs an INSERT, UPDATE or DELETE statement on a connection already borrowed by a transaction.
+     *
+     * @param connection The connection of the running transaction.
+     * @param sql The SQL text of the statement.
+     * @param params The values bound to the statement's parameters, in order.
+     * @return The number of rows affected.
+     * @throws SQLException If there is an error in executing the statement.
+     */
+    public static int update(Connection connection, String sql, Object... params) throws SQLException {
+        PreparedStatement ps = JDBC.prepareStatement(connection, sql);
+        bind(ps, params);
+        ps.setQueryTimeout(QueryClass.INTERACTIVE.getTimeoutSeconds());
+        return ps.executeUpdate();
+    }
+
+    /**
+     * Runs several statements as one transaction. The task is given a connection with auto-commit turned off; its
+     * statements are committed together when it returns, and rolled back if it throws. Like update, it is not retried.
+     *
+     * @param task The statements to run.
+     * @param <T> The type of result produced by the task.
+     * @return The task's result.
+     * @throws SQLException If a statement fails or the transaction cannot be committed.
+     */
+    public static <T> T transaction(TransactionTask<T> task) throws SQLException {
+        Connection connection = JDBC.getConnection();
+        boolean broken = false;
+        try {
+            connection.setAutoCommit(false);
+            T result = task.run(connection);
+            connection.commit();
+            return result;
+        } catch (SQLException e) {
+            broken = JDBC.isConnectionError(e);
+            if (!broken) {
+                connection.rollback();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            if (!broken) {
+                connection.setAutoCommit(true);
+            }
+            release(connection, broken);
+        }
+    }
+
+    /**
+     * Runs an INSERT statement and returns the key the database generated for the new row. Like update, it is not
+     * retried. The statement is prepared outside the statement cache, since it must be prepared to return keys.
+     *
+     * @param sql The SQL text of the statement.
+     * @param params The values bound to the statement's parameters, in order.
+     * @return The generated key, or 0 if the statement generated none.
+     * @throws SQLException If there is an error in executing the statement.
+     */
+    public static long insert(String sql, Object... params) throws SQLException {
+        Connection connection = JDBC.getConnection();
+        boolean broken = false;
+        try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            bind(ps, params);
+            ps.setQueryTimeout(QueryClass.INTERACTIVE.getTimeoutSeconds());
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                return keys.next() ? keys.getLong(1) : 0;
+            }
+        } catch (SQLException e) {
+            broken = JDBC.isConnectionError(e);
+            throw e;
+        } finally {
+            release(connection, broken);
+        }
+    }
+
+    /**
+     * Runs the same INSERT, UPDATE or DELETE statement once for each row of parameters using JDBC batching, inside a
+     * single transaction. Rows are sent in chunks; every row that the database accepts is committed together at the
+     * end, and rows it rejects are reported as failed in the result. If the connection is lost, nothing is committed
+     * and the error is thrown.
+     *
+     * @param sql The SQL text of the statement.
+     * @param rows The parameter values for each row, in parameter order.
+     * @param returnKeys `true` to collect the keys the database generates for inserted rows.
+     * @return The outcome of each row, in the order given.
+     * @throws SQLException If the batch cannot be run or committed.
+     */
+    public static BatchResult batch(String sql, List<Object[]> rows, boolean returnKeys) throws SQLException {
+        BatchResult result = new BatchResult(rows.size());
+        if (rows.isEmpty()) {
+            return result;
+        }
+        Connection connection = JDBC.getConnection();
+        boolean broken = false;
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = returnKeys ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                                                   : connection.prepareStatement(sql)) {
+                ps.setQueryTimeout(QueryClass.REPORT.getTimeoutSeconds());
+                for (int from = 0; from < rows.size(); from += batchChunkSize) {
+                    int to = Math.min(from + batchChunkSize, rows.size());
+                    for (int row = from; row < to; row++) {
+                        bind(ps, rows.get(row));
+                        ps.addBatch();
+                    }
+                    int[] counts;
+                    String error = null;
+                    try {
+                        counts = ps.executeBatch();
+                    } catch (BatchUpdateException e) {
+                        if (JDBC.isConnectionError(e)) {
+                            throw e;
+                        }
+                        counts = e.getUpdateCounts();
+                        error = e.getMessage();
+                    }
+                    recordChunk(result, from, to, counts, error, returnKeys ? ps : null);
+                }
+            }
+            connection.commit();
+            return result;
+        } catch (SQLException e) {
+            broken = JDBC.isConnectionError(e);
+            if (!broken) {
+                connection.rollback();
+            }
+            throw e;
+        } finally {
+            if (!broken) {
+                connection.setAutoCommit(true);
+            }
+            release(connection, broken);
+        }
+    }
+
+    /**
+     * Records the outcome of one executed chunk of a batch. The driver reports one update count per row it ran; a
+     * row without a count, or with EXECUTE_FAILED, failed. Generated keys are returned in row order for the rows
+     * that were written.
+     *
+     * @param result The result being filled in.
+     * @param from The position of the chunk's first row.
+     * @param to The position after the chunk's last row.
+     * @param counts The update counts returned by the driver.
+     * @param error The message of the batch error, or null if the chunk ran without one.
+     * @param keysFrom The statement to read generated keys from, or null if keys are not collected.
+     * @throws SQLException If the generated keys cannot be read.
+     */
+    private static void recordChunk(BatchResult result, int from, int to, int[] counts, String error, Statement keysFrom) throws SQLException {
+        for (int row = from; row < to; row++) {
+            int index = row - from;
+            if (index < counts.length && counts[index] != Statement.EXECUTE_FAILED) {
+                result.markSucceeded(row);
+            } else {
+                result.markFailed(row, error != null ? error : "Row was not written.");
+            }
+        }
+        if (keysFrom == null) {
+            return;
+        }
+        try (ResultSet keys = keysFrom.getGeneratedKeys()) {
+            int row = from;
+            while (keys.next()) {
+                while (row < to && !result.isSuccess(row)) {
+                    row++;
+                }
+                if (row >= to) {
+                    break;
+                }
+                result.setGeneratedKey(row++, keys.getLong(1));
+            }
+        }
+    }
+
+    /**
+     * Runs a read, retrying it with exponential backoff when it fails with a connection error.
+     *
+     * @param read The read to run.
+     * @param <T> The type of result produced by the read.
+     * @return The result of the first attempt that succeeds.
+     * @throws SQLException If the read fails with an error that is not a connection error, or every attempt fails.
+     */
+    static <T> T withRetry(DatabaseTask<T> read) throws SQLException {
+        long delay = initialRetryDelayMillis;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return read.run();
+            } catch (SQLException e) {
+                if (attempt >= maxReadAttempts || !JDBC.isConnectionError(e)) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                delay *= 2;
+            }
+        }
+    }
+
+    /**
+     * Gives a connection back to the pool, or discards it if it failed with a connection error.
+     *
+     * @param connection The connection to give back.
+     * @param broken `true` if the connection failed with a connection error.
+     */
+    private static void release(Connection connection, boolean broken) {
+        if (broken) {
+            JDBC.discardConnection(connection);
+        } else {
+            JDBC.releaseConnection(connection);
+        }
+    }
+
+    /**
+     * Reads a DATETIME column as a LocalDateTime in the system zone. The value goes through getTimestamp, so the driver
+     * converts it from the session's zone the same way it converts the Timestamps that bind writes. This costs a
+     * Timestamp per value: reading with getObject(index, LocalDateTime.class) would skip it, but the driver does not
+     * convert LocalDateTime values between zones, so stored times would shift by the server's offset.
+     *
+     * @param rs The ResultSet positioned on a row.
+     * @param index The 1-based position of the column.
+     * @return The column value in the system zone, or null if the column is NULL.
+     * @throws SQLException If the column cannot be read.
+     */
+    public static LocalDateTime getLocalDateTime(ResultSet rs, int index) throws SQLException {
+        Timestamp value = rs.getTimestamp(index);
+        return value == null ? null : value.toLocalDateTime();
+    }
+
+    /**
+     * Binds parameter values to a statement using the setter that matches each value's type.
+     *
+     * @param ps The statement to bind.
+     * @param params The values to bind, in parameter order.
+     * @throws SQLException If a value cannot be bound.
+     */
+    static void bind(PreparedStatement ps, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            Object param = params[i];
+            int index = i + 1;
+            if (param == null) {
+                ps.setNull(index, Types.NULL);
+            } else if (param instanceof String) {
+                ps.setString(index, (String) param);
+            } else if (param instanceof Integer) {
+                ps.setInt(index, (Integer) param);
+            } else if (param instanceof Long) {
+                ps.setLong(index, (Long) param);
+            } else if (param instanceof Timestamp) {
+                ps.setTimestamp(index, (Timestamp) param);
+            } else if (param instanceof LocalDateTime) {
+                ps.setTimestamp(index, Timestamp.valueOf((LocalDateTime) param));
+            } else {
+                ps.setObject(index, param);
+            }
+        }
+    }
+
+    /**
+     * Reads a whole ResultSet into a single result.
+     *
+     * @param <T> The type of result produced.
+     */
+    private interface ResultReader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+}
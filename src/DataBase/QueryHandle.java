@@ -0,0 +1,68 @@
+package DataBase;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the QueryHandle class. A screen creates one for a query it may want to stop, passes it to the DAO, and
+ * calls cancel to stop the query while it is running. Cancelling calls Statement.cancel on the running statement,
+ * which makes the database abandon the query and frees the connection it holds. */
+public class QueryHandle {
+
+    private Statement running;
+    private boolean cancelled;
+
+    /**
+     * Cancels the query. If it is running, the database is asked to stop it; if it has not started yet, it is
+     * cancelled as soon as it starts. The statement is cancelled while holding the handle's monitor, which finished also
+     * takes, so the cancel cannot reach the connection after the query has finished and it has been given back to the
+     * pool for another query.
+     */
+    public synchronized void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        if (running != null) {
+            try {
+                running.cancel();
+            }
+            catch (SQLException e) {
+                System.out.println("Error: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Checks whether cancel has been called.
+     *
+     * @return `true` if the query was cancelled, `false` otherwise.
+     */
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Records the statement that is about to run so cancel can reach it.
+     *
+     * @param statement The statement about to be executed.
+     * @throws SQLException If the query was already cancelled.
+     */
+    synchronized void started(Statement statement) throws SQLException {
+        if (cancelled) {
+            throw new SQLException("Query was cancelled.", "70100");
+        }
+        running = statement;
+    }
+
+    /**
+     * Clears the running statement once the query has finished, so a late cancel does not reach a statement that
+     * has been reused by another query. Must be called before the connection is released; it waits for a cancel in
+     * progress to complete.
+     */
+    synchronized void finished() {
+        running = null;
+    }
+}
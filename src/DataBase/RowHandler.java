@@ -0,0 +1,15 @@
+package DataBase;
+
+import java.io.IOException;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * Interface for the row handler lambda expression. A RowHandler receives the rows of a streamed query one at a time,
+ * as QueryExecutor.stream reads them from the server.
+ *
+ * @param <T> The type of object built from each row.
+ */
+public interface RowHandler<T> {
+    void handle(T row) throws IOException;
+}
@@ -0,0 +1,30 @@
+package DataBase;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * Interface for the RowMapper lambda expression used by QueryExecutor. A RowMapper turns the current row of a
+ * ResultSet into a model object, so the column mapping for a model is written once and shared by every query
+ * that returns it. A RowMapper that looks columns up by position can override forResultSet to resolve the column
+ * positions once per ResultSet instead of once per row.
+ *
+ * @param <T> The type of object built from each row.
+ */
+public interface RowMapper<T> {
+    T mapRow(ResultSet rs) throws SQLException;
+
+    /**
+     * Returns the mapper to use for every row of the given ResultSet. QueryExecutor calls this once before reading
+     * the first row.
+     *
+     * @param rs The ResultSet about to be read.
+     * @return A mapper for the rows of this ResultSet; by default this mapper itself.
+     * @throws SQLException If the ResultSet's columns cannot be read.
+     */
+    default RowMapper<T> forResultSet(ResultSet rs) throws SQLException {
+        return this;
+    }
+}
@@ -0,0 +1,267 @@
+package DataBase;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * The Abstract Class for SchemaMigrations. This brings the client_schedule schema up to date with the code by running
+ * each Migration whose version is not yet recorded in the schema_history table, in version order, and then recording
+ * it with its checksum. Migrations are only ever added to the end of the list, never changed: an applied SQL migration
+ * whose checksum no longer matches stops the run, so every database passes through the same versions.
+ *
+ * Clients starting at the same time take turns through a MySQL named lock held by the migrating connection, and read
+ * the history only once they hold it, so each migration runs once. Statements run without a timeout, since building an
+ * index on a large table can take longer than any query class allows. MySQL commits DDL as it runs it, so a migration
+ * that fails part way is not recorded and its statements must be safe to run again; an index that already exists is
+ * taken as created.
+ *
+ * A dry run prints the migrations that would run, with their statements, and changes nothing. */
+public abstract class SchemaMigrations {
+
+    private static final String createHistorySql = "CREATE TABLE IF NOT EXISTS schema_history (\n" +
+            "Version INT NOT NULL PRIMARY KEY,\n" +
+            "Description VARCHAR(200) NOT NULL,\n" +
+            "Checksum BIGINT NULL,\n" +
+            "Execution_Millis BIGINT NOT NULL DEFAULT 0,\n" +
+            "Installed_On TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP);";
+    //schema_history was first created without these columns
+    private static final String upgradeHistorySql = "ALTER TABLE schema_history\n" +
+            "ADD COLUMN Checksum BIGINT NULL AFTER Description,\n" +
+            "ADD COLUMN Execution_Millis BIGINT NOT NULL DEFAULT 0 AFTER Checksum;";
+    private static final String historySql = "SELECT Version, Checksum FROM schema_history;";
+    private static final String insertHistorySql = "INSERT INTO schema_history (Version, Description, Checksum, Execution_Millis) VALUES(?, ?, ?, ?);";
+    private static final String lockName = "client_schedule.schema_migrations";
+    private static final int lockTimeoutSeconds = 120;
+    private static final int duplicateKeyNameError = 1061;
+    private static final int duplicateColumnError = 1060;
+    private static final int noSuchTableError = 1146;
+
+    private static final List<Migration> migrations = List.of(
+            new Migration(1, "Indexes for appointment range, overlap and report queries",
+                    "CREATE INDEX appointments_customer_start_end ON appointments (Customer_ID, Start, End);",
+                    "CREATE INDEX appointments_contact_start ON appointments (Contact_ID, Start);",
+                    "CREATE INDEX appointments_location_start ON appointments (Location, Start);",
+                    "CREATE INDEX appointments_type_start ON appointments (Type, Start);",
+                    "CREATE INDEX appointments_start ON appointments (Start);"),
+            new Migration(2, "Tombstones of deleted rows for DeltaSync",
+                    "CREATE TABLE IF NOT EXISTS deleted_rows (\n" +
+                    "Deleted_ID BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,\n" +
+                    "Table_Name VARCHAR(50) NOT NULL,\n" +
+                    "Row_ID INT NOT NULL,\n" +
+                    "Deleted_At TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,\n" +
+                    "INDEX deleted_rows_deleted_at (Deleted_At));"),
+            new Migration(3, "Recurring appointment series",
+                    "CREATE TABLE IF NOT EXISTS appointment_series (\n" +
+                    "Series_ID INT NOT NULL AUTO_INCREMENT PRIMARY KEY,\n" +
+                    "Title VARCHAR(50), Description VARCHAR(50), Location VARCHAR(50), Type VARCHAR(50),\n" +
+                    "Start DATETIME NOT NULL, End DATETIME NOT NULL,\n" +
+                    "Frequency VARCHAR(10) NOT NULL, Repeat_Interval INT NOT NULL DEFAULT 1,\n" +
+                    "Occurrence_Count INT NOT NULL DEFAULT 0, Until DATE NULL, Exceptions TEXT,\n" +
+                    "Customer_ID INT NOT NULL, User_ID INT NOT NULL, Contact_ID INT NOT NULL,\n" +
+                    "Last_Update TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,\n" +
+                    "INDEX appointment_series_customer (Customer_ID));"),
+            new Migration(4, "Indexes for the schedule table's sort orders",
+                    "CREATE INDEX appointments_title ON appointments (Title);",
+                    "CREATE INDEX appointments_description ON appointments (Description);",
+                    "CREATE INDEX appointments_location ON appointments (Location);",
+                    "CREATE INDEX appointments_type ON appointments (Type);",
+                    "CREATE INDEX appointments_end ON appointments (End);",
+                    "CREATE INDEX appointments_customer ON appointments (Customer_ID);",
+                    "CREATE INDEX appointments_user ON appointments (User_ID);")
+    );
+
+    /**
+     * Runs every migration not yet applied to the database, or prints them in a dry run. Called once the database
+     * connection is open and before the application is launched.
+     *
+     * @param dryRun `true` to print the pending migrations without running them.
+     * @return `true` if the schema is up to date, or in a dry run if the pending migrations could be listed.
+     */
+    public static boolean migrate(boolean dryRun) {
+        Connection connection;
+        try {
+            connection = JDBC.getConnection();
+        } catch (SQLException e) {
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        }
+        boolean broken = false;
+        try {
+            if (dryRun) {
+                printPlan(pending(connection));
+                return true;
+            }
+            lock(connection);
+            try {
+                execute(connection, createHistorySql);
+                execute(connection, upgradeHistorySql, duplicateColumnError);
+                for (Migration migration : pending(connection)) {
+                    apply(connection, migration);
+                    System.out.println("Applied migration " + migration.getVersion() + ": " + migration.getDescription());
+                }
+            } finally {
+                unlock(connection);
+            }
+            return true;
+        } catch (SQLException e) {
+            broken = JDBC.isConnectionError(e);
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        } finally {
+            if (broken) {
+                JDBC.discardConnection(connection);
+            } else {
+                JDBC.releaseConnection(connection);
+            }
+        }
+    }
+
+    /**
+     * Lists the migrations not yet recorded in the schema history, after checking the applied ones have not changed.
+     *
+     * @param connection The migrating connection.
+     * @return The pending migrations in version order.
+     * @throws SQLException If the history cannot be read or an applied migration has changed.
+     */
+    private static List<Migration> pending(Connection connection) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(historySql)) {
+            while (rs.next()) {
+                long checksum = rs.getLong(2);
+                applied.put(rs.getInt(1), rs.wasNull() ? null : checksum);
+            }
+        } catch (SQLException e) {
+            //A dry run against a database that has never been migrated
+            if (e.getErrorCode() != noSuchTableError) {
+                throw e;
+            }
+        }
+        List<Migration> pending = new ArrayList<>();
+        for (Migration migration : migrations) {
+            if (!applied.containsKey(migration.getVersion())) {
+                pending.add(migration);
+                continue;
+            }
+            Long recorded = applied.get(migration.getVersion());
+            Long checksum = migration.getChecksum();
+            if (recorded != null && checksum != null && !Objects.equals(recorded, checksum)) {
+                throw new SQLException("Migration " + migration.getVersion() + " has changed since it was applied.");
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Runs one migration and records it in the schema history.
+     *
+     * @param connection The migrating connection.
+     * @param migration The migration.
+     * @throws SQLException If the migration fails or cannot be recorded.
+     */
+    private static void apply(Connection connection, Migration migration) throws SQLException {
+        long started = System.nanoTime();
+        if (migration.getTask() != null) {
+            migration.getTask().run(connection);
+        } else {
+            for (String sql : migration.getStatements()) {
+                execute(connection, sql, duplicateKeyNameError);
+            }
+        }
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        QueryExecutor.update(connection, insertHistorySql, migration.getVersion(), migration.getDescription(),
+                migration.getChecksum(), millis);
+    }
+
+    /**
+     * Runs one statement without a timeout.
+     *
+     * @param connection The migrating connection.
+     * @param sql The SQL text of the statement.
+     * @throws SQLException If the statement fails.
+     */
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    /**
+     * Runs one statement without a timeout, ignoring one error.
+     *
+     * @param connection The migrating connection.
+     * @param sql The SQL text of the statement.
+     * @param ignoredError A MySQL error code meaning the change is already in place.
+     * @throws SQLException If the statement fails with any other error.
+     */
+    private static void execute(Connection connection, String sql, int ignoredError) throws SQLException {
+        try {
+            execute(connection, sql);
+        } catch (SQLException e) {
+            if (e.getErrorCode() != ignoredError) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Takes the migration lock for the connection's session, waiting for another client's migrations to finish.
+     *
+     * @param connection The migrating connection.
+     * @throws SQLException If the lock is not granted within lockTimeoutSeconds.
+     */
+    private static void lock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT GET_LOCK(?, ?);")) {
+            ps.setString(1, lockName);
+            ps.setInt(2, lockTimeoutSeconds);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another client to finish migrating the schema.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases the migration lock. A failure is only reported, since MySQL releases the lock when the session ends.
+     *
+     * @param connection The migrating connection.
+     */
+    private static void unlock(Connection connection) {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT RELEASE_LOCK(?);")) {
+            ps.setString(1, lockName);
+            ps.executeQuery().close();
+        } catch (SQLException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Prints the migrations a real run would apply.
+     *
+     * @param pending The pending migrations.
+     */
+    private static void printPlan(List<Migration> pending) {
+        if (pending.isEmpty()) {
+            System.out.println("Schema is up to date.");
+        }
+        for (Migration migration : pending) {
+            System.out.println("Pending migration " + migration.getVersion() + ": " + migration.getDescription());
+            if (migration.getTask() != null) {
+                System.out.println("    (Java migration)");
+            }
+            for (String sql : migration.getStatements()) {
+                System.out.println("    " + sql.replace("\n", "\n    "));
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package DataBase;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the SlowQueryLog class. QueryExecutor records every query that hits its statement timeout or is cancelled
+ * by the user, counted per SQL text, so the reports that need tuning can be found. Each event is also printed to the
+ * console. */
+public abstract class SlowQueryLog {
+
+    private static final ConcurrentHashMap<String, LongAdder> timeouts = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, LongAdder> cancellations = new ConcurrentHashMap<>();
+
+    /**
+     * Records a query that was stopped by its statement timeout.
+     *
+     * @param sql The SQL text of the query.
+     * @param queryClass The class of the query, which determined its timeout.
+     * @param elapsedMillis How long the query ran before it was stopped.
+     */
+    static void recordTimeout(String sql, QueryClass queryClass, long elapsedMillis)
+    {
+        timeouts.computeIfAbsent(sql, k -> new LongAdder()).increment();
+        System.out.println("Query timed out after " + elapsedMillis + " ms (" + queryClass + " limit " +
+                queryClass.getTimeoutSeconds() + " s): " + oneLine(sql));
+    }
+
+    /**
+     * Records a query that was cancelled through its QueryHandle.
+     *
+     * @param sql The SQL text of the query.
+     * @param elapsedMillis How long the query ran before it was cancelled.
+     */
+    static void recordCancellation(String sql, long elapsedMillis)
+    {
+        cancellations.computeIfAbsent(sql, k -> new LongAdder()).increment();
+        System.out.println("Query cancelled after " + elapsedMillis + " ms: " + oneLine(sql));
+    }
+
+    /**
+     * Returns the number of timeouts recorded for each SQL text.
+     *
+     * @return A map from SQL text to timeout count, sorted by SQL text.
+     */
+    public static Map<String, Long> getTimeouts() {
+        return snapshot(timeouts);
+    }
+
+    /**
+     * Returns the number of cancellations recorded for each SQL text.
+     *
+     * @return A map from SQL text to cancellation count, sorted by SQL text.
+     */
+    public static Map<String, Long> getCancellations() {
+        return snapshot(cancellations);
+    }
+
+    /**
+     * Copies a set of counters into a sorted map.
+     *
+     * @param counters The counters to copy.
+     * @return The counter values keyed by SQL text.
+     */
+    private static Map<String, Long> snapshot(ConcurrentHashMap<String, LongAdder> counters)
+    {
+        Map<String, Long> copy = new TreeMap<>();
+        counters.forEach((sql, count) -> copy.put(sql, count.sum()));
+        return copy;
+    }
+
+    /**
+     * Collapses the whitespace of a SQL text so it prints on one line.
+     *
+     * @param sql The SQL text.
+     * @return The SQL text on a single line.
+     */
+    private static String oneLine(String sql)
+    {
+        return sql.replaceAll("\\s+", " ").trim();
+    }
+}
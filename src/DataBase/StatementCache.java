@@ -0,0 +1,93 @@
+package DataBase;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the StatementCache class. Each pooled connection owns one; it keeps a bounded, least-recently-used set of
+ * prepared statements keyed by SQL text so repeated DAO queries reuse the statement the driver already prepared.
+ * A statement pushed out of the cache is closed so its server-side handle is released. */
+class StatementCache {
+
+    private final Connection connection;
+    private final int maxSize;
+    private final StatementCacheStats stats;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    /**
+     * Constructs an empty StatementCache for one connection.
+     *
+     * @param connection The connection the statements are prepared on.
+     * @param maxSize The largest number of statements kept open.
+     * @param stats The shared counters that hits, misses and evictions are recorded in.
+     */
+    StatementCache(Connection connection, int maxSize, StatementCacheStats stats)
+    {
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.stats = stats;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > StatementCache.this.maxSize) {
+                    closeQuietly(eldest.getValue());
+                    stats.recordEviction();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached statement for the given SQL, preparing and caching it on a miss. Parameters left over from a
+     * previous use are cleared. Callers must not close the returned statement.
+     *
+     * @param sql The SQL text to prepare.
+     * @return A prepared statement for the SQL.
+     * @throws SQLException If the driver cannot prepare the statement.
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement ps = statements.get(sql);
+        if (ps != null && !ps.isClosed()) {
+            stats.recordHit(sql);
+            ps.clearParameters();
+            return ps;
+        }
+        stats.recordMiss(sql);
+        ps = connection.prepareStatement(sql);
+        statements.put(sql, ps);
+        return ps;
+    }
+
+    /**
+     * Closes every cached statement and empties the cache.
+     */
+    void clear()
+    {
+        for (PreparedStatement ps : statements.values()) {
+            closeQuietly(ps);
+        }
+        statements.clear();
+    }
+
+    /**
+     * Closes a statement, ignoring any error raised by the driver.
+     *
+     * @param ps The statement to close.
+     */
+    private static void closeQuietly(PreparedStatement ps)
+    {
+        try {
+            ps.close();
+        }
+        catch (SQLException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package DataBase;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the StatementCacheStats class. It counts prepared statement cache hits, misses and evictions across every
+ * pooled connection, both in total and for each SQL text, so the gain on individual DAO queries can be read at runtime. */
+public class StatementCacheStats {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> hitsBySql = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> missesBySql = new ConcurrentHashMap<>();
+
+    /**
+     * Records that a statement for the given SQL was found in a connection's cache.
+     *
+     * @param sql The SQL text of the statement.
+     */
+    void recordHit(String sql)
+    {
+        hits.increment();
+        hitsBySql.computeIfAbsent(sql, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Records that a statement for the given SQL had to be prepared by the driver.
+     *
+     * @param sql The SQL text of the statement.
+     */
+    void recordMiss(String sql)
+    {
+        misses.increment();
+        missesBySql.computeIfAbsent(sql, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Records that a cached statement was closed to make room for another one.
+     */
+    void recordEviction()
+    {
+        evictions.increment();
+    }
+
+    /**
+     * Returns the total number of cache hits.
+     *
+     * @return The hit count.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the total number of cache misses.
+     *
+     * @return The miss count.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the total number of statements evicted from the caches.
+     *
+     * @return The eviction count.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of cache hits for one SQL text.
+     *
+     * @param sql The SQL text of the statement.
+     * @return The hit count for that statement.
+     */
+    public long getHits(String sql) {
+        LongAdder count = hitsBySql.get(sql);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Returns the number of cache misses for one SQL text.
+     *
+     * @param sql The SQL text of the statement.
+     * @return The miss count for that statement.
+     */
+    public long getMisses(String sql) {
+        LongAdder count = missesBySql.get(sql);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Builds a one-line summary of the cache counters, suitable for logging.
+     *
+     * @return A summary of the statement cache statistics.
+     */
+    @Override
+    public String toString() {
+        return "hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions();
+    }
+}
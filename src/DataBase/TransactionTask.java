@@ -0,0 +1,16 @@
+package DataBase;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * Interface for the transaction lambda expression. A TransactionTask runs its statements on the connection given to
+ * it by QueryExecutor.transaction, which commits them together when it returns and rolls them back if it throws.
+ *
+ * @param <T> The type of result produced by the task.
+ */
+public interface TransactionTask<T> {
+    T run(Connection connection) throws SQLException;
+}
@@ -1,7 +1,9 @@
 package controller;
 
 import DAO.*;
+import DataBase.AsyncExecutor;
 import DataBase.DataLists;
+import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -10,16 +12,21 @@ import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
+import javafx.scene.control.ChoiceDialog;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.DatePicker;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
+import model.AppointmentSeries;
+import model.RecurrenceFrequency;
 
 import java.io.IOException;
 import java.net.URL;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ResourceBundle;
 
 
@@ -31,9 +38,12 @@ import java.util.ResourceBundle;
  */
 public class AddAppointmentController implements Initializable
 {
-    @FXML private ComboBox typebox, locationbox, contactbox, starttimebox, endtimebox, customerbox, userIdbox;
+    private static final int freeSlotCount = 5;
+    private static final int shownSeriesProblems = 10;
+
+    @FXML private ComboBox typebox, locationbox, contactbox, starttimebox, endtimebox, customerbox, userIdbox, repeatbox;
     @FXML private DatePicker PickEndDate, PickStartDate;
-    @FXML private TextField titlefield, descriptionfield;
+    @FXML private TextField titlefield, descriptionfield, repeatcountfield;
 
     /**
      * Initializes the Add Appointment screen. Invoked at screen launch, populates combo boxes.
@@ -43,26 +53,23 @@ public class AddAppointmentController implements Initializable
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
 
-        try {
-            populateComboBoxes();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        populateComboBoxes();
     }
 
     /**
      * Populates the form's combo boxes. Utilizes ObservableLists for each combo box's content.
-     * @throws SQLException If SQL database access fails
+     * Contacts, customers and users are loaded from the database in the background.
      */
-    public void populateComboBoxes() throws SQLException {
+    public void populateComboBoxes() {
         // Setting items for all combo boxes
         locationbox.setItems(DataLists.getPlaces());
-        contactbox.setItems(ContactDAO.getContactNames());
+        AsyncDAO.getContactNames().thenAccept(contacts -> contactbox.setItems(contacts)).exceptionally(AsyncExecutor::printError);
         typebox.setItems(DataLists.getTypes());
         starttimebox.setItems(DataLists.getTimes());
         endtimebox.setItems(DataLists.getTimes());
-        customerbox.setItems(CustomerDAO.getCustomerIds());
-        userIdbox.setItems(UserDAO.getUsers());
+        AsyncDAO.getCustomerIds().thenAccept(customerIds -> customerbox.setItems(customerIds)).exceptionally(AsyncExecutor::printError);
+        AsyncDAO.getUsers().thenAccept(users -> userIdbox.setItems(users)).exceptionally(AsyncExecutor::printError);
+        repeatbox.setItems(FXCollections.observableArrayList("None", "Daily", "Weekly", "Monthly"));
     }
 
     /**
@@ -108,6 +115,8 @@ public class AddAppointmentController implements Initializable
         customerbox.setValue(null);
         userIdbox.setValue(null);
         contactbox.setValue(null);
+        repeatbox.setValue(null);
+        repeatcountfield.setText("");
     }
 
     /**
@@ -169,6 +178,71 @@ public class AddAppointmentController implements Initializable
         return good;
     }
 
+    /**
+     * Suggests the next free times for the selected customer and contact, and fills the chosen one into the date and
+     * time fields. The length of the chosen start and end times is kept, or one time slot if they are not set. The
+     * search starts from the chosen start date, or from now.
+     */
+    public void findFreeSlots()
+    {
+        if (customerbox.getValue() == null || contactbox.getValue() == null)
+        {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setHeaderText("Check Inputs");
+            alert.setContentText("Select a customer and a contact to find free times.");
+            alert.show();
+            return;
+        }
+        int customerId = Integer.parseInt((String) customerbox.getSelectionModel().getSelectedItem());
+        String contactName = contactbox.getValue().toString();
+
+        Duration duration = Duration.ofMinutes(DataLists.slotMinutes);
+        if (PickStartDate.getValue() != null && starttimebox.getValue() != null && PickEndDate.getValue() != null && endtimebox.getValue() != null)
+        {
+            LocalDateTime ldtStart = LocalDateTime.of(PickStartDate.getValue(), LocalTime.parse(starttimebox.getValue().toString()));
+            LocalDateTime ldtEnd = LocalDateTime.of(PickEndDate.getValue(), LocalTime.parse(endtimebox.getValue().toString()));
+            if (ldtEnd.isAfter(ldtStart))
+            {
+                duration = Duration.between(ldtStart, ldtEnd);
+            }
+        }
+        LocalDateTime from = LocalDateTime.now();
+        if (PickStartDate.getValue() != null && PickStartDate.getValue().atStartOfDay().isAfter(from))
+        {
+            from = PickStartDate.getValue().atStartOfDay();
+        }
+
+        Duration length = duration;
+        AsyncDAO.findFreeSlots(customerId, contactName, duration, from, freeSlotCount)
+                .thenAccept(slots -> {
+                    if (slots.isEmpty())
+                    {
+                        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                        alert.setHeaderText("No Free Times");
+                        alert.setContentText("No free time between 8:00AM - 10:00PM ET was found for this customer and contact.");
+                        alert.show();
+                        return;
+                    }
+                    List<String> choices = new ArrayList<>();
+                    for (LocalDateTime slot : slots)
+                    {
+                        choices.add(DataLists.myFormattedDTF(slot));
+                    }
+                    ChoiceDialog<String> dialog = new ChoiceDialog<>(choices.get(0), choices);
+                    dialog.setHeaderText("Free Times");
+                    dialog.setContentText("Start:");
+                    dialog.showAndWait().ifPresent(choice -> {
+                        LocalDateTime start = slots.get(choices.indexOf(choice));
+                        LocalDateTime end = start.plus(length);
+                        PickStartDate.setValue(start.toLocalDate());
+                        starttimebox.setValue(start.toLocalTime());
+                        PickEndDate.setValue(end.toLocalDate());
+                        endtimebox.setValue(end.toLocalTime());
+                    });
+                })
+                .exceptionally(AsyncExecutor::printError);
+    }
+
     /**
      * Submits the appointment details to the database. Validates input and timing before insertion.
      * Informs the user upon successful addition.
@@ -202,6 +276,14 @@ public class AddAppointmentController implements Initializable
                 int userId = Integer.parseInt((String) userIdbox.getSelectionModel().getSelectedItem());
                 int contactId = ContactDAO.getContactId(contactbox.getValue().toString());
 
+                if (repeatbox.getValue() != null && !repeatbox.getValue().equals("None"))
+                {
+                    RecurrenceFrequency frequency = RecurrenceFrequency.valueOf(repeatbox.getValue().toString().toUpperCase());
+                    AppointmentSeries series = new AppointmentSeries(0, title, description, location, type, ldtStart, ldtEnd, customerId, contactId, userId, frequency, 1);
+                    insertSeries(series);
+                    return;
+                }
+
                 AppointmentDAO.insertAppointment(title, description, location, type, tsStart, tsEnd, customerId, userId, contactId);
 
                 Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -217,6 +299,61 @@ public class AddAppointmentController implements Initializable
     }
 
 
+    /**
+     * Stores a repeating appointment as a series, after checking every occurrence in one pass. The number of
+     * occurrences is taken from the repeat count field.
+     *
+     * @param series The series built from the form, without its count.
+     * @throws SQLException If SQL database access fails
+     */
+    private void insertSeries(AppointmentSeries series) throws SQLException
+    {
+        Alerts error = (d, m) ->
+        {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.show();
+            alert.setHeaderText(d);
+            alert.setContentText(m);
+        };
+        int count;
+        try
+        {
+            count = Integer.parseInt(repeatcountfield.getText().trim());
+        }
+        catch (NumberFormatException e)
+        {
+            count = 0;
+        }
+        if (count < 2)
+        {
+            error.makeAlert("Check Inputs", "Enter how many times the appointment repeats, at least 2.");
+            return;
+        }
+        series.setCount(count);
+
+        List<String> problems = SeriesDAO.validateSeries(series);
+        if (!problems.isEmpty())
+        {
+            StringBuilder message = new StringBuilder();
+            for (int i = 0; i < Math.min(problems.size(), shownSeriesProblems); i++)
+            {
+                message.append(problems.get(i)).append('\n');
+            }
+            if (problems.size() > shownSeriesProblems)
+            {
+                message.append("...and ").append(problems.size() - shownSeriesProblems).append(" more.");
+            }
+            error.makeAlert("Conflicting Times", message.toString());
+            return;
+        }
+        SeriesDAO.insertSeries(series);
+
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.show();
+        alert.setHeaderText("Successfully added.");
+        alert.setContentText(count + " appointments for customer " + series.getCustomerId() + " successfully added.");
+    }
+
     /**
      * Navigates back to the Scheduler Dashboard.
      * @param actionEvent The event triggered by button click
@@ -0,0 +1,207 @@
+package controller;
+
+import DAO.AppointmentFilter;
+import DAO.AsyncDAO;
+import DAO.Delta;
+import DataBase.AsyncExecutor;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+import model.Appointment;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * This is the AppointmentPager class. It feeds a TableView from keyset-paginated appointment queries instead of one
+ * query for the whole table. The rows shown are chosen and ordered by an AppointmentFilter, applied in the database.
+ * Pages are fetched in the background as the user scrolls close to either end of the rows already loaded, and at most
+ * maxPages pages are held at once: loading past the end drops the oldest page from the start, and scrolling back to
+ * the start fetches it again. */
+public class AppointmentPager {
+
+    private static final int pageSize = 200;
+    private static final int maxPages = 3;
+    private static final int prefetchRows = pageSize / 4;
+
+    private final TableView<Appointment> table;
+    private final ObservableList<Appointment> window = FXCollections.observableArrayList();
+    private AppointmentFilter filter = AppointmentFilter.all();
+    private boolean moreAfter;
+    private boolean moreBefore;
+    private boolean loading;
+    private int generation;
+    private int lastShownIndex;
+
+    /**
+     * Constructs an AppointmentPager for a table and installs the row factory that tells it which rows are on screen.
+     *
+     * @param table The table the pages are shown in.
+     */
+    public AppointmentPager(TableView<Appointment> table)
+    {
+        this.table = table;
+        table.setRowFactory(view -> new TableRow<>() {
+            @Override
+            public void updateIndex(int index) {
+                super.updateIndex(index);
+                rowShown(index);
+            }
+        });
+    }
+
+    /**
+     * Returns the rows currently held in memory, which are the table's items while the pager is shown.
+     *
+     * @return The loaded window of appointments.
+     */
+    public ObservableList<Appointment> getWindow() {
+        return window;
+    }
+
+    /**
+     * Returns the filter of the rows currently shown.
+     *
+     * @return The current filter.
+     */
+    public AppointmentFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Shows the pager's rows in the table and loads the first page of a filter, discarding any pages already loaded.
+     *
+     * @param filter The filter and sort order of the rows to show.
+     */
+    public void reload(AppointmentFilter filter)
+    {
+        this.filter = filter;
+        generation++;
+        loading = false;
+        moreBefore = false;
+        window.clear();
+        table.setItems(window);
+        loadAfter(null);
+    }
+
+    /**
+     * Loads the first page of the current filter again.
+     */
+    public void reload()
+    {
+        reload(filter);
+    }
+
+    /**
+     * Applies the appointments changed by other clients to the loaded rows. Deleted and changed rows are removed, and
+     * changed rows that still pass the filter are inserted at their sorted position, unless that position lies outside
+     * the loaded pages, in which case they are fetched with the page they belong to.
+     *
+     * @param delta The appointments changed since the last refresh.
+     */
+    public void apply(Delta<Appointment> delta)
+    {
+        Set<Integer> removed = new HashSet<>(delta.getDeletedIds());
+        for (Appointment appointment : delta.getChanged()) {
+            removed.add(appointment.getAppointmentId());
+        }
+        window.removeIf(appointment -> removed.contains(appointment.getAppointmentId()));
+
+        Comparator<Appointment> order = filter.comparator();
+        for (Appointment appointment : delta.getChanged()) {
+            if (!filter.matches(appointment)) {
+                continue;
+            }
+            int index = Collections.binarySearch(window, appointment, order);
+            index = index < 0 ? -index - 1 : index;
+            if ((index == 0 && moreBefore) || (index == window.size() && moreAfter)) {
+                continue;
+            }
+            window.add(index, appointment);
+        }
+    }
+
+    /**
+     * Called by the table rows when they display an index. Starts loading the next or previous page when the index
+     * is within prefetchRows of either end of the loaded rows.
+     *
+     * @param index The index of the row now displayed, or -1 for an empty row.
+     */
+    private void rowShown(int index)
+    {
+        if (index < 0 || loading || table.getItems() != window) {
+            return;
+        }
+        lastShownIndex = index;
+        if (moreAfter && index >= window.size() - prefetchRows) {
+            loadAfter(window.get(window.size() - 1));
+        } else if (moreBefore && index < prefetchRows) {
+            loadBefore(window.get(0));
+        }
+    }
+
+    /**
+     * Loads the page after the given appointment and appends it, dropping pages from the start if the window is full.
+     *
+     * @param last The last loaded appointment, or null for the first page.
+     */
+    private void loadAfter(Appointment last)
+    {
+        loading = true;
+        int requested = generation;
+        AsyncDAO.getAppointmentsAfter(filter, last, pageSize)
+                .thenAccept(page -> {
+                    if (requested != generation) {
+                        return;
+                    }
+                    loading = false;
+                    moreAfter = page.size() == pageSize;
+                    window.addAll(page);
+                    int excess = window.size() - pageSize * maxPages;
+                    if (excess > 0) {
+                        window.remove(0, excess);
+                        moreBefore = true;
+                        table.scrollTo(Math.max(0, lastShownIndex - excess));
+                    }
+                })
+                .exceptionally(e -> {
+                    loading = false;
+                    return AsyncExecutor.printError(e);
+                });
+    }
+
+    /**
+     * Loads the page before the given appointment and prepends it, dropping pages from the end if the window is full.
+     *
+     * @param first The first loaded appointment.
+     */
+    private void loadBefore(Appointment first)
+    {
+        loading = true;
+        int requested = generation;
+        AsyncDAO.getAppointmentsBefore(filter, first, pageSize)
+                .thenAccept(page -> {
+                    if (requested != generation) {
+                        return;
+                    }
+                    loading = false;
+                    moreBefore = page.size() == pageSize;
+                    window.addAll(0, page);
+                    int excess = window.size() - pageSize * maxPages;
+                    if (excess > 0) {
+                        window.remove(window.size() - excess, window.size());
+                        moreAfter = true;
+                    }
+                    table.scrollTo(lastShownIndex + page.size());
+                })
+                .exceptionally(e -> {
+                    loading = false;
+                    return AsyncExecutor.printError(e);
+                });
+    }
+}
@@ -0,0 +1,73 @@
+package controller;
+
+import DataBase.DataLists;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.util.Callback;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * The Abstract Class for CellFactories. This builds the cell value factories and cell factories of the TableViews from
+ * typed getters, in place of PropertyValueFactory, which looks the getter up by reflection for every cell it renders.
+ * Date and time cells share one DateTimeFormatter, and the text of each date and time shown is kept, since appointment
+ * times repeat on the half-hour grid. */
+public abstract class CellFactories {
+
+    private static final int maxCachedTimes = 4096;
+    private static final Map<LocalDateTime, String> formattedTimes = new HashMap<>();
+
+    /**
+     * Creates a cell value factory that reads a column's value with a getter.
+     *
+     * @param getter The getter of the row object, such as Appointment::getTitle.
+     * @param <S> The type of the rows.
+     * @param <T> The type of the column's values.
+     * @return The cell value factory.
+     */
+    public static <S, T> Callback<TableColumn.CellDataFeatures<S, T>, ObservableValue<T>> of(Function<S, T> getter) {
+        return features -> new ReadOnlyObjectWrapper<>(getter.apply(features.getValue()));
+    }
+
+    /**
+     * Creates a cell factory for date and time columns, which shows values in the format of DataLists.myFormattedDTF.
+     *
+     * @param <S> The type of the rows.
+     * @return The cell factory.
+     */
+    public static <S> Callback<TableColumn<S, LocalDateTime>, TableCell<S, LocalDateTime>> dateTime() {
+        return column -> new TableCell<>() {
+            @Override
+            protected void updateItem(LocalDateTime item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : format(item));
+            }
+        };
+    }
+
+    /**
+     * Formats a date and time, reusing the text of values already shown. Cells are only updated on the JavaFX
+     * application thread, so the cache is not locked; it is emptied when it grows past maxCachedTimes.
+     *
+     * @param dateTime The date and time.
+     * @return The formatted text.
+     */
+    private static String format(LocalDateTime dateTime) {
+        String text = formattedTimes.get(dateTime);
+        if (text == null) {
+            if (formattedTimes.size() >= maxCachedTimes) {
+                formattedTimes.clear();
+            }
+            text = DataLists.dateTimeFormat.format(dateTime);
+            formattedTimes.put(dateTime, text);
+        }
+        return text;
+    }
+}
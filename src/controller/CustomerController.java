@@ -1,8 +1,12 @@
 package controller;
 
+import DAO.AsyncDAO;
 import DAO.CountryDAO;
 import DAO.CustomerDAO;
+import DAO.Delta;
+import DAO.DeltaSync;
 import DAO.FirstLevelDivisionDAO;
+import DataBase.AsyncExecutor;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -16,13 +20,14 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 import model.Customer;
 
 import java.io.IOException;
 import java.net.URL;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.ResourceBundle;
 
 /**
@@ -40,18 +45,43 @@ public class CustomerController implements Initializable
 
     /**
      * Initializes the Customer view. Called at launch, it prepares the list of Customers and populates the TableView.
+     * Customers are loaded in the background and shown once they arrive.
      * @param url The URL for initialization
      * @param resourceBundle The resource bundle for initialization
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
 
-        try {
-            allCustomers = CustomerDAO.getCustomers();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
         populateTable();
+        AsyncDAO.getCustomers()
+                .thenAccept(customers -> {
+                    allCustomers = customers;
+                    populateTable();
+                })
+                .exceptionally(AsyncExecutor::printError);
+        DeltaSync.watch(null, this::applyDelta);
+    }
+
+    /**
+     * Applies the customers changed by other clients to the TableView. Changed customers replace their row or are
+     * appended if they are new, and deleted customers are removed.
+     *
+     * @param delta The customers changed since the last refresh.
+     */
+    private void applyDelta(Delta<Customer> delta)
+    {
+        Map<Integer, Customer> changed = new LinkedHashMap<>();
+        for (Customer customer : delta.getChanged()) {
+            changed.put(customer.getCustomerId(), customer);
+        }
+        allCustomers.removeIf(customer -> delta.getDeletedIds().contains(customer.getCustomerId()));
+        for (int i = 0; i < allCustomers.size(); i++) {
+            Customer replacement = changed.remove(allCustomers.get(i).getCustomerId());
+            if (replacement != null) {
+                allCustomers.set(i, replacement);
+            }
+        }
+        allCustomers.addAll(changed.values());
     }
 
     /**
@@ -60,13 +90,13 @@ public class CustomerController implements Initializable
     public void populateTable(){
         TableCustomer.setItems(allCustomers);
         // Setting up each column
-        ColCustomerID.setCellValueFactory(new PropertyValueFactory<>("customerId"));
-        ColCustomerName.setCellValueFactory(new PropertyValueFactory<>("name"));
-        ColAddress.setCellValueFactory(new PropertyValueFactory<>("address"));
-        ColPostalCode.setCellValueFactory(new PropertyValueFactory<>("postalCode"));
-        ColPhone.setCellValueFactory(new PropertyValueFactory<>("phone"));
-        ColDivisionName.setCellValueFactory(new PropertyValueFactory<>("divisionName"));
-        ColCountry.setCellValueFactory(new PropertyValueFactory<>("country"));
+        ColCustomerID.setCellValueFactory(CellFactories.of(Customer::getCustomerId));
+        ColCustomerName.setCellValueFactory(CellFactories.of(Customer::getName));
+        ColAddress.setCellValueFactory(CellFactories.of(Customer::getAddress));
+        ColPostalCode.setCellValueFactory(CellFactories.of(Customer::getPostalCode));
+        ColPhone.setCellValueFactory(CellFactories.of(Customer::getPhone));
+        ColDivisionName.setCellValueFactory(CellFactories.of(Customer::getDivisionName));
+        ColCountry.setCellValueFactory(CellFactories.of(Customer::getCountry));
     }
 
     /**
@@ -103,7 +133,7 @@ public class CustomerController implements Initializable
             Alert alert = new Alert(Alert.AlertType.ERROR);
             alert.show();
             alert.setHeaderText("Error");
-            alert.setContentText("Customer appointment needs to be deleted first.");
+            alert.setContentText("Customer appointments and series need to be deleted first.");
             return;
         }
         else {
@@ -1,6 +1,7 @@
 package controller;
 
 import DAO.AppointmentDAO;
+import DAO.LoginActivityLog;
 import DataBase.DataLists;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -12,12 +13,12 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 import model.Appointment;
+import model.LoginAttempt;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.net.URL;
 import java.sql.SQLException;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Locale;
@@ -83,26 +84,14 @@ public class LoginController implements Initializable {
     }
 
     /**
-     * Records login attempts, both successful and unsuccessful, to a file with timestamps.
+     * Records login attempts, both successful and unsuccessful, with timestamps. The attempt is handed to
+     * LoginActivityLog, which writes it to the LoginActivityStore in the background so the login screen never waits
+     * for the disk.
      * @param userAttempt Username used in the login attempt
      * @param attempt Result of the login attempt
      */
-    public void recordActivity(String userAttempt, String attempt) throws IOException {
-        LocalDateTime myLDT = LocalDateTime.now();
-        String loginAttemptTime = DataLists.myFormattedDTF(myLDT);
-        String loginActivity = "Login by \"" + userAttempt + "\" was " + attempt + " at " + loginAttemptTime + " " + myZoneId.toString();
-
-        // Filename variable
-        String fileName = "login_activity.txt";
-
-        // create filewriter object, creats and open files, write and close
-        try (FileWriter fWriter = new FileWriter(fileName, true);
-             PrintWriter outputFile = new PrintWriter(fWriter)) {
-            outputFile.println(loginActivity);
-        } // Both outputFile and fWriter are closed here, even if an exception is thrown.
-        catch (IOException e) {
-            // Log the exception to the console
-            e.printStackTrace(); }
+    public void recordActivity(String userAttempt, String attempt) {
+        LoginActivityLog.record(new LoginAttempt(userAttempt, attempt.equals("login successful"), Instant.now(), myZoneId));
     }
 
     /**
@@ -122,7 +111,9 @@ public class LoginController implements Initializable {
             Alert alert = new Alert(Alert.AlertType.INFORMATION);
             alert.show();
             alert.setHeaderText("Upcoming Appointment");
-            alert.setContentText("Appointment ID: " + nextAppointment.getAppointmentId() + " on " + DataLists.myFormattedDTF(nextAppointment.getStartTime()));
+            String id = nextAppointment.getSeriesId() == 0
+                    ? "Appointment ID: " + nextAppointment.getAppointmentId() : "Series ID: " + nextAppointment.getSeriesId();
+            alert.setContentText(id + " on " + DataLists.myFormattedDTF(nextAppointment.getStartTime()));
         }
     }
 
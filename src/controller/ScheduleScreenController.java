@@ -1,8 +1,14 @@
 package controller;
 
-import DAO.AppointmentDAO;
-import DAO.ContactDAO;
+import DAO.AppointmentFilter;
+import DAO.AsyncDAO;
+import DAO.DeltaSync;
+import DAO.ExportFormat;
+import DAO.ExportResult;
+import DAO.PageOrder;
+import DataBase.AsyncExecutor;
 import DataBase.DataLists;
+import DataBase.QueryHandle;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -13,14 +19,22 @@ import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import model.Appointment;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  *
@@ -35,12 +49,22 @@ public class ScheduleScreenController implements Initializable
     @FXML public ComboBox ComboBoxType, ComboBoxMonth, ComboBoxContact, ComboBoxLocation;
     @FXML public Button MonthButtonType;
     @FXML public RadioButton RadioAllApp, RadioMonthApp, RadioWeekApp;
-    @FXML public TableColumn ContactColAppID, ContactColTitle, ContactColDescription, ContactColLocation, ContactColContact, ContactColType, ContactColStart, ContactColEnd, ContactColCustomerID, ContactColUserID;
-    @FXML public TableColumn MonthReport, TypeReport, CountColumn;
-    @FXML public TableColumn CustomColAppID, CustomColTitle, CustomColDescription, CustomColLocation, CustomColContact, CustomColType, CustomColStart, CustomColEnd, CustomColCustomerID, CustomColUserID;
-    @FXML public TableColumn ColAppID, ColTitle, ColDescription, ColLocation, ColContact, ColType, ColStart, ColEnd, ColCustomerID, ColUserID;
+    @FXML public TableColumn<Appointment, Integer> ContactColAppID, ContactColCustomerID, ContactColUserID;
+    @FXML public TableColumn<Appointment, String> ContactColTitle, ContactColDescription, ContactColLocation, ContactColContact, ContactColType;
+    @FXML public TableColumn<Appointment, LocalDateTime> ContactColStart, ContactColEnd;
+    @FXML public TableColumn<Appointment, String> MonthReport, TypeReport;
+    @FXML public TableColumn<Appointment, Integer> CountColumn;
+    @FXML public TableColumn<Appointment, Integer> CustomColAppID, CustomColCustomerID, CustomColUserID;
+    @FXML public TableColumn<Appointment, String> CustomColTitle, CustomColDescription, CustomColLocation, CustomColContact, CustomColType;
+    @FXML public TableColumn<Appointment, LocalDateTime> CustomColStart, CustomColEnd;
+    @FXML public TableColumn<Appointment, Integer> ColAppID, ColCustomerID, ColUserID;
+    @FXML public TableColumn<Appointment, String> ColTitle, ColDescription, ColLocation, ColContact, ColType;
+    @FXML public TableColumn<Appointment, LocalDateTime> ColStart, ColEnd;
 
     public ObservableList<Appointment> allAppointments = FXCollections.observableArrayList();
+    private QueryHandle runningReport;
+    private AppointmentPager appointmentPager;
+    private final Map<TableColumn<Appointment, ?>, PageOrder> columnOrders = new HashMap<>();
 
     /**
      * Lambda expression to streamline the setting of table columns, reducing redundancy.
@@ -48,53 +72,105 @@ public class ScheduleScreenController implements Initializable
     TableColumns columnSetter = (a, t, d, l, c, t2, st, et, cId, uId) ->
     {
         // Logic to set table columns
-        ColAppID.setCellValueFactory(new PropertyValueFactory<>(a));
-        ColTitle.setCellValueFactory(new PropertyValueFactory<>(t));
-        ColDescription.setCellValueFactory(new PropertyValueFactory<>(d));
-        ColLocation.setCellValueFactory(new PropertyValueFactory<>(l));
-        ColContact.setCellValueFactory(new PropertyValueFactory<>(c));
-        ColType.setCellValueFactory(new PropertyValueFactory<>(t2));
-        ColStart.setCellValueFactory(new PropertyValueFactory<>(st));
-        ColEnd.setCellValueFactory(new PropertyValueFactory<>(et));
-        ColCustomerID.setCellValueFactory(new PropertyValueFactory<>(cId));
-        ColUserID.setCellValueFactory(new PropertyValueFactory<>(uId));
+        a.setCellValueFactory(CellFactories.of(Appointment::getAppointmentId));
+        t.setCellValueFactory(CellFactories.of(Appointment::getTitle));
+        d.setCellValueFactory(CellFactories.of(Appointment::getDescription));
+        l.setCellValueFactory(CellFactories.of(Appointment::getLocation));
+        c.setCellValueFactory(CellFactories.of(Appointment::getContactName));
+        t2.setCellValueFactory(CellFactories.of(Appointment::getType));
+        st.setCellValueFactory(CellFactories.of(Appointment::getStartTime));
+        st.setCellFactory(CellFactories.dateTime());
+        et.setCellValueFactory(CellFactories.of(Appointment::getEndTime));
+        et.setCellFactory(CellFactories.dateTime());
+        cId.setCellValueFactory(CellFactories.of(Appointment::getCustomerId));
+        uId.setCellValueFactory(CellFactories.of(Appointment::getUserId));
     };
 
     /**
      * Initializes the scheduler dashboard, loading appointment data and preparing combo boxes for reporting.
+     * Appointments are loaded a page at a time as the table is scrolled, and contact names are loaded in the
+     * background and shown once they arrive.
      * @param url The URL for initialization
      * @param resourceBundle The resource bundle for initialization
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-        try {
-            allAppointments = AppointmentDAO.getAppointments();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        appointmentPager = new AppointmentPager(AppointmentsTable);
+        allAppointments = appointmentPager.getWindow();
+        columnOrders.put(ColAppID, PageOrder.APPOINTMENT_ID);
+        columnOrders.put(ColTitle, PageOrder.TITLE);
+        columnOrders.put(ColDescription, PageOrder.DESCRIPTION);
+        columnOrders.put(ColLocation, PageOrder.LOCATION);
+        ColContact.setSortable(false);
+        columnOrders.put(ColType, PageOrder.TYPE);
+        columnOrders.put(ColStart, PageOrder.START);
+        columnOrders.put(ColEnd, PageOrder.END);
+        columnOrders.put(ColCustomerID, PageOrder.CUSTOMER_ID);
+        columnOrders.put(ColUserID, PageOrder.USER_ID);
+        AppointmentsTable.setSortPolicy(table -> sortAppointments());
+        DeltaSync.watch(appointmentPager::apply, null);
         populateTable();
 
         // Combobox initialization logic
         ComboBoxType.setItems(DataLists.getTypes());
         ComboBoxMonth.setItems(DataLists.getMonths());
-        try {
-            ComboBoxContact.setItems(ContactDAO.getContactNames());
-        } catch (SQLException throwables) {
-            throwables.printStackTrace();
-        }
+        AsyncDAO.getContactNames()
+                .thenAccept(contactNames -> ComboBoxContact.setItems(contactNames))
+                .exceptionally(AsyncExecutor::printError);
         ComboBoxLocation.setItems(DataLists.getPlaces());
     }
 
     /**
-     * Populates the main appointment table and sets up table columns.
+     * Reloads the main appointment table from its first page, discarding the pages already loaded.
+     */
+    public void loadAppointments()
+    {
+        appointmentPager.reload();
+    }
+
+    /**
+     * Shows the appointments matching a filter in the main appointment table, keeping the column sort the user chose.
+     * @param filter The filter preset to show.
+     */
+    private void showFilter(AppointmentFilter filter)
+    {
+        AppointmentFilter current = appointmentPager.getFilter();
+        filter.setOrder(current.getOrder(), current.isDescending());
+        appointmentPager.reload(filter);
+    }
+
+    /**
+     * Sort policy of the main appointment table. Instead of sorting the loaded rows, the first column in the table's
+     * sort order is passed to the database and the table is reloaded from its first page in the new order.
+     * @return true, as the sort is always accepted.
+     */
+    private boolean sortAppointments()
+    {
+        PageOrder order = PageOrder.APPOINTMENT_ID;
+        boolean descending = false;
+        if (!AppointmentsTable.getSortOrder().isEmpty()) {
+            TableColumn<Appointment, ?> column = AppointmentsTable.getSortOrder().get(0);
+            order = columnOrders.getOrDefault(column, PageOrder.APPOINTMENT_ID);
+            descending = column.getSortType() == TableColumn.SortType.DESCENDING;
+        }
+        AppointmentFilter filter = appointmentPager.getFilter();
+        if (order != filter.getOrder() || descending != filter.isDescending()) {
+            filter.setOrder(order, descending);
+            appointmentPager.reload(filter);
+        }
+        return true;
+    }
+
+    /**
+     * Populates the main appointment table with the All preset and sets up table columns. The table is fed by the
+     * AppointmentPager, which loads the first page now and further pages as the user scrolls.
      * Visibility of other tables is adjusted for clear display.
      */
     public void populateTable()
     {
-        AppointmentsTable.setItems(allAppointments);
+        showFilter(AppointmentFilter.all());
 
-        columnSetter.setColumns("appointmentId", "title", "description", "location", "contactName",
-                "type", "startTime", "endTime", "customerId", "userId");
+        columnSetter.setColumns(ColAppID, ColTitle, ColDescription, ColLocation, ColContact, ColType, ColStart, ColEnd, ColCustomerID, ColUserID);
 
         AppointmentsTable.visibleProperty().setValue(true);
         TypeTabReport.visibleProperty().setValue(false);
@@ -103,22 +179,17 @@ public class ScheduleScreenController implements Initializable
     }
 
     /**
-     * Loads and displays appointments for the current month as per the user's system time zone. This method queries the
-     * database for appointments corresponding to the current month. It also sets up the table columns using the
+     * Loads and displays appointments for the current month as per the user's system time zone. This method applies
+     * the Month preset of the appointment filter, so only the current month's appointments are queried, a page at a time. It also sets up the table columns using the
      * TableColumns interface and a lambda expression, streamlining the process of initializing table columns. The method
      * additionally manages the visibility of this and other TableView elements to ensure that only the relevant table
      * is displayed at any given time.
      */
     public void populateTableMonth()
     {
-        try {
-            AppointmentsTable.setItems(AppointmentDAO.getAppointmentsByMonth());
-        } catch (SQLException throwables) {
-            throwables.printStackTrace();
-        }
+        showFilter(AppointmentFilter.currentMonth());
 
-        columnSetter.setColumns("appointmentId", "title", "description", "location", "contactName",
-                "type", "startTime", "endTime", "customerId", "userId");
+        columnSetter.setColumns(ColAppID, ColTitle, ColDescription, ColLocation, ColContact, ColType, ColStart, ColEnd, ColCustomerID, ColUserID);
 
         AppointmentsTable.visibleProperty().setValue(true);
         TypeTabReport.visibleProperty().setValue(false);
@@ -128,20 +199,15 @@ public class ScheduleScreenController implements Initializable
 
     /**
      * Populates the TableView with appointments scheduled for the current day and the upcoming seven days, based on the user's local time zone.
-     * This method performs a database query to fetch appointments falling within the next week. It initializes the TableColumns,
+     * This method applies the Week preset of the appointment filter to fetch appointments falling within the next week. It initializes the TableColumns,
      * streamlining this process by using the TableColumns interface with a lambda expression for efficiency. The method also manages
      * the visibility of various TableView elements, ensuring only relevant data is displayed while hiding others.
      */
     public void populateTableWeek() {
         {
-            try {
-                AppointmentsTable.setItems(AppointmentDAO.getAppointmentsByWeek());
-            } catch (SQLException throwables) {
-                throwables.printStackTrace();
-            }
+            showFilter(AppointmentFilter.currentWeek());
 
-            columnSetter.setColumns("appointmentId", "title", "description", "location", "contactName",
-                    "type", "startTime", "endTime", "customerId", "userId");
+            columnSetter.setColumns(ColAppID, ColTitle, ColDescription, ColLocation, ColContact, ColType, ColStart, ColEnd, ColCustomerID, ColUserID);
 
             AppointmentsTable.visibleProperty().setValue(true);
             TypeTabReport.visibleProperty().setValue(false);
@@ -193,6 +259,15 @@ public class ScheduleScreenController implements Initializable
             alert.setContentText("Select an appointment to update.");
             return;
         }
+        else if (AppointmentsTable.getSelectionModel().getSelectedItem().getSeriesId() != 0)
+        {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.show();
+            alert.setHeaderText("Error");
+            alert.setContentText("This appointment is part of a series (ID:" + AppointmentsTable.getSelectionModel().getSelectedItem().getSeriesId() +
+                    "). Use Delete to skip its date or delete the series.");
+            return;
+        }
         else {
 
             FXMLLoader loader = new FXMLLoader();
@@ -227,8 +302,9 @@ public class ScheduleScreenController implements Initializable
     /**
      * Removes the selected appointment from the database. Initially checks if an appointment is selected in the TableView.
      * If no selection is made, an error alert is displayed. Upon selection, the user is prompted to confirm the deletion.
-     * After confirmation, the appointment is deleted and a success message is shown. The TableView is then refreshed
-     * to reflect the changes.
+     * After confirmation, the appointment is deleted and a success message is shown. The deleted appointment is then
+     * removed from the rows already loaded in the TableView, without reloading them. An occurrence of a recurring
+     * series is handled by deleteOccurrence instead.
      */
     public void deleteAppointment() throws SQLException {
         if( AppointmentsTable.getSelectionModel().getSelectedItem() == null)
@@ -239,30 +315,158 @@ public class ScheduleScreenController implements Initializable
             alert.setContentText("Select an appointment to delete.");
             return;
         }
+        else if (AppointmentsTable.getSelectionModel().getSelectedItem().getSeriesId() != 0) {
+            deleteOccurrence(AppointmentsTable.getSelectionModel().getSelectedItem());
+        }
         else {
             Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "Confirm to delete appointment (ID:" + AppointmentsTable.getSelectionModel().getSelectedItem().getAppointmentId() + ") ?");
             alert.showAndWait().ifPresent(response -> {
                 if (response == ButtonType.OK) {
-                    String appointmentId = String.valueOf(AppointmentsTable.getSelectionModel().getSelectedItem().getAppointmentId());
-                    String type = AppointmentsTable.getSelectionModel().getSelectedItem().getType();
-                    try {
-                        AppointmentDAO.deleteAppointment(AppointmentsTable.getSelectionModel().getSelectedItem().getAppointmentId());
-                    } catch (SQLException throwables) {
-                        throwables.printStackTrace();
-                    }
-                    Alert alertDeleted = new Alert(Alert.AlertType.INFORMATION);
-                    alertDeleted.show();
-                    alertDeleted.setHeaderText("Delete Successful");
-                    alertDeleted.setContentText("Appointment (" + "ID:" + appointmentId + ", Type: " + type + ") deleted");
+                    Appointment selected = AppointmentsTable.getSelectionModel().getSelectedItem();
+                    String appointmentId = String.valueOf(selected.getAppointmentId());
+                    String type = selected.getType();
+                    AsyncDAO.deleteAppointment(selected.getAppointmentId())
+                            .thenAccept(deleted -> {
+                                Alert alertDeleted = new Alert(Alert.AlertType.INFORMATION);
+                                alertDeleted.show();
+                                alertDeleted.setHeaderText("Delete Successful");
+                                alertDeleted.setContentText("Appointment (" + "ID:" + appointmentId + ", Type: " + type + ") deleted");
+                                AppointmentsTable.getItems().remove(selected);
+                            })
+                            .exceptionally(AsyncExecutor::printError);
                 }
             });
-            try {
-                allAppointments = AppointmentDAO.getAppointments();
-            } catch (SQLException throwables) {
-                throwables.printStackTrace();
+        }
+    }
+
+    /**
+     * Removes an occurrence of a recurring series selected in the TableView. The user chooses between skipping only
+     * the date of the occurrence and deleting the whole series. The table is then reloaded, since the loaded rows may
+     * hold other occurrences of the series.
+     * @param occurrence The selected occurrence.
+     */
+    private void deleteOccurrence(Appointment occurrence)
+    {
+        int seriesId = occurrence.getSeriesId();
+        ButtonType skipDate = new ButtonType("Skip Date");
+        ButtonType deleteSeries = new ButtonType("Delete Series");
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "This appointment is part of a series (ID:" + seriesId + "). Skip it on " +
+                DataLists.myFormattedDTF(occurrence.getStartTime()) + " only, or delete the whole series?", skipDate, deleteSeries, ButtonType.CANCEL);
+        alert.showAndWait().ifPresent(response -> {
+            CompletableFuture<String> done;
+            if (response == skipDate) {
+                done = AsyncDAO.skipOccurrence(seriesId, occurrence.getStartTime().toLocalDate())
+                        .thenApply(skipped -> skipped ? "Series (ID:" + seriesId + ") skipped on " + DataLists.myFormattedDTF(occurrence.getStartTime())
+                                : "Series (ID:" + seriesId + ") no longer exists");
+            } else if (response == deleteSeries) {
+                done = AsyncDAO.deleteSeries(seriesId).thenApply(deleted -> "Series (ID:" + seriesId + ", Type: " + occurrence.getType() + ") deleted");
+            } else {
+                return;
             }
-            populateTable();
+            done.thenAccept(message -> {
+                        Alert alertDeleted = new Alert(Alert.AlertType.INFORMATION);
+                        alertDeleted.show();
+                        alertDeleted.setHeaderText("Delete Successful");
+                        alertDeleted.setContentText(message);
+                        loadAppointments();
+                    })
+                    .exceptionally(AsyncExecutor::printError);
+        });
+    }
+
+    /**
+     * Cancels the report query that is currently running, if any. Bound to the Cancel button in the Reports section.
+     */
+    public void cancelReport()
+    {
+        if (runningReport != null) {
+            runningReport.cancel();
+            runningReport = null;
+        }
+    }
+
+    /**
+     * Exports what the schedule is showing to a CSV or NDJSON file chosen by the user, bound to the Export button next
+     * to Cancel in the Reports section. The contact and location reports export their contact's or location's
+     * appointments, and the appointment table exports every appointment, or those starting in the current month or
+     * week when that view is selected. The export runs as the current report, so Cancel stops it.
+     */
+    public void exportReport()
+    {
+        if (TypeTabReport.isVisible()) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.show();
+            alert.setHeaderText("Export");
+            alert.setContentText("The Type/Month report cannot be exported. Show appointments or a contact or location report.");
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Appointments");
+        FileChooser.ExtensionFilter csv = new FileChooser.ExtensionFilter("CSV", "*.csv");
+        FileChooser.ExtensionFilter ndjson = new FileChooser.ExtensionFilter("NDJSON", "*.ndjson");
+        chooser.getExtensionFilters().addAll(csv, ndjson);
+        File chosen = chooser.showSaveDialog(AppointmentsTable.getScene().getWindow());
+        if (chosen == null) {
+            return;
+        }
+        Path file = chosen.toPath();
+        ExportFormat format = chooser.getSelectedExtensionFilter() == ndjson || chosen.getName().endsWith(".ndjson")
+                ? ExportFormat.NDJSON : ExportFormat.CSV;
+
+        QueryHandle handle = startReport();
+        CompletableFuture<ExportResult> export;
+        if (ContactTabReport.isVisible()) {
+            export = AsyncDAO.exportContactReport(ComboBoxContact.getValue().toString(), file, format, handle);
+        } else if (CustomTabReport.isVisible()) {
+            export = AsyncDAO.exportLocationReport(ComboBoxLocation.getValue().toString(), file, format, handle);
+        } else {
+            AppointmentFilter filter = appointmentPager.getFilter();
+            export = filter.getFrom() == null
+                    ? AsyncDAO.exportAppointments(file, format, handle)
+                    : AsyncDAO.exportRange(filter.getFrom(), filter.getTo(), file, format, handle);
         }
+        export.thenAccept(result -> {
+                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                    alert.show();
+                    alert.setHeaderText("Export Successful");
+                    alert.setContentText(result.getRows() + " appointments exported to " + result.getFile().getFileName());
+                })
+                .exceptionally(e -> reportFailed(handle, e));
+    }
+
+    /**
+     * Cancels any report still running and creates the handle for the next one, so only one report query runs at a time.
+     * @return The handle for the report about to run.
+     */
+    private QueryHandle startReport()
+    {
+        cancelReport();
+        runningReport = new QueryHandle();
+        return runningReport;
+    }
+
+    /**
+     * Handles a report that ended with an error. Cancelled reports are ignored, timed out reports are reported to
+     * the user, and any other error is printed.
+     * @param handle The handle of the failed report.
+     * @param e The error the report failed with.
+     * @return null, so the report's future continues without a result.
+     */
+    private Void reportFailed(QueryHandle handle, Throwable e)
+    {
+        if (handle.isCancelled()) {
+            return null;
+        }
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof SQLTimeoutException) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.show();
+            alert.setHeaderText("Report Timed Out");
+            alert.setContentText("The report took too long to run. Try a narrower selection.");
+            return null;
+        }
+        cause.printStackTrace();
+        return null;
     }
 
     /**
@@ -273,11 +477,17 @@ public class ScheduleScreenController implements Initializable
 
         try{
 
-            TypeTabReport.setItems(AppointmentDAO.getMonthTypeReport(ComboBoxMonth.getValue().toString(), ComboBoxType.getValue().toString()));
+            String month = ComboBoxMonth.getValue().toString();
+            String type = ComboBoxType.getValue().toString();
+            //Counted from the appointment cache, so there is no query to cancel; only stop any report still running
+            cancelReport();
+            AsyncDAO.getMonthTypeReport(month, type)
+                    .thenAccept(report -> TypeTabReport.setItems(report))
+                    .exceptionally(AsyncExecutor::printError);
 
-            MonthReport.setCellValueFactory(new PropertyValueFactory<>("month"));
-            TypeReport.setCellValueFactory(new PropertyValueFactory<>("type"));
-            CountColumn.setCellValueFactory(new PropertyValueFactory<>("count"));
+            MonthReport.setCellValueFactory(CellFactories.of(Appointment::getMonth));
+            TypeReport.setCellValueFactory(CellFactories.of(Appointment::getType));
+            CountColumn.setCellValueFactory(CellFactories.of(Appointment::getCount));
 
             AppointmentsTable.visibleProperty().setValue(false);
             TypeTabReport.visibleProperty().setValue(true);
@@ -305,18 +515,14 @@ public class ScheduleScreenController implements Initializable
      */
     public void getContactReport() throws SQLException {
         try {
-            ContactTabReport.setItems(AppointmentDAO.getContactReport(ComboBoxContact.getValue().toString()));
-
-            ContactColAppID.setCellValueFactory(new PropertyValueFactory<>("appointmentId"));
-            ContactColTitle.setCellValueFactory(new PropertyValueFactory<>("title"));
-            ContactColDescription.setCellValueFactory(new PropertyValueFactory<>("description"));
-            ContactColLocation.setCellValueFactory(new PropertyValueFactory<>("location"));
-            ContactColContact.setCellValueFactory(new PropertyValueFactory<>("contactName"));
-            ContactColType.setCellValueFactory(new PropertyValueFactory<>("type"));
-            ContactColStart.setCellValueFactory(new PropertyValueFactory<>("startTime"));
-            ContactColEnd.setCellValueFactory(new PropertyValueFactory<>("endTime"));
-            ContactColCustomerID.setCellValueFactory(new PropertyValueFactory<>("customerId"));
-            ContactColUserID.setCellValueFactory(new PropertyValueFactory<>("userId"));
+            String contactName = ComboBoxContact.getValue().toString();
+            QueryHandle handle = startReport();
+            AsyncDAO.getContactReport(contactName, handle)
+                    .thenAccept(report -> ContactTabReport.setItems(report))
+                    .exceptionally(e -> reportFailed(handle, e));
+
+            columnSetter.setColumns(ContactColAppID, ContactColTitle, ContactColDescription, ContactColLocation, ContactColContact,
+                    ContactColType, ContactColStart, ContactColEnd, ContactColCustomerID, ContactColUserID);
 
             AppointmentsTable.visibleProperty().setValue(false);
             TypeTabReport.visibleProperty().setValue(false);
@@ -346,18 +552,14 @@ public class ScheduleScreenController implements Initializable
     public void getCustomReport() throws SQLException {
 
         try {
-            CustomTabReport.setItems(AppointmentDAO.getLocationReport(ComboBoxLocation.getValue().toString()));
-
-            CustomColAppID.setCellValueFactory(new PropertyValueFactory<>("appointmentId"));
-            CustomColTitle.setCellValueFactory(new PropertyValueFactory<>("title"));
-            CustomColDescription.setCellValueFactory(new PropertyValueFactory<>("description"));
-            CustomColLocation.setCellValueFactory(new PropertyValueFactory<>("location"));
-            CustomColContact.setCellValueFactory(new PropertyValueFactory<>("contactName"));
-            CustomColType.setCellValueFactory(new PropertyValueFactory<>("type"));
-            CustomColStart.setCellValueFactory(new PropertyValueFactory<>("startTime"));
-            CustomColEnd.setCellValueFactory(new PropertyValueFactory<>("endTime"));
-            CustomColCustomerID.setCellValueFactory(new PropertyValueFactory<>("customerId"));
-            CustomColUserID.setCellValueFactory(new PropertyValueFactory<>("userId"));
+            String location = ComboBoxLocation.getValue().toString();
+            QueryHandle handle = startReport();
+            AsyncDAO.getLocationReport(location, handle)
+                    .thenAccept(report -> CustomTabReport.setItems(report))
+                    .exceptionally(e -> reportFailed(handle, e));
+
+            columnSetter.setColumns(CustomColAppID, CustomColTitle, CustomColDescription, CustomColLocation, CustomColContact,
+                    CustomColType, CustomColStart, CustomColEnd, CustomColCustomerID, CustomColUserID);
 
             AppointmentsTable.visibleProperty().setValue(false);
             TypeTabReport.visibleProperty().setValue(false);
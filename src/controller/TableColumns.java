@@ -1,5 +1,10 @@
 package controller;
 
+import javafx.scene.control.TableColumn;
+import model.Appointment;
+
+import java.time.LocalDateTime;
+
 /**
  *
  * @author Hamza Yousaf
@@ -7,8 +12,12 @@ package controller;
  * Interface for the TableColumns lambda expression utilized in the SchedulerDashboardController.
  * This interface simplifies the initialization of TableColumns in a TableView, reducing the amount of
  * repetitive code required. The lambda expression is employed in multiple methods, including populateTable,
- * populateTableMonth, and populateTableWeek, to streamline the setup of table columns.
+ * populateTableMonth, populateTableWeek and the contact and location reports, to bind each appointment column to
+ * its getter.
  */
 public interface TableColumns {
-    void setColumns(String a, String t, String d, String l, String c, String t2, String st, String et, String cId, String uId);
-}
\ No newline at end of file
+    void setColumns(TableColumn<Appointment, Integer> a, TableColumn<Appointment, String> t, TableColumn<Appointment, String> d,
+                    TableColumn<Appointment, String> l, TableColumn<Appointment, String> c, TableColumn<Appointment, String> t2,
+                    TableColumn<Appointment, LocalDateTime> st, TableColumn<Appointment, LocalDateTime> et,
+                    TableColumn<Appointment, Integer> cId, TableColumn<Appointment, Integer> uId);
+}
@@ -1,14 +1,29 @@
 package main;
 
+import DAO.BulkImporter;
+import DAO.DeltaSync;
+import DAO.LoginActivityLog;
+import DAO.LoginActivityStore;
+import DataBase.AsyncExecutor;
 import DataBase.JDBC;
+import DataBase.SchemaMigrations;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import model.LoginAttempt;
 
 import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  *
@@ -57,19 +72,124 @@ public class Main extends Application {
     /**
      * The main method for the program.
      *
-     * @param args Command-line arguments.
+     * @param args Command-line arguments. With --migrate-dry-run, the pending schema migrations are printed and the
+     *             program exits without changing the database or launching. If the migrations cannot be listed or
+     *             applied, the program exits with status 1 instead of launching against an unexpected schema. With
+     *             --export-login-activity, the login history is written to login_activity.txt and the program exits.
+     *             With --query-login-activity, the login attempts matching the arguments after it are printed and the
+     *             program exits; see queryLoginActivity. With --import-customers or --import-appointments followed by
+     *             a CSV file, the file is imported through BulkImporter, its rejected rows are written to a file named
+     *             with -errors next to it, and the program exits.
      * @throws SQLException If an error occurs while interacting with the SQL database.
      * @throws IOException  If an error occurs while reading or writing files.
      */
     public static void main(String[] args) throws SQLException, IOException {
 
+        //Write the login history as text
+        if (Arrays.asList(args).contains("--export-login-activity")) {
+            long exported = LoginActivityStore.exportText(Paths.get("login_activity.txt"));
+            System.out.println("Exported " + exported + " login attempts to login_activity.txt");
+            return;
+        }
+
+        //Print the login attempts matching a query
+        int query = Arrays.asList(args).indexOf("--query-login-activity");
+        if (query >= 0) {
+            queryLoginActivity(Arrays.copyOfRange(args, query + 1, args.length));
+            return;
+        }
+
         //Open Database connection
         JDBC.openConnection();
 
+        //Bring the schema up to date before anything reads it
+        if (Arrays.asList(args).contains("--migrate-dry-run")) {
+            boolean listed = SchemaMigrations.migrate(true);
+            JDBC.closeConnection();
+            if (!listed) {
+                System.exit(1);
+            }
+            return;
+        }
+        if (!SchemaMigrations.migrate(false)) {
+            System.out.println("Error: The database schema is not up to date; the application will not start.");
+            JDBC.closeConnection();
+            System.exit(1);
+        }
+
+        //Import customers or appointments from CSV files
+        int importCustomers = Arrays.asList(args).indexOf("--import-customers");
+        int importAppointments = Arrays.asList(args).indexOf("--import-appointments");
+        if (importCustomers >= 0 || importAppointments >= 0) {
+            try {
+                if (importCustomers >= 0 && importCustomers + 1 < args.length) {
+                    Path csvFile = Paths.get(args[importCustomers + 1]);
+                    System.out.println(BulkImporter.importCustomers(csvFile, errorFileFor(csvFile)));
+                }
+                if (importAppointments >= 0 && importAppointments + 1 < args.length) {
+                    Path csvFile = Paths.get(args[importAppointments + 1]);
+                    System.out.println(BulkImporter.importAppointments(csvFile, errorFileFor(csvFile)));
+                }
+            } finally {
+                AsyncExecutor.shutdown();
+                JDBC.closeConnection();
+            }
+            return;
+        }
+        DeltaSync.start();
+
         //Change Locale to French
         //Locale.setDefault(new Locale("fr","FR"));
 
         launch(args);
+        DeltaSync.stop();
+        LoginActivityLog.close();
+        AsyncExecutor.shutdown();
         JDBC.closeConnection();
     }
+
+    /**
+     * Returns the file the rejected rows of an import are written to: the CSV file's name with -errors added, next to it.
+     *
+     * @param csvFile The file being imported.
+     * @return The error file.
+     */
+    private static Path errorFileFor(Path csvFile) {
+        String name = csvFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String errorName = dot > 0 ? name.substring(0, dot) + "-errors" + name.substring(dot) : name + "-errors.csv";
+        return csvFile.resolveSibling(errorName);
+    }
+
+    /**
+     * Prints the login attempts matching a query, one line each in the format of login_activity.txt. The arguments are
+     * the username, or * for any user, then successful, failed or all, then the first and last dates of the range as
+     * yyyy-MM-dd in the system time zone, both included. For example: test failed 2026-09-01 2026-09-30.
+     *
+     * @param query The arguments following --query-login-activity.
+     * @throws IOException If the login history cannot be read.
+     */
+    private static void queryLoginActivity(String[] query) throws IOException {
+        if (query.length < 4 || !Arrays.asList("successful", "failed", "all").contains(query[1])) {
+            System.out.println("Usage: --query-login-activity <username|*> <successful|failed|all> <from yyyy-MM-dd> <to yyyy-MM-dd>");
+            return;
+        }
+        String userName = query[0].equals("*") ? null : query[0];
+        Boolean successful = query[1].equals("all") ? null : query[1].equals("successful");
+        Instant from;
+        Instant to;
+        try {
+            ZoneId myZoneId = ZoneId.systemDefault();
+            from = LocalDate.parse(query[2]).atStartOfDay(myZoneId).toInstant();
+            to = LocalDate.parse(query[3]).plusDays(1).atStartOfDay(myZoneId).toInstant();
+        } catch (DateTimeParseException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+        List<LoginAttempt> attempts = LoginActivityStore.getAttempts(userName, successful, from, to);
+        for (LoginAttempt attempt : attempts) {
+            System.out.println(LoginActivityLog.format(attempt));
+        }
+        System.out.println(attempts.size() + " login attempts found");
+    }
 }
\ No newline at end of file
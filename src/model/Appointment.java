@@ -10,7 +10,7 @@ import java.time.LocalDateTime;
 public class Appointment
 {
     String title, description, location, contactName, type, month;
-    int appointmentId, customerId, contactId, userId, count;
+    int appointmentId, seriesId, customerId, contactId, userId, count;
     LocalDateTime startTime, endTime;
 
     /**
@@ -117,6 +117,18 @@ public class Appointment
         this.appointmentId = appointmentId;
     }
 
+    /** Returns the ID of the series this appointment is an occurrence of, or 0 for a single appointment.
+     *  @return The series ID. */
+    public int getSeriesId() {
+        return seriesId;
+    }
+
+    /** Sets the ID of the series this appointment is an occurrence of.
+     *  @param seriesId The series ID, or 0 for a single appointment. */
+    public void setSeriesId(int seriesId) {
+        this.seriesId = seriesId;
+    }
+
     /** Returns the title of the appointment.
      *  @return The title of this appointment. */
     public String getTitle() {
@@ -0,0 +1,299 @@
+package model;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * Class for the AppointmentSeries model. A series is the definition of a repeating appointment: the details and times
+ * of its first occurrence, a recurrence rule, and the dates on which it is skipped. Occurrences are not stored; they
+ * are expanded on demand for the time window being shown or checked, as Appointment objects with an appointment ID
+ * of 0 and the series' ID.
+ *
+ * The n-th occurrence starts n times interval units of the frequency after the first one, at the same local time. A
+ * monthly series started on the 31st falls on the last day of shorter months. The series ends after count
+ * occurrences, counting skipped ones, or after the until date, whichever comes first; with neither it never ends. */
+public class AppointmentSeries
+{
+    String title, description, location, contactName, type;
+    int seriesId, customerId, contactId, userId;
+    LocalDateTime startTime, endTime;
+    RecurrenceFrequency frequency;
+    int interval = 1;
+    int count;
+    LocalDate until;
+    Set<LocalDate> exceptions = new TreeSet<>();
+
+    /**
+     * Constructs an AppointmentSeries.
+     *
+     * @param seriesId Unique identifier from the appointment_series table, or 0 for a new series.
+     * @param title Title of every occurrence.
+     * @param description Description of every occurrence.
+     * @param location Location of every occurrence.
+     * @param type Type of every occurrence.
+     * @param startTime Start time of the first occurrence.
+     * @param endTime End time of the first occurrence.
+     * @param customerId Customer ID of every occurrence.
+     * @param contactId Contact ID of every occurrence.
+     * @param userId User ID of every occurrence.
+     * @param frequency How often the occurrences repeat.
+     * @param interval The number of frequency units between occurrences, at least 1.
+     */
+    public AppointmentSeries(int seriesId, String title, String description, String location, String type, LocalDateTime startTime, LocalDateTime endTime, int customerId, int contactId, int userId, RecurrenceFrequency frequency, int interval)
+    {
+        this.seriesId = seriesId;
+        this.title = title;
+        this.description = description;
+        this.location = location;
+        this.type = type;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.customerId = customerId;
+        this.contactId = contactId;
+        this.userId = userId;
+        this.frequency = frequency;
+        this.interval = Math.max(1, interval);
+    }
+
+    /**
+     * Expands the occurrences that overlap a time window. Only the occurrences inside the window are built: the first
+     * one is found by calendar arithmetic rather than by stepping from the start of the series.
+     *
+     * @param from The start of the window, inclusive.
+     * @param to The end of the window, exclusive.
+     * @return The occurrences overlapping the window, in start time order, skipping the exception dates.
+     */
+    public List<Appointment> getOccurrences(LocalDateTime from, LocalDateTime to)
+    {
+        List<Appointment> occurrences = new ArrayList<>();
+        Duration length = Duration.between(startTime, endTime);
+        LocalDateTime startsAfter = from.minus(length);
+        long index = startsAfter.isAfter(startTime)
+                ? Math.max(0, frequency.getUnit().between(startTime, startsAfter) / interval - 1) : 0;
+        for (; count == 0 || index < count; index++) {
+            LocalDateTime start = getOccurrenceStart(index);
+            if (!start.isBefore(to) || (until != null && start.toLocalDate().isAfter(until))) {
+                break;
+            }
+            if (!start.isAfter(startsAfter) || exceptions.contains(start.toLocalDate())) {
+                continue;
+            }
+            occurrences.add(getOccurrence(index));
+        }
+        return occurrences;
+    }
+
+    /**
+     * Builds one occurrence, whether or not it is skipped.
+     *
+     * @param index The number of the occurrence, 0 for the first.
+     * @return The occurrence, with an appointment ID of 0 and this series' ID.
+     */
+    public Appointment getOccurrence(long index)
+    {
+        LocalDateTime start = getOccurrenceStart(index);
+        Appointment occurrence = new Appointment(0, title, description, location, contactName, type, start,
+                start.plus(Duration.between(startTime, endTime)), customerId, contactId, userId);
+        occurrence.setSeriesId(seriesId);
+        return occurrence;
+    }
+
+    /**
+     * Checks whether an occurrence falls on one of the exception dates.
+     *
+     * @param index The number of the occurrence, 0 for the first.
+     * @return `true` if the occurrence is skipped.
+     */
+    public boolean isSkipped(long index)
+    {
+        return exceptions.contains(getOccurrenceStart(index).toLocalDate());
+    }
+
+    /**
+     * Returns the number of the last occurrence of a series that ends, counting skipped ones. Together with
+     * getOccurrenceStart, which grows with the number, this lets the occurrences in a range be found by binary search.
+     *
+     * @return The number of the last occurrence, or -1 if the series never ends or ends before its first occurrence.
+     */
+    public long getLastIndex()
+    {
+        if (!isBounded()) {
+            return -1;
+        }
+        long last = count > 0 ? count - 1 : Long.MAX_VALUE;
+        if (until != null) {
+            LocalDateTime after = until.plusDays(1).atStartOfDay();
+            if (!startTime.isBefore(after)) {
+                return -1;
+            }
+            long index = Math.min(last, frequency.getUnit().between(startTime, after) / interval + 1);
+            while (index > 0 && !getOccurrenceStart(index).isBefore(after)) {
+                index--;
+            }
+            last = index;
+        }
+        return last;
+    }
+
+    /**
+     * Expands every occurrence of a series that ends.
+     *
+     * @return The occurrences in start time order, skipping the exception dates, or an empty list if the series never
+     *         ends.
+     */
+    public List<Appointment> getAllOccurrences()
+    {
+        if (!isBounded()) {
+            return new ArrayList<>();
+        }
+        return getOccurrences(startTime, LocalDateTime.MAX.minusYears(1));
+    }
+
+    /**
+     * Returns the start time of an occurrence, whether or not it is skipped.
+     *
+     * @param index The number of the occurrence, 0 for the first.
+     * @return Its start time.
+     */
+    public LocalDateTime getOccurrenceStart(long index)
+    {
+        return startTime.plus(index * interval, frequency.getUnit());
+    }
+
+    /**
+     * Checks whether the series ends, by a count or an until date.
+     *
+     * @return `true` if the series has a last occurrence.
+     */
+    public boolean isBounded()
+    {
+        return count > 0 || until != null;
+    }
+
+    /** Returns the series ID.
+     *  @return The series ID. */
+    public int getSeriesId() {
+        return seriesId;
+    }
+
+    /** Sets the series ID.
+     *  @param seriesId The new series ID. */
+    public void setSeriesId(int seriesId) {
+        this.seriesId = seriesId;
+    }
+
+    /** Returns the title of the occurrences.
+     *  @return The title. */
+    public String getTitle() {
+        return title;
+    }
+
+    /** Returns the description of the occurrences.
+     *  @return The description. */
+    public String getDescription() {
+        return description;
+    }
+
+    /** Returns the location of the occurrences.
+     *  @return The location. */
+    public String getLocation() {
+        return location;
+    }
+
+    /** Returns the type of the occurrences.
+     *  @return The type. */
+    public String getType() {
+        return type;
+    }
+
+    /** Returns the contact name of the occurrences.
+     *  @return The contact name. */
+    public String getContactName() {
+        return contactName;
+    }
+
+    /** Sets the contact name of the occurrences.
+     *  @param contactName The new contact name. */
+    public void setContactName(String contactName) {
+        this.contactName = contactName;
+    }
+
+    /** Returns the start time of the first occurrence.
+     *  @return The first start time. */
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    /** Returns the end time of the first occurrence.
+     *  @return The first end time. */
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    /** Returns the customer ID of the occurrences.
+     *  @return The customer ID. */
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    /** Returns the contact ID of the occurrences.
+     *  @return The contact ID. */
+    public int getContactId() {
+        return contactId;
+    }
+
+    /** Returns the user ID of the occurrences.
+     *  @return The user ID. */
+    public int getUserId() {
+        return userId;
+    }
+
+    /** Returns how often the occurrences repeat.
+     *  @return The frequency. */
+    public RecurrenceFrequency getFrequency() {
+        return frequency;
+    }
+
+    /** Returns the number of frequency units between occurrences.
+     *  @return The interval. */
+    public int getInterval() {
+        return interval;
+    }
+
+    /** Returns the number of occurrences, counting skipped ones.
+     *  @return The count, or 0 if the series is not limited by a count. */
+    public int getCount() {
+        return count;
+    }
+
+    /** Sets the number of occurrences, counting skipped ones.
+     *  @param count The new count, or 0 for no limit. */
+    public void setCount(int count) {
+        this.count = Math.max(0, count);
+    }
+
+    /** Returns the last date an occurrence may start on.
+     *  @return The until date, or null if the series is not limited by a date. */
+    public LocalDate getUntil() {
+        return until;
+    }
+
+    /** Sets the last date an occurrence may start on.
+     *  @param until The new until date, or null for no limit. */
+    public void setUntil(LocalDate until) {
+        this.until = until;
+    }
+
+    /** Returns the dates on which the series is skipped.
+     *  @return The exception dates, in order. */
+    public Set<LocalDate> getExceptions() {
+        return exceptions;
+    }
+}
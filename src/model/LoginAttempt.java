@@ -0,0 +1,65 @@
+package model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * Represents the model for a LoginAttempt. Records who tried to log in, whether it succeeded, and when, along with
+ * the time zone of the client it was made from.
+ */
+public class LoginAttempt
+{
+    String userName;
+    boolean successful;
+    Instant attemptTime;
+    ZoneId zoneId;
+
+    /**
+     * Constructs a LoginAttempt.
+     *
+     * @param userName The username entered.
+     * @param successful Whether the login succeeded.
+     * @param attemptTime When the attempt was made.
+     * @param zoneId The time zone of the client.
+     */
+    public LoginAttempt(String userName, boolean successful, Instant attemptTime, ZoneId zoneId)
+    {
+        this.userName = userName;
+        this.successful = successful;
+        this.attemptTime = attemptTime;
+        this.zoneId = zoneId;
+    }
+
+    /** Returns the username entered.
+     *  @return The username. */
+    public String getUserName() {
+        return userName;
+    }
+
+    /** Returns whether the login succeeded.
+     *  @return `true` for a successful login. */
+    public boolean isSuccessful() {
+        return successful;
+    }
+
+    /** Returns when the attempt was made.
+     *  @return The attempt time. */
+    public Instant getAttemptTime() {
+        return attemptTime;
+    }
+
+    /** Returns the time zone of the client.
+     *  @return The zone ID. */
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    /** Returns when the attempt was made, in the client's time zone.
+     *  @return The local attempt time. */
+    public LocalDateTime getLocalTime() {
+        return LocalDateTime.ofInstant(attemptTime, zoneId);
+    }
+}
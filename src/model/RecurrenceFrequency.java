@@ -0,0 +1,35 @@
+package model;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * @author Hamza Yousaf
+ *
+ * How often the occurrences of an AppointmentSeries repeat. Each frequency is a calendar unit that is multiplied by
+ * the series' interval, so a WEEKLY series with an interval of 2 repeats every other week. */
+public enum RecurrenceFrequency {
+    DAILY(ChronoUnit.DAYS),
+    WEEKLY(ChronoUnit.WEEKS),
+    MONTHLY(ChronoUnit.MONTHS);
+
+    private final ChronoUnit unit;
+
+    /**
+     * Constructs a RecurrenceFrequency.
+     *
+     * @param unit The calendar unit of one repetition.
+     */
+    RecurrenceFrequency(ChronoUnit unit)
+    {
+        this.unit = unit;
+    }
+
+    /**
+     * Returns the calendar unit of one repetition.
+     *
+     * @return The unit.
+     */
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+}